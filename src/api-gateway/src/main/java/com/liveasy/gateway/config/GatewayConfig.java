@@ -8,6 +8,8 @@ import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
 import com.liveasy.gateway.filter.AuthenticationFilter;
+import com.liveasy.gateway.filter.LoadSheddingFilter;
+import com.liveasy.gateway.filter.MicroCacheFilter;
 
 @Configuration
 public class GatewayConfig {
@@ -15,16 +17,22 @@ public class GatewayConfig {
     @Autowired
     private AuthenticationFilter authFilter;
     
+    @Autowired
+    private LoadSheddingFilter loadSheddingFilter;
+    
+    @Autowired
+    private MicroCacheFilter microCacheFilter;
+    
     @Bean
     public RouteLocator routeLocator(RouteLocatorBuilder builder) {
         return builder.routes()
                 .route("auth-service", r -> r.path("/api/auth/**")
                         .uri("lb://auth-service"))
                 .route("load-service", r -> r.path("/api/load/**")
-                        .filters(f -> f.filter(authFilter))
+                        .filters(f -> f.filter(authFilter).filter(microCacheFilter).filter(loadSheddingFilter))
                         .uri("lb://load-service"))
                 .route("booking-service", r -> r.path("/api/booking/**")
-                        .filters(f -> f.filter(authFilter))
+                        .filters(f -> f.filter(authFilter).filter(microCacheFilter).filter(loadSheddingFilter))
                         .uri("lb://booking-service"))
                 .build();
     }
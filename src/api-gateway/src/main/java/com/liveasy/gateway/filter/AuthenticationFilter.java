@@ -10,7 +10,9 @@ import org.springframework.http.server.reactive.ServerHttpResponse;
 import org.springframework.stereotype.Component;
 import org.springframework.web.server.ServerWebExchange;
 
+import com.liveasy.gateway.revocation.TokenRevocations;
 import com.liveasy.gateway.util.JwtUtil;
+import com.liveasy.gateway.util.VerifiedToken;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -21,9 +23,14 @@ public class AuthenticationFilter implements GatewayFilter {
     
     private static final Logger logger = LoggerFactory.getLogger(AuthenticationFilter.class);
     
+    private static final String BEARER_PREFIX = "Bearer ";
+    
     @Autowired
     private JwtUtil jwtUtil;
     
+    @Autowired
+    private TokenRevocations tokenRevocations;
+    
     @Override
     public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
         ServerHttpRequest request = exchange.getRequest();
@@ -36,14 +43,21 @@ public class AuthenticationFilter implements GatewayFilter {
         
         final String token = this.getAuthHeader(request);
         
-        if (jwtUtil.isInvalid(token)) {
+        // Single parse per request; repeat tokens are served from the verified-token cache
+        final VerifiedToken verified = token == null ? null : jwtUtil.verify(token);
+        
+        if (verified == null) {
             logger.error("Authorization token is invalid");
             return this.onError(exchange, HttpStatus.UNAUTHORIZED);
         }
         
-        this.populateRequestWithHeaders(exchange, token);
+        // In-memory check; revocations arrive from auth-service in the background
+        if (tokenRevocations.isRevoked(verified)) {
+            logger.warn("Revoked token presented by user: {}", verified.getUserId());
+            return this.onError(exchange, HttpStatus.UNAUTHORIZED);
+        }
         
-        return chain.filter(exchange);
+        return chain.filter(this.populateRequestWithHeaders(exchange, verified));
     }
     
     private Mono<Void> onError(ServerWebExchange exchange, HttpStatus httpStatus) {
@@ -53,20 +67,25 @@ public class AuthenticationFilter implements GatewayFilter {
     }
     
     private String getAuthHeader(ServerHttpRequest request) {
-        return request.getHeaders().getOrEmpty("Authorization").get(0).substring(7);
+        String header = request.getHeaders().getFirst("Authorization");
+        if (header == null || !header.startsWith(BEARER_PREFIX)) {
+            return null;
+        }
+        return header.substring(BEARER_PREFIX.length());
     }
     
     private boolean isAuthMissing(ServerHttpRequest request) {
         return !request.getHeaders().containsKey("Authorization");
     }
     
-    private void populateRequestWithHeaders(ServerWebExchange exchange, String token) {
-        String userId = jwtUtil.extractUserId(token);
-        String role = jwtUtil.extractRole(token);
-        
-        exchange.getRequest().mutate()
-            .header("userId", userId)
-            .header("role", role)
+    private ServerWebExchange populateRequestWithHeaders(ServerWebExchange exchange, VerifiedToken verified) {
+        ServerHttpRequest request = exchange.getRequest().mutate()
+            .headers(headers -> {
+                headers.set("userId", verified.getUserId());
+                headers.set("role", verified.getRole());
+            })
             .build();
+        
+        return exchange.mutate().request(request).build();
     }
 }
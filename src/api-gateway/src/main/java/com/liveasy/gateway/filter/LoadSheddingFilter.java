@@ -0,0 +1,170 @@
+
+package com.liveasy.gateway.filter;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+
+import com.liveasy.gateway.limit.GradientLimiter;
+import com.liveasy.gateway.limit.GradientLimiter.Priority;
+import com.liveasy.gateway.limit.TokenBuckets;
+
+import javax.annotation.PostConstruct;
+import java.net.InetSocketAddress;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
+
+/**
+ * Sheds load before it reaches a service. Runs after {@link AuthenticationFilter}
+ * so the userId and role headers are trusted. A per-user token bucket answers
+ * 429 to a single noisy client; an adaptive per-route in-flight limit answers
+ * 503 when the service itself is saturating, turning away reads before writes
+ * and admin traffic.
+ */
+@Component
+public class LoadSheddingFilter implements GatewayFilter {
+
+    private static final Logger logger = LoggerFactory.getLogger(LoadSheddingFilter.class);
+
+    @Value("${gateway.limit.initial:50}")
+    private int initialLimit;
+
+    @Value("${gateway.limit.min:10}")
+    private int minLimit;
+
+    @Value("${gateway.limit.max:500}")
+    private int maxLimit;
+
+    @Value("${gateway.limit.read-share:0.75}")
+    private double readShare;
+
+    @Value("${gateway.rate-limit.per-user.rate:20}")
+    private double userRatePerSecond;
+
+    @Value("${gateway.rate-limit.per-user.burst:40}")
+    private double userBurst;
+
+    @Value("${gateway.rate-limit.stripes:64}")
+    private int stripes;
+
+    @Value("${gateway.rate-limit.maximum-users:100000}")
+    private int maximumUsers;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private final Map<String, GradientLimiter> limiters = new ConcurrentHashMap<>();
+
+    private TokenBuckets userBuckets;
+
+    @PostConstruct
+    public void init() {
+        this.userBuckets = new TokenBuckets(userRatePerSecond, userBurst, stripes, maximumUsers);
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        ServerHttpRequest request = exchange.getRequest();
+        String routeId = routeId(exchange);
+        Priority priority = priority(request);
+
+        // Admins are not rate limited per user, only by the route's capacity
+        if (priority != Priority.CRITICAL) {
+            long waitNanos = userBuckets.tryConsume(clientKey(request));
+            if (waitNanos > 0) {
+                return reject(exchange, HttpStatus.TOO_MANY_REQUESTS, routeId, priority, "user_rate", waitNanos);
+            }
+        }
+
+        GradientLimiter limiter = limiters.computeIfAbsent(routeId, this::newLimiter);
+        if (!limiter.tryAcquire(priority)) {
+            return reject(exchange, HttpStatus.SERVICE_UNAVAILABLE, routeId, priority, "concurrency",
+                    TimeUnit.SECONDS.toNanos(1));
+        }
+
+        long start = System.nanoTime();
+        return chain.filter(exchange)
+                .doFinally(signal -> {
+                    // A client that hung up says nothing about downstream latency
+                    if (signal == SignalType.CANCEL) {
+                        limiter.release(0, false);
+                        return;
+                    }
+                    HttpStatus status = exchange.getResponse().getStatusCode();
+                    boolean dropped = signal == SignalType.ON_ERROR
+                            || status == HttpStatus.SERVICE_UNAVAILABLE
+                            || status == HttpStatus.GATEWAY_TIMEOUT;
+                    limiter.release(System.nanoTime() - start, dropped);
+                });
+    }
+
+    private GradientLimiter newLimiter(String routeId) {
+        GradientLimiter limiter = new GradientLimiter(initialLimit, minLimit, maxLimit, readShare);
+        Gauge.builder("gateway.limit", limiter, GradientLimiter::getLimit)
+                .tag("route", routeId)
+                .register(meterRegistry);
+        Gauge.builder("gateway.inflight", limiter, GradientLimiter::getInFlight)
+                .tag("route", routeId)
+                .register(meterRegistry);
+        return limiter;
+    }
+
+    private Mono<Void> reject(ServerWebExchange exchange, HttpStatus httpStatus, String routeId, Priority priority,
+            String reason, long retryAfterNanos) {
+        Counter.builder("gateway.shed")
+                .tag("route", routeId)
+                .tag("reason", reason)
+                .tag("priority", priority.name())
+                .register(meterRegistry)
+                .increment();
+        logger.debug("Shedding {} request on route {}: {}", priority, routeId, reason);
+
+        ServerHttpResponse response = exchange.getResponse();
+        response.setStatusCode(httpStatus);
+        long retryAfterSeconds = Math.max(1, TimeUnit.NANOSECONDS.toSeconds(retryAfterNanos + 999_999_999L));
+        response.getHeaders().set(HttpHeaders.RETRY_AFTER, Long.toString(retryAfterSeconds));
+        return response.setComplete();
+    }
+
+    private static Priority priority(ServerHttpRequest request) {
+        if ("ADMIN".equals(request.getHeaders().getFirst("role"))) {
+            return Priority.CRITICAL;
+        }
+        HttpMethod method = request.getMethod();
+        return method == HttpMethod.GET || method == HttpMethod.HEAD ? Priority.READ : Priority.WRITE;
+    }
+
+    private static String clientKey(ServerHttpRequest request) {
+        String userId = request.getHeaders().getFirst("userId");
+        if (userId != null) {
+            return userId;
+        }
+        InetSocketAddress remoteAddress = request.getRemoteAddress();
+        return remoteAddress == null ? "unknown" : remoteAddress.getHostString();
+    }
+
+    private static String routeId(ServerWebExchange exchange) {
+        Route route = exchange.getAttribute(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR);
+        return route == null ? "unknown" : route.getId();
+    }
+}
@@ -0,0 +1,311 @@
+
+package com.liveasy.gateway.filter;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+import org.reactivestreams.Publisher;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.convert.DurationStyle;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.http.server.reactive.ServerHttpResponseDecorator;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+
+import javax.annotation.PostConstruct;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Opt-in micro-cache for hot GET paths such as the load board. Responses are
+ * kept for a few seconds, so thousands of identical polls cost one upstream
+ * call per TTL. While a fill is in flight, identical requests wait for it
+ * instead of going upstream themselves.
+ */
+@Component
+public class MicroCacheFilter implements GatewayFilter {
+
+    private static final Logger logger = LoggerFactory.getLogger(MicroCacheFilter.class);
+
+    private static final String X_CACHE = "X-Cache";
+
+    // Only these upstream headers are replayed from the cache
+    private static final List<String> CACHED_HEADERS = Arrays.asList(
+            HttpHeaders.CONTENT_TYPE, HttpHeaders.CONTENT_ENCODING, HttpHeaders.ETAG,
+            HttpHeaders.CACHE_CONTROL, HttpHeaders.VARY);
+
+    // path:ttl pairs, e.g. "/api/load:2s"; matched exactly against the request path
+    @Value("${gateway.micro-cache.rules:}")
+    private String[] rules;
+
+    @Value("${gateway.micro-cache.vary-on-role:}")
+    private String[] varyOnRole;
+
+    @Value("${gateway.micro-cache.maximum-bytes:67108864}")
+    private long maximumBytes;
+
+    @Value("${gateway.micro-cache.max-entry-bytes:262144}")
+    private int maxEntryBytes;
+
+    // How long a request waits on another request's fill before going upstream itself
+    @Value("${gateway.micro-cache.collapse-timeout:1s}")
+    private Duration collapseTimeout;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private final Map<String, Long> ttlNanosByPath = new HashMap<>();
+    private final Set<String> roleVariedPaths = new HashSet<>();
+    private final Map<String, CompletableFuture<Optional<CachedResponse>>> inFlight = new ConcurrentHashMap<>();
+
+    private Cache<String, CachedResponse> responses;
+
+    @PostConstruct
+    public void init() {
+        for (String rule : rules) {
+            if (rule.isBlank()) {
+                continue;
+            }
+            int separator = rule.lastIndexOf(':');
+            if (separator <= 0) {
+                throw new IllegalArgumentException("Micro-cache rule must be path:ttl, got: " + rule);
+            }
+            long ttlNanos = DurationStyle.detectAndParse(rule.substring(separator + 1).trim()).toNanos();
+            ttlNanosByPath.put(rule.substring(0, separator).trim(), ttlNanos);
+        }
+        for (String path : varyOnRole) {
+            if (!path.isBlank()) {
+                roleVariedPaths.add(path.trim());
+            }
+        }
+
+        this.responses = Caffeine.newBuilder()
+                .maximumWeight(maximumBytes)
+                .weigher((String key, CachedResponse response) -> response.body.length + key.length())
+                .expireAfter(new Expiry<String, CachedResponse>() {
+                    @Override
+                    public long expireAfterCreate(String key, CachedResponse response, long currentTime) {
+                        return response.ttlNanos;
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String key, CachedResponse response, long currentTime,
+                            long currentDuration) {
+                        return response.ttlNanos;
+                    }
+
+                    @Override
+                    public long expireAfterRead(String key, CachedResponse response, long currentTime,
+                            long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, responses, "gateway-micro-cache");
+        logger.info("Micro-cache enabled for {}", ttlNanosByPath.keySet());
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        ServerHttpRequest request = exchange.getRequest();
+        String path = request.getPath().value();
+        Long ttlNanos = ttlNanosByPath.get(path);
+        if (ttlNanos == null || request.getMethod() != HttpMethod.GET) {
+            return chain.filter(exchange);
+        }
+
+        String key = cacheKey(request, path);
+        CachedResponse cached = responses.getIfPresent(key);
+        if (cached != null) {
+            return serve(exchange, path, cached, "HIT");
+        }
+
+        CompletableFuture<Optional<CachedResponse>> fill = new CompletableFuture<>();
+        CompletableFuture<Optional<CachedResponse>> existing = inFlight.putIfAbsent(key, fill);
+        if (existing != null) {
+            // Ride on the fill in progress; if it turns out uncacheable or is too slow, go upstream after all.
+            // A copy, so a waiter that times out can't cancel the fill the others are waiting on
+            return Mono.fromFuture(existing.copy())
+                    .timeout(collapseTimeout, Mono.fromSupplier(() -> {
+                        count(path, "collapse_timeout");
+                        return Optional.<CachedResponse>empty();
+                    }))
+                    .flatMap(response -> response.isPresent()
+                            ? serve(exchange, path, response.get(), "COLLAPSED")
+                            : chain.filter(exchange));
+        }
+
+        count(path, "miss");
+        // The leader always fetches a full body; the client's own If-None-Match is applied on the way out
+        String ifNoneMatch = request.getHeaders().getFirst(HttpHeaders.IF_NONE_MATCH);
+        ServerHttpRequest upstreamRequest = request.mutate()
+                .headers(headers -> headers.remove(HttpHeaders.IF_NONE_MATCH))
+                .build();
+        ServerHttpResponse capturing = new CapturingResponse(exchange.getResponse(), key, ttlNanos, ifNoneMatch, fill);
+        return chain.filter(exchange.mutate().request(upstreamRequest).response(capturing).build())
+                .doFinally(signal -> {
+                    inFlight.remove(key, fill);
+                    // No-op if the response was captured; otherwise releases any waiters
+                    fill.complete(Optional.empty());
+                });
+    }
+
+    private Mono<Void> serve(ServerWebExchange exchange, String path, CachedResponse cached, String result) {
+        count(path, result.toLowerCase());
+        Counter.builder("gateway.micro_cache.bytes_saved")
+                .tag("path", path)
+                .register(meterRegistry)
+                .increment(cached.body.length);
+
+        ServerHttpResponse response = exchange.getResponse();
+        HttpHeaders headers = response.getHeaders();
+        headers.putAll(cached.headers);
+        headers.set(X_CACHE, result);
+        headers.set(HttpHeaders.AGE, Long.toString(TimeUnit.NANOSECONDS.toSeconds(System.nanoTime() - cached.storedAt)));
+
+        String ifNoneMatch = exchange.getRequest().getHeaders().getFirst(HttpHeaders.IF_NONE_MATCH);
+        if (etagMatches(ifNoneMatch, cached.headers.getETag())) {
+            response.setStatusCode(HttpStatus.NOT_MODIFIED);
+            headers.remove(HttpHeaders.CONTENT_TYPE);
+            headers.remove(HttpHeaders.CONTENT_ENCODING);
+            return response.setComplete();
+        }
+        response.setStatusCode(HttpStatus.OK);
+        headers.setContentLength(cached.body.length);
+        return response.writeWith(Mono.just(response.bufferFactory().wrap(cached.body)));
+    }
+
+    private void count(String path, String result) {
+        Counter.builder("gateway.micro_cache.requests")
+                .tag("path", path)
+                .tag("result", result)
+                .register(meterRegistry)
+                .increment();
+    }
+
+    private String cacheKey(ServerHttpRequest request, String path) {
+        StringBuilder key = new StringBuilder(path).append('?');
+        // Sorted, so parameter order does not split the cache
+        new TreeMap<>(request.getQueryParams()).forEach((name, values) ->
+                values.forEach(value -> key.append(name).append('=').append(value).append('&')));
+        String acceptEncoding = request.getHeaders().getFirst(HttpHeaders.ACCEPT_ENCODING);
+        key.append(acceptEncoding != null && acceptEncoding.contains("gzip") ? "|gzip" : "|identity");
+        if (roleVariedPaths.contains(path)) {
+            key.append("|role=").append(request.getHeaders().getFirst("role"));
+        }
+        return key.toString();
+    }
+
+    private static boolean etagMatches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null || etag == null) {
+            return false;
+        }
+        String opaque = etag.startsWith("W/") ? etag.substring(2) : etag;
+        for (String candidate : ifNoneMatch.split(",")) {
+            String trimmed = candidate.trim();
+            if (trimmed.equals("*") || (trimmed.startsWith("W/") ? trimmed.substring(2) : trimmed).equals(opaque)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Buffers the leader's upstream body, stores it when cacheable and hands it
+     * to the requests that collapsed onto this fill.
+     */
+    private class CapturingResponse extends ServerHttpResponseDecorator {
+        private final String key;
+        private final long ttlNanos;
+        private final String ifNoneMatch;
+        private final CompletableFuture<Optional<CachedResponse>> fill;
+
+        CapturingResponse(ServerHttpResponse delegate, String key, long ttlNanos, String ifNoneMatch,
+                CompletableFuture<Optional<CachedResponse>> fill) {
+            super(delegate);
+            this.key = key;
+            this.ttlNanos = ttlNanos;
+            this.ifNoneMatch = ifNoneMatch;
+            this.fill = fill;
+        }
+
+        @Override
+        public Mono<Void> writeWith(Publisher<? extends DataBuffer> body) {
+            if (getStatusCode() != HttpStatus.OK || getHeaders().containsKey(HttpHeaders.SET_COOKIE)) {
+                return super.writeWith(body);
+            }
+            return DataBufferUtils.join(Flux.from(body)).flatMap(joined -> {
+                byte[] bytes = new byte[joined.readableByteCount()];
+                joined.read(bytes);
+                DataBufferUtils.release(joined);
+
+                if (bytes.length <= maxEntryBytes) {
+                    HttpHeaders headers = new HttpHeaders();
+                    for (String name : CACHED_HEADERS) {
+                        List<String> values = getHeaders().get(name);
+                        if (values != null) {
+                            headers.put(name, values);
+                        }
+                    }
+                    CachedResponse response = new CachedResponse(headers, bytes, ttlNanos);
+                    responses.put(key, response);
+                    fill.complete(Optional.of(response));
+                }
+
+                getHeaders().set(X_CACHE, "MISS");
+                if (etagMatches(ifNoneMatch, getHeaders().getETag())) {
+                    setStatusCode(HttpStatus.NOT_MODIFIED);
+                    getHeaders().remove(HttpHeaders.CONTENT_TYPE);
+                    getHeaders().remove(HttpHeaders.CONTENT_ENCODING);
+                    getHeaders().remove(HttpHeaders.CONTENT_LENGTH);
+                    getHeaders().remove(HttpHeaders.TRANSFER_ENCODING);
+                    return getDelegate().setComplete();
+                }
+                return super.writeWith(Mono.just(bufferFactory().wrap(bytes)));
+            });
+        }
+    }
+
+    private static final class CachedResponse {
+        final HttpHeaders headers;
+        final byte[] body;
+        final long ttlNanos;
+        final long storedAt = System.nanoTime();
+
+        CachedResponse(HttpHeaders headers, byte[] body, long ttlNanos) {
+            this.headers = HttpHeaders.readOnlyHttpHeaders(headers);
+            this.body = body;
+            this.ttlNanos = ttlNanos;
+        }
+    }
+}
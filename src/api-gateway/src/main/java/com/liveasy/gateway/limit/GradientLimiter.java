@@ -0,0 +1,113 @@
+
+package com.liveasy.gateway.limit;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Adaptive in-flight limit for one route, in the style of a latency gradient.
+ * A slow long-term average RTT stands in for the no-load latency. When short-term
+ * RTT rises above it, queueing has started downstream and the limit shrinks in
+ * proportion. While the two agree, the limit grows by a small queue allowance.
+ */
+public class GradientLimiter {
+
+    public enum Priority {
+        // Admin traffic and writes may use the whole limit; reads are shed first
+        CRITICAL, WRITE, READ
+    }
+
+    private static final double SMOOTHING = 0.2;
+    private static final double RTT_TOLERANCE = 1.5;
+    private static final double BACKOFF_RATIO = 0.9;
+    private static final int LONG_WINDOW = 600;
+    private static final int SHORT_WINDOW = 10;
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final double readShare;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    // Guarded by this; samples are cheap arithmetic so a monitor is fine on the event loop
+    private double estimatedLimit;
+    private double longRttNanos;
+    private double shortRttNanos;
+    private long samples;
+
+    private volatile int limit;
+
+    public GradientLimiter(int initialLimit, int minLimit, int maxLimit, double readShare) {
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.readShare = readShare;
+        this.estimatedLimit = initialLimit;
+        this.limit = initialLimit;
+    }
+
+    /**
+     * Claims an in-flight slot, or returns false if the route is at the share of
+     * its limit that this priority may use. Every true must be paired with
+     * {@link #release}.
+     */
+    public boolean tryAcquire(Priority priority) {
+        int allowed = priority == Priority.READ ? Math.max(1, (int) (limit * readShare)) : limit;
+        while (true) {
+            int current = inFlight.get();
+            if (current >= allowed) {
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Releases a slot and feeds the observed latency back into the limit. A drop
+     * (downstream 503/504 or an error) backs the limit off multiplicatively.
+     */
+    public void release(long rttNanos, boolean dropped) {
+        int current = inFlight.getAndDecrement();
+        if (rttNanos <= 0) {
+            return;
+        }
+        synchronized (this) {
+            samples++;
+            shortRttNanos = ewma(shortRttNanos, rttNanos, Math.min(samples, SHORT_WINDOW));
+            longRttNanos = ewma(longRttNanos, rttNanos, Math.min(samples, LONG_WINDOW));
+
+            // After a sustained latency drop, let the baseline catch up instead of growing without bound
+            if (longRttNanos / shortRttNanos > 2) {
+                longRttNanos *= 0.95;
+            }
+
+            double newLimit;
+            if (dropped) {
+                newLimit = estimatedLimit * BACKOFF_RATIO;
+            } else if (current < estimatedLimit / 2) {
+                // App-limited: too little traffic to say anything about capacity
+                return;
+            } else {
+                double gradient = Math.max(0.5, Math.min(1.0, RTT_TOLERANCE * longRttNanos / shortRttNanos));
+                double queueSize = Math.sqrt(estimatedLimit);
+                newLimit = estimatedLimit * gradient + queueSize;
+            }
+            newLimit = estimatedLimit * (1 - SMOOTHING) + newLimit * SMOOTHING;
+            estimatedLimit = Math.max(minLimit, Math.min(maxLimit, newLimit));
+            limit = (int) estimatedLimit;
+        }
+    }
+
+    public int getLimit() {
+        return limit;
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    private static double ewma(double average, long sample, long window) {
+        double alpha = 2.0 / (window + 1);
+        return average == 0 ? sample : average * (1 - alpha) + sample * alpha;
+    }
+}
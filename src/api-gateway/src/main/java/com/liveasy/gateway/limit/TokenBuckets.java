@@ -0,0 +1,81 @@
+
+package com.liveasy.gateway.limit;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Per-key token buckets held in lock stripes, so concurrent requests from
+ * different users rarely contend. Each stripe keeps its buckets in access
+ * order and drops the least recently used beyond its share of the capacity,
+ * which bounds memory no matter how many distinct users are seen.
+ */
+public class TokenBuckets {
+
+    private final double ratePerNano;
+    private final double burst;
+    private final Stripe[] stripes;
+
+    public TokenBuckets(double ratePerSecond, double burst, int stripeCount, int maximumKeys) {
+        this.ratePerNano = ratePerSecond / 1_000_000_000d;
+        this.burst = burst;
+        int stripesPow2 = Integer.highestOneBit(Math.max(1, stripeCount));
+        this.stripes = new Stripe[stripesPow2];
+        int perStripe = Math.max(1, maximumKeys / stripesPow2);
+        for (int i = 0; i < stripesPow2; i++) {
+            stripes[i] = new Stripe(perStripe);
+        }
+    }
+
+    /**
+     * Takes one token from the key's bucket. Returns 0 if the request may go
+     * ahead, otherwise the nanoseconds until a token will be available.
+     */
+    public long tryConsume(String key) {
+        long now = System.nanoTime();
+        Stripe stripe = stripes[spread(key.hashCode()) & (stripes.length - 1)];
+        synchronized (stripe) {
+            Bucket bucket = stripe.get(key);
+            if (bucket == null) {
+                bucket = new Bucket(burst, now);
+                stripe.put(key, bucket);
+            } else {
+                bucket.tokens = Math.min(burst, bucket.tokens + (now - bucket.refilledAt) * ratePerNano);
+                bucket.refilledAt = now;
+            }
+            if (bucket.tokens >= 1) {
+                bucket.tokens -= 1;
+                return 0;
+            }
+            return (long) Math.ceil((1 - bucket.tokens) / ratePerNano);
+        }
+    }
+
+    private static int spread(int hash) {
+        return hash ^ (hash >>> 16);
+    }
+
+    private static final class Bucket {
+        double tokens;
+        long refilledAt;
+
+        Bucket(double tokens, long refilledAt) {
+            this.tokens = tokens;
+            this.refilledAt = refilledAt;
+        }
+    }
+
+    private static final class Stripe extends LinkedHashMap<String, Bucket> {
+        private final int capacity;
+
+        Stripe(int capacity) {
+            super(16, 0.75f, true);
+            this.capacity = capacity;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Bucket> eldest) {
+            return size() > capacity;
+        }
+    }
+}
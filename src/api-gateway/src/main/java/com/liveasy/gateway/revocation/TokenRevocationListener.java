@@ -0,0 +1,26 @@
+
+package com.liveasy.gateway.revocation;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.stereotype.Component;
+
+import com.liveasy.common.events.TokenRevokedEvent;
+
+/**
+ * Feeds revocations published by auth-service into {@link TokenRevocations}.
+ * Every gateway instance joins with its own group id and reads from the start
+ * of the topic, whose retention is one token lifetime, so a restarted gateway
+ * rebuilds the full set of live revocations.
+ */
+@Component
+public class TokenRevocationListener {
+
+    @Autowired
+    private TokenRevocations tokenRevocations;
+
+    @KafkaListener(topics = "token-revocations", groupId = "api-gateway-${random.uuid}")
+    public void onTokenRevoked(TokenRevokedEvent event) {
+        tokenRevocations.apply(event);
+    }
+}
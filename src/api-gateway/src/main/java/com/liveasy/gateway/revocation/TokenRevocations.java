@@ -0,0 +1,62 @@
+
+package com.liveasy.gateway.revocation;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.liveasy.common.events.TokenRevokedEvent;
+import com.liveasy.common.revocation.TokenRevocationSet;
+import com.liveasy.gateway.util.VerifiedToken;
+
+import javax.annotation.PostConstruct;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * The gateway's view of revoked tokens and users, checked on every
+ * authenticated request. See {@link TokenRevocationSet}.
+ */
+@Component
+public class TokenRevocations {
+
+    private static final Logger logger = LoggerFactory.getLogger(TokenRevocations.class);
+
+    @Value("${token-revocation.expected-insertions:100000}")
+    private long expectedInsertions;
+
+    @Value("${token-revocation.false-positive-rate:0.01}")
+    private double falsePositiveRate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private TokenRevocationSet revocations;
+
+    @PostConstruct
+    public void init() {
+        this.revocations = new TokenRevocationSet(expectedInsertions, falsePositiveRate, meterRegistry,
+                "gateway.revocations");
+    }
+
+    public void apply(TokenRevokedEvent event) {
+        revocations.apply(event);
+    }
+
+    public boolean isRevoked(VerifiedToken token) {
+        return revocations.isRevoked(token.getTokenId(), token.getUserId(), token.getIssuedAtMillis());
+    }
+
+    // Runs once per token lifetime; jwt.expiration defaults to 24h
+    @Scheduled(fixedDelayString = "${token-revocation.rotate-interval-ms:86400000}",
+            initialDelayString = "${token-revocation.rotate-interval-ms:86400000}")
+    public void rotate() {
+        revocations.rotate();
+        logger.info("Rotated revocation filter; {} tokens and {} users still revoked",
+                revocations.revokedTokenCount(), revocations.revokedUserCount());
+    }
+}
@@ -2,14 +2,31 @@
 package com.liveasy.gateway.util;
 
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.liveasy.common.revocation.TokenRevocationSet;
+
 import javax.annotation.PostConstruct;
+import java.nio.charset.StandardCharsets;
 import java.security.Key;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
 import java.util.Date;
+import java.util.concurrent.TimeUnit;
 
 @Component
 public class JwtUtil {
@@ -17,34 +34,116 @@ public class JwtUtil {
     @Value("${jwt.secret}")
     private String secret;
     
+    @Value("${jwt.cache.maximum-size:100000}")
+    private long cacheMaximumSize;
+    
+    @Autowired
+    private MeterRegistry meterRegistry;
+    
     private Key key;
     
+    // Thread-safe and immutable, so one instance serves every request
+    private JwtParser parser;
+    
+    // Token digest -> claims of an already verified token, dropped at the token's exp
+    private Cache<String, VerifiedToken> verifiedTokens;
+    
+    private Counter cacheHits;
+    private Counter cacheMisses;
+    private Timer verificationTimer;
+    
     @PostConstruct
     public void init() {
         this.key = Keys.hmacShaKeyFor(secret.getBytes());
+        this.parser = Jwts.parserBuilder().setSigningKey(key).build();
+        this.verifiedTokens = Caffeine.newBuilder()
+                .maximumSize(cacheMaximumSize)
+                .expireAfter(new Expiry<String, VerifiedToken>() {
+                    @Override
+                    public long expireAfterCreate(String digest, VerifiedToken token, long currentTime) {
+                        long remainingMillis = token.getExpiresAtMillis() - System.currentTimeMillis();
+                        return TimeUnit.MILLISECONDS.toNanos(Math.max(0, remainingMillis));
+                    }
+                    
+                    @Override
+                    public long expireAfterUpdate(String digest, VerifiedToken token, long currentTime,
+                            long currentDuration) {
+                        return currentDuration;
+                    }
+                    
+                    @Override
+                    public long expireAfterRead(String digest, VerifiedToken token, long currentTime,
+                            long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .recordStats()
+                .build();
+        
+        CaffeineCacheMetrics.monitor(meterRegistry, verifiedTokens, "jwt-verified-tokens");
+        this.cacheHits = Counter.builder("jwt.cache.requests").tag("result", "hit").register(meterRegistry);
+        this.cacheMisses = Counter.builder("jwt.cache.requests").tag("result", "miss").register(meterRegistry);
+        this.verificationTimer = Timer.builder("jwt.verification")
+                .description("Time spent parsing and verifying token signatures")
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
     }
     
     public Claims getAllClaimsFromToken(String token) {
-        return Jwts.parserBuilder().setSigningKey(key).build().parseClaimsJws(token).getBody();
+        return parser.parseClaimsJws(token).getBody();
     }
     
-    public String extractUserId(String token) {
-        return getAllClaimsFromToken(token).getSubject();
-    }
-    
-    public String extractRole(String token) {
-        return getAllClaimsFromToken(token).get("role", String.class);
+    /**
+     * Returns the token's claims, verifying the signature only the first time a
+     * token is seen. Returns null if the token is malformed, forged or expired.
+     */
+    public VerifiedToken verify(String token) {
+        String digest = digest(token);
+        long now = System.currentTimeMillis();
+        
+        VerifiedToken verified = verifiedTokens.getIfPresent(digest);
+        if (verified != null && !verified.isExpired(now)) {
+            cacheHits.increment();
+            return verified;
+        }
+        cacheMisses.increment();
+        
+        long start = System.nanoTime();
+        try {
+            Claims claims = getAllClaimsFromToken(token);
+            Date expiration = claims.getExpiration();
+            if (expiration == null || expiration.getTime() <= now) {
+                return null;
+            }
+            
+            verified = new VerifiedToken(claims.getId(), claims.getSubject(), claims.get("role", String.class),
+                    issuedAtMillis(claims), expiration.getTime());
+            verifiedTokens.put(digest, verified);
+            return verified;
+        } catch (Exception e) {
+            return null;
+        } finally {
+            verificationTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
     }
     
-    private boolean isTokenExpired(String token) {
-        return this.getAllClaimsFromToken(token).getExpiration().before(new Date());
+    // Older tokens only carry second-precision iat, and tokens without one count as issued
+    // at the epoch, so a user-wide revocation errs towards covering them
+    private static long issuedAtMillis(Claims claims) {
+        Number issuedAtMillis = claims.get(TokenRevocationSet.ISSUED_AT_MILLIS_CLAIM, Number.class);
+        if (issuedAtMillis != null) {
+            return issuedAtMillis.longValue();
+        }
+        Date issuedAt = claims.getIssuedAt();
+        return issuedAt == null ? 0L : issuedAt.getTime();
     }
     
-    public boolean isInvalid(String token) {
+    private static String digest(String token) {
         try {
-            return this.isTokenExpired(token);
-        } catch (Exception e) {
-            return true;
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            return Base64.getEncoder().encodeToString(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
         }
     }
 }
@@ -0,0 +1,46 @@
+
+package com.liveasy.gateway.util;
+
+/**
+ * Claims the gateway needs from a token whose signature has already been checked.
+ */
+public class VerifiedToken {
+    private final String tokenId;
+    private final String userId;
+    private final String role;
+    private final long issuedAtMillis;
+    private final long expiresAtMillis;
+
+    public VerifiedToken(String tokenId, String userId, String role, long issuedAtMillis, long expiresAtMillis) {
+        this.tokenId = tokenId;
+        this.userId = userId;
+        this.role = role;
+        this.issuedAtMillis = issuedAtMillis;
+        this.expiresAtMillis = expiresAtMillis;
+    }
+
+    public boolean isExpired(long nowMillis) {
+        return nowMillis >= expiresAtMillis;
+    }
+
+    // Getters
+    public String getTokenId() {
+        return tokenId;
+    }
+
+    public String getUserId() {
+        return userId;
+    }
+
+    public String getRole() {
+        return role;
+    }
+
+    public long getIssuedAtMillis() {
+        return issuedAtMillis;
+    }
+
+    public long getExpiresAtMillis() {
+        return expiresAtMillis;
+    }
+}
@@ -0,0 +1,83 @@
+
+package com.liveasy.auth.config;
+
+import org.apache.kafka.clients.admin.NewTopic;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.common.config.TopicConfig;
+import org.apache.kafka.common.serialization.StringDeserializer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
+import org.springframework.kafka.config.TopicBuilder;
+import org.springframework.kafka.core.ConsumerFactory;
+import org.springframework.kafka.core.DefaultKafkaConsumerFactory;
+import org.springframework.kafka.core.DefaultKafkaProducerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.core.ProducerFactory;
+import org.springframework.kafka.support.serializer.ErrorHandlingDeserializer;
+import org.springframework.kafka.support.serializer.JsonDeserializer;
+
+import com.liveasy.common.events.TokenRevokedEvent;
+import com.liveasy.common.kafka.EventProducerSettings;
+import com.liveasy.common.kafka.ProducerProfile;
+
+import java.util.HashMap;
+import java.util.Map;
+
+@Configuration
+public class KafkaConfig {
+
+    public static final String TOKEN_REVOCATIONS_TOPIC = "token-revocations";
+
+    @Value("${spring.kafka.bootstrap-servers}")
+    private String bootstrapServers;
+
+    @Value("${kafka.producer.profile:LOW_LATENCY}")
+    private ProducerProfile producerProfile;
+
+    @Value("${jwt.expiration}")
+    private long jwtExpirationMs;
+
+    // Gateways replay the whole topic on start, so keep exactly one token lifetime of revocations
+    @Bean
+    public NewTopic tokenRevocationsTopic() {
+        return TopicBuilder.name(TOKEN_REVOCATIONS_TOPIC)
+                .partitions(3)
+                .replicas(1)
+                .config(TopicConfig.RETENTION_MS_CONFIG, Long.toString(jwtExpirationMs))
+                .build();
+    }
+
+    @Bean
+    public ProducerFactory<String, TokenRevokedEvent> producerFactory() {
+        return new DefaultKafkaProducerFactory<>(EventProducerSettings.producerConfig(bootstrapServers, producerProfile));
+    }
+
+    @Bean
+    public KafkaTemplate<String, TokenRevokedEvent> kafkaTemplate() {
+        return new KafkaTemplate<>(producerFactory());
+    }
+
+    // Same setup as the gateway's consumer: a fresh group per instance replays the retained revocations
+    @Bean
+    public ConsumerFactory<String, TokenRevokedEvent> consumerFactory() {
+        Map<String, Object> configProps = new HashMap<>();
+        configProps.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
+        configProps.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "earliest");
+        configProps.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class);
+        configProps.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, ErrorHandlingDeserializer.class);
+        configProps.put(ErrorHandlingDeserializer.VALUE_DESERIALIZER_CLASS, JsonDeserializer.class);
+        configProps.put(JsonDeserializer.VALUE_DEFAULT_TYPE, TokenRevokedEvent.class.getName());
+        configProps.put(JsonDeserializer.USE_TYPE_INFO_HEADERS, false);
+        return new DefaultKafkaConsumerFactory<>(configProps);
+    }
+
+    @Bean
+    public ConcurrentKafkaListenerContainerFactory<String, TokenRevokedEvent> kafkaListenerContainerFactory() {
+        ConcurrentKafkaListenerContainerFactory<String, TokenRevokedEvent> factory =
+                new ConcurrentKafkaListenerContainerFactory<>();
+        factory.setConsumerFactory(consumerFactory());
+        return factory;
+    }
+}
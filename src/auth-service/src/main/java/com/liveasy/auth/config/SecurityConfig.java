@@ -2,6 +2,7 @@
 package com.liveasy.auth.config;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.authentication.AuthenticationManager;
@@ -10,10 +11,11 @@ import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.annotation.web.configuration.WebSecurityConfigurerAdapter;
 import org.springframework.security.config.http.SessionCreationPolicy;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
-import org.springframework.security.crypto.password.PasswordEncoder;
 
 import com.liveasy.auth.service.UserDetailsServiceImpl;
+import com.liveasy.auth.util.BoundedPasswordEncoder;
+
+import io.micrometer.core.instrument.MeterRegistry;
 
 @Configuration
 @EnableWebSecurity
@@ -22,6 +24,25 @@ public class SecurityConfig extends WebSecurityConfigurerAdapter {
     @Autowired
     private UserDetailsServiceImpl userDetailsService;
 
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    // Changing the strength rehashes each user's password on their next login
+    @Value("${auth.bcrypt.strength:10}")
+    private int bcryptStrength;
+
+    @Value("${auth.bcrypt.threads:0}")
+    private int bcryptThreads;
+
+    @Value("${auth.bcrypt.bulk-threads:0}")
+    private int bcryptBulkThreads;
+
+    @Value("${auth.bcrypt.queue-capacity:64}")
+    private int bcryptQueueCapacity;
+
+    @Value("${auth.bcrypt.wait-timeout-ms:5000}")
+    private long bcryptWaitTimeoutMs;
+
     @Override
     protected void configure(AuthenticationManagerBuilder auth) throws Exception {
         auth.userDetailsService(userDetailsService).passwordEncoder(passwordEncoder());
@@ -37,9 +58,14 @@ public class SecurityConfig extends WebSecurityConfigurerAdapter {
             .sessionManagement().sessionCreationPolicy(SessionCreationPolicy.STATELESS);
     }
 
-    @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    @Bean(destroyMethod = "shutdown")
+    public BoundedPasswordEncoder passwordEncoder() {
+        // Half the cores by default; BCrypt on every core would starve the rest of the service
+        int threads = bcryptThreads > 0 ? bcryptThreads : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        // Bulk imports share the pool; by default they may hold half of it
+        int bulkThreads = bcryptBulkThreads > 0 ? bcryptBulkThreads : Math.max(1, threads / 2);
+        return new BoundedPasswordEncoder(bcryptStrength, threads, bulkThreads, bcryptQueueCapacity, bcryptWaitTimeoutMs,
+                meterRegistry);
     }
 
     @Bean
@@ -2,20 +2,38 @@
 package com.liveasy.auth.controller;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
 import com.liveasy.auth.dto.AuthRequest;
 import com.liveasy.auth.dto.AuthResponse;
 import com.liveasy.auth.dto.RegisterRequest;
+import com.liveasy.auth.dto.UserImportResult;
 import com.liveasy.auth.service.AuthService;
+import com.liveasy.auth.service.TokenRevocationService;
+import com.liveasy.auth.service.TokenRevocations;
+import com.liveasy.auth.service.UserImportService;
+import com.liveasy.auth.util.ImportInProgressException;
+import com.liveasy.auth.util.JwtUtil;
+import com.liveasy.auth.util.PasswordHashingRejectedException;
+
+import io.jsonwebtoken.Claims;
+
+import java.util.List;
+
+import javax.servlet.http.HttpServletRequest;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -32,6 +50,18 @@ public class AuthController {
     @Autowired
     private AuthService authService;
 
+    @Autowired
+    private TokenRevocationService tokenRevocationService;
+
+    @Autowired
+    private TokenRevocations tokenRevocations;
+
+    @Autowired
+    private UserImportService userImportService;
+
+    @Autowired
+    private JwtUtil jwtUtil;
+
     @PostMapping("/login")
     public ResponseEntity<?> login(@RequestBody AuthRequest authRequest) {
         try {
@@ -46,6 +76,11 @@ public class AuthController {
             logger.info("User logged in successfully: {}", authRequest.getUsername());
             
             return ResponseEntity.ok(new AuthResponse(token));
+        } catch (PasswordHashingRejectedException e) {
+            logger.warn("Login shed: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, "1")
+                    .body("Too many logins in progress, please retry");
         } catch (Exception e) {
             logger.error("Error during login: {}", e.getMessage());
             return ResponseEntity.badRequest().body("Invalid username or password");
@@ -64,9 +99,96 @@ public class AuthController {
             logger.info("User registered successfully: {}", registerRequest.getUsername());
             
             return ResponseEntity.ok("User registered successfully");
+        } catch (PasswordHashingRejectedException e) {
+            logger.warn("Registration shed: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, "1")
+                    .body("Too many requests in progress, please retry");
         } catch (Exception e) {
             logger.error("Error during registration: {}", e.getMessage());
             return ResponseEntity.badRequest().body("Registration failed: " + e.getMessage());
         }
     }
+
+    @PostMapping(value = "/register/bulk", consumes = {"text/csv", "application/x-ndjson"})
+    public ResponseEntity<?> registerBulk(HttpServletRequest request,
+            @RequestHeader(value = HttpHeaders.AUTHORIZATION, required = false) String authorization) {
+        Claims claims = parseBearer(authorization);
+        if (claims == null) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body("Invalid or missing token");
+        }
+        if (!"ADMIN".equals(claims.get("role", String.class))) {
+            logger.warn("Unauthorized bulk import attempt by user: {}", claims.getSubject());
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).body("Only admins can import users");
+        }
+        
+        try {
+            boolean csv = MediaType.parseMediaType(request.getContentType()).isCompatibleWith(MediaType.parseMediaType("text/csv"));
+            List<UserImportResult> results = userImportService.importUsers(request.getInputStream(), csv);
+            logger.info("Bulk user import processed with {} rows", results.size());
+            return ResponseEntity.ok(results);
+        } catch (ImportInProgressException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(e.getMessage());
+        } catch (PasswordHashingRejectedException e) {
+            logger.warn("Bulk import shed: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, "5")
+                    .body(e.getMessage());
+        } catch (Exception e) {
+            logger.error("Error importing users: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body("Error importing users: " + e.getMessage());
+        }
+    }
+
+    @PostMapping("/logout")
+    public ResponseEntity<?> logout(@RequestHeader(value = HttpHeaders.AUTHORIZATION, required = false) String authorization) {
+        Claims claims = parseBearer(authorization);
+        if (claims == null) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body("Invalid or missing token");
+        }
+        
+        try {
+            tokenRevocationService.revokeToken(claims, "logout");
+            return ResponseEntity.ok("Logged out successfully");
+        } catch (Exception e) {
+            logger.error("Error during logout: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body("Logout failed, please retry");
+        }
+    }
+
+    @PostMapping("/revoke/{userId}")
+    public ResponseEntity<?> revokeUser(@PathVariable String userId,
+            @RequestHeader(value = HttpHeaders.AUTHORIZATION, required = false) String authorization) {
+        Claims claims = parseBearer(authorization);
+        if (claims == null) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body("Invalid or missing token");
+        }
+        // Users may sign themselves out everywhere; revoking anyone else is for admins
+        if (!userId.equals(claims.getSubject()) && !"ADMIN".equals(claims.get("role", String.class))) {
+            logger.warn("Unauthorized attempt to revoke tokens of user {} by {}", userId, claims.getSubject());
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).body("You are not authorized to revoke these tokens");
+        }
+        
+        try {
+            tokenRevocationService.revokeUser(userId, userId.equals(claims.getSubject()) ? "user" : "admin");
+            return ResponseEntity.ok("Tokens revoked");
+        } catch (Exception e) {
+            logger.error("Error revoking tokens: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body("Revocation failed, please retry");
+        }
+    }
+
+    // /api/auth/** bypasses the gateway's filter, so the token and its revocation are checked here
+    private Claims parseBearer(String authorization) {
+        if (authorization == null || !authorization.startsWith("Bearer ")) {
+            return null;
+        }
+        Claims claims;
+        try {
+            claims = jwtUtil.getAllClaimsFromToken(authorization.substring("Bearer ".length()));
+        } catch (Exception e) {
+            return null;
+        }
+        return tokenRevocations.isRevoked(claims) ? null : claims;
+    }
 }
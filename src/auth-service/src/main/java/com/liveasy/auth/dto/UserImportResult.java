@@ -0,0 +1,73 @@
+
+package com.liveasy.auth.dto;
+
+import java.util.UUID;
+
+public class UserImportResult {
+    private int index;
+    private String username;
+    private UUID userId;
+    private Status status;
+    private String error;
+
+    public enum Status {
+        CREATED, FAILED
+    }
+
+    // Constructors
+    public UserImportResult() {
+    }
+
+    public UserImportResult(int index, String username) {
+        this.index = index;
+        this.username = username;
+    }
+
+    public static UserImportResult failed(int index, String username, String error) {
+        UserImportResult result = new UserImportResult(index, username);
+        result.setStatus(Status.FAILED);
+        result.setError(error);
+        return result;
+    }
+
+    // Getters and Setters
+    public int getIndex() {
+        return index;
+    }
+
+    public void setIndex(int index) {
+        this.index = index;
+    }
+
+    public String getUsername() {
+        return username;
+    }
+
+    public void setUsername(String username) {
+        this.username = username;
+    }
+
+    public UUID getUserId() {
+        return userId;
+    }
+
+    public void setUserId(UUID userId) {
+        this.userId = userId;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public void setStatus(Status status) {
+        this.status = status;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public void setError(String error) {
+        this.error = error;
+    }
+}
@@ -3,7 +3,6 @@ package com.liveasy.auth.service;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.core.Authentication;
-import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 
@@ -30,9 +29,8 @@ public class AuthService {
     private JwtUtil jwtUtil;
 
     public String generateJwtToken(Authentication authentication) {
-        UserDetails userPrincipal = (UserDetails) authentication.getPrincipal();
-        User user = userRepository.findByUsername(userPrincipal.getUsername())
-                .orElseThrow(() -> new RuntimeException("User not found"));
+        // The principal already carries the user row loaded during authentication
+        User user = ((AuthUserDetails) authentication.getPrincipal()).getUser();
         
         return jwtUtil.generateToken(user);
     }
@@ -0,0 +1,77 @@
+
+package com.liveasy.auth.service;
+
+import io.jsonwebtoken.Claims;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.stereotype.Service;
+
+import com.liveasy.auth.config.KafkaConfig;
+import com.liveasy.auth.util.JwtUtil;
+import com.liveasy.common.events.TokenRevokedEvent;
+
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Publishes token revocations to the gateways. Sends are acknowledged before
+ * returning, so a logout that reports success has reached the stream.
+ */
+@Service
+public class TokenRevocationService {
+
+    private static final Logger logger = LoggerFactory.getLogger(TokenRevocationService.class);
+
+    @Autowired
+    private KafkaTemplate<String, TokenRevokedEvent> kafkaTemplate;
+
+    @Autowired
+    private JwtUtil jwtUtil;
+
+    @Autowired
+    private TokenRevocations tokenRevocations;
+
+    @Value("${token-revocation.send-timeout-ms:5000}")
+    private long sendTimeoutMs;
+
+    // Logout: only this token
+    public void revokeToken(Claims claims, String reason) {
+        if (claims.getId() == null) {
+            // Issued before tokens carried an id; fall back to everything the user holds
+            revokeUser(claims.getSubject(), reason);
+            return;
+        }
+        publish(new TokenRevokedEvent(claims.getId(), claims.getSubject(), System.currentTimeMillis(),
+                claims.getExpiration().getTime(), reason));
+    }
+
+    // Password change or ban: every token the user was issued up to now
+    public void revokeUser(String userId, String reason) {
+        long now = System.currentTimeMillis();
+        publish(new TokenRevokedEvent(null, userId, now, now + jwtUtil.getExpirationMs(), reason));
+    }
+
+    private void publish(TokenRevokedEvent event) {
+        try {
+            // Keyed by user so a user's revocations stay ordered
+            kafkaTemplate.send(KafkaConfig.TOKEN_REVOCATIONS_TOPIC, event.getUserId(), event)
+                    .get(sendTimeoutMs, TimeUnit.MILLISECONDS);
+            // Effective here at once; other instances catch up from the topic
+            tokenRevocations.apply(event);
+            logger.info("Revoked {} for user {} ({})",
+                    event.getTokenId() != null ? "token " + event.getTokenId() : "all tokens",
+                    event.getUserId(), event.getReason());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted publishing token revocation", e);
+        } catch (ExecutionException | TimeoutException e) {
+            throw new IllegalStateException("Failed to publish token revocation: " + e.getMessage(), e);
+        }
+    }
+}
@@ -0,0 +1,60 @@
+
+package com.liveasy.auth.service;
+
+import io.jsonwebtoken.Claims;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.liveasy.auth.util.JwtUtil;
+import com.liveasy.common.events.TokenRevokedEvent;
+import com.liveasy.common.revocation.TokenRevocationSet;
+
+import javax.annotation.PostConstruct;
+
+/**
+ * /api/auth/** bypasses the gateway's revocation check, so auth-service keeps
+ * its own copy of the revocation stream for the endpoints that take a token.
+ */
+@Component
+public class TokenRevocations {
+
+    @Value("${token-revocation.expected-insertions:100000}")
+    private long expectedInsertions;
+
+    @Value("${token-revocation.false-positive-rate:0.01}")
+    private double falsePositiveRate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private JwtUtil jwtUtil;
+
+    private TokenRevocationSet revocations;
+
+    @PostConstruct
+    public void init() {
+        this.revocations = new TokenRevocationSet(expectedInsertions, falsePositiveRate, meterRegistry,
+                "auth.revocations");
+    }
+
+    @KafkaListener(topics = "token-revocations", groupId = "auth-service-${random.uuid}")
+    public void apply(TokenRevokedEvent event) {
+        revocations.apply(event);
+    }
+
+    public boolean isRevoked(Claims claims) {
+        return revocations.isRevoked(claims.getId(), claims.getSubject(), jwtUtil.getIssuedAtMillis(claims));
+    }
+
+    @Scheduled(fixedDelayString = "${token-revocation.rotate-interval-ms:86400000}",
+            initialDelayString = "${token-revocation.rotate-interval-ms:86400000}")
+    public void rotate() {
+        revocations.rotate();
+    }
+}
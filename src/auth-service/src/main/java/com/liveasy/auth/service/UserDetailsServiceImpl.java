@@ -2,22 +2,21 @@
 package com.liveasy.auth.service;
 
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import com.liveasy.auth.model.User;
 import com.liveasy.auth.repository.UserRepository;
 
-import java.util.Collections;
-
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 @Service
-public class UserDetailsServiceImpl implements UserDetailsService {
+public class UserDetailsServiceImpl implements UserDetailsService, UserDetailsPasswordService {
 
     private static final Logger logger = LoggerFactory.getLogger(UserDetailsServiceImpl.class);
 
@@ -28,16 +27,26 @@ public class UserDetailsServiceImpl implements UserDetailsService {
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
         User user = userRepository.findByUsername(username)
                 .orElseThrow(() -> {
-                    logger.error("User not found with username: {}", username);
+                    logger.debug("User not found with username: {}", username);
                     return new UsernameNotFoundException("User not found with username: " + username);
                 });
 
-        logger.info("User found: {}", username);
-        
-        return new org.springframework.security.core.userdetails.User(
-                user.getUsername(),
-                user.getPassword(),
-                Collections.singletonList(new SimpleGrantedAuthority("ROLE_" + user.getRole()))
-        );
+        logger.debug("User found: {}", username);
+
+        return new AuthUserDetails(user);
+    }
+
+    /**
+     * Called after a successful login whose hash was made with a different
+     * work factor than the encoder's current one.
+     */
+    @Override
+    @Transactional
+    public UserDetails updatePassword(UserDetails userDetails, String newPassword) {
+        User user = ((AuthUserDetails) userDetails).getUser();
+        userRepository.updatePassword(user.getId(), newPassword);
+        user.setPassword(newPassword);
+        logger.info("Rehashed password for user: {}", user.getUsername());
+        return new AuthUserDetails(user);
     }
 }
@@ -0,0 +1,364 @@
+
+package com.liveasy.auth.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.liveasy.auth.dto.RegisterRequest;
+import com.liveasy.auth.dto.UserImportResult;
+import com.liveasy.auth.repository.UserRepository;
+import com.liveasy.auth.util.BoundedPasswordEncoder;
+import com.liveasy.auth.util.ImportInProgressException;
+import com.liveasy.auth.util.PasswordHashingRejectedException;
+
+import javax.annotation.PostConstruct;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.Semaphore;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Bulk user registration from CSV or NDJSON. Rows are read as they arrive and
+ * handled a chunk at a time: one query checks the chunk's usernames, passwords
+ * are hashed in parallel on the login BCrypt pool's bulk share, and the chunk is inserted as one
+ * JDBC batch. Only the current chunk and the per-row report are held in memory.
+ * If the hashing pool turns the import away before anything was created, the
+ * whole request is shed; after that, the import stops and reports the rows it
+ * did not get to.
+ */
+@Service
+public class UserImportService {
+
+    private static final Logger logger = LoggerFactory.getLogger(UserImportService.class);
+
+    private static final Set<String> IMPORTABLE_ROLES = new HashSet<>(Arrays.asList("SHIPPER", "TRANSPORTER"));
+
+    private static final List<String> CSV_COLUMNS = Arrays.asList("username", "password", "email", "role");
+
+    // Losing a race with a concurrent registration shows up as a 0 update count for that row
+    private static final String INSERT_USER = "INSERT INTO users (id, username, password, email, role) "
+            + "VALUES (?, ?, ?, ?, ?) ON CONFLICT (username) DO NOTHING";
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${auth.import.chunk-size:200}")
+    private int chunkSize;
+
+    @Value("${auth.import.max-items:10000}")
+    private int maxItems;
+
+    @Value("${auth.import.max-concurrent:1}")
+    private int maxConcurrent;
+
+    // Same pool as logins, so imports and logins share one hashing budget
+    @Autowired
+    private BoundedPasswordEncoder passwordEncoder;
+
+    private Semaphore importPermits;
+
+    @PostConstruct
+    public void init() {
+        this.importPermits = new Semaphore(maxConcurrent);
+    }
+
+    public List<UserImportResult> importUsers(InputStream body, boolean csv) throws IOException {
+        if (!importPermits.tryAcquire()) {
+            throw new ImportInProgressException("Another user import is in progress");
+        }
+        try {
+            ChunkWriter writer = new ChunkWriter();
+            BufferedReader lines = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8));
+            if (csv) {
+                readCsv(lines, writer);
+            } else {
+                readNdjson(lines, writer);
+            }
+            writer.flush();
+            logger.info("Bulk imported {} of {} users", writer.created, writer.results.size());
+            return writer.results;
+        } finally {
+            importPermits.release();
+        }
+    }
+
+    private void readNdjson(BufferedReader lines, ChunkWriter writer) throws IOException {
+        ObjectReader reader = objectMapper.readerFor(RegisterRequest.class);
+        String line;
+        int index = 0;
+        while ((line = lines.readLine()) != null) {
+            if (line.isBlank()) {
+                continue;
+            }
+            if (index >= maxItems) {
+                writer.reject(limitExceeded(index));
+                break;
+            }
+            if (writer.stopped) {
+                writer.reject(notProcessed(index));
+                break;
+            }
+            try {
+                writer.add(index, reader.readValue(line));
+            } catch (JsonProcessingException e) {
+                writer.reject(UserImportResult.failed(index, null, "Malformed user: " + e.getOriginalMessage()));
+            }
+            index++;
+        }
+    }
+
+    private void readCsv(BufferedReader lines, ChunkWriter writer) throws IOException {
+        String header = lines.readLine();
+        if (header == null) {
+            return;
+        }
+        // Columns are matched by header name, so their order is free
+        List<String> names = parseCsvLine(header);
+        Map<String, Integer> columns = new HashMap<>();
+        for (int i = 0; i < names.size(); i++) {
+            columns.put(names.get(i).trim().toLowerCase(), i);
+        }
+        for (String column : CSV_COLUMNS) {
+            if (!columns.containsKey(column)) {
+                throw new IllegalArgumentException("CSV header must contain " + String.join(",", CSV_COLUMNS));
+            }
+        }
+
+        String line;
+        int index = 0;
+        while ((line = lines.readLine()) != null) {
+            if (line.isBlank()) {
+                continue;
+            }
+            if (index >= maxItems) {
+                writer.reject(limitExceeded(index));
+                break;
+            }
+            if (writer.stopped) {
+                writer.reject(notProcessed(index));
+                break;
+            }
+            List<String> fields = parseCsvLine(line);
+            writer.add(index++, new RegisterRequest(
+                    field(fields, columns.get("username")), field(fields, columns.get("password")),
+                    field(fields, columns.get("email")), field(fields, columns.get("role"))));
+        }
+    }
+
+    // RFC 4180 fields on a single line: commas inside quotes, "" for a literal quote
+    private static List<String> parseCsvLine(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+
+    private static String field(List<String> fields, int column) {
+        if (column >= fields.size()) {
+            return null;
+        }
+        String value = fields.get(column).trim();
+        return value.isEmpty() ? null : value;
+    }
+
+    private UserImportResult limitExceeded(int index) {
+        return UserImportResult.failed(index, null,
+                "Import limit of " + maxItems + " users exceeded; remaining rows were not processed");
+    }
+
+    private static UserImportResult notProcessed(int index) {
+        return UserImportResult.failed(index, null,
+                "Password hashing is saturated; remaining rows were not processed");
+    }
+
+    private String validate(RegisterRequest request) {
+        if (request == null) {
+            return "User is empty";
+        }
+        if (isBlank(request.getUsername()) || isBlank(request.getPassword()) || isBlank(request.getEmail())) {
+            return "username, password and email are required";
+        }
+        // Imports never create admins
+        if (request.getRole() == null || !IMPORTABLE_ROLES.contains(request.getRole())) {
+            return "role must be SHIPPER or TRANSPORTER";
+        }
+        return null;
+    }
+
+    private static boolean isBlank(String value) {
+        return value == null || value.isBlank();
+    }
+
+    private List<String> hashAll(List<RegisterRequest> chunk) {
+        List<String> passwords = new ArrayList<>(chunk.size());
+        for (RegisterRequest request : chunk) {
+            passwords.add(request.getPassword());
+        }
+        return passwordEncoder.encodeAll(passwords);
+    }
+
+    // Accumulates validated rows and writes them a chunk at a time
+    private class ChunkWriter {
+        private final List<UserImportResult> results = new ArrayList<>();
+        private final List<RegisterRequest> chunk = new ArrayList<>();
+        private final List<UserImportResult> pending = new ArrayList<>();
+        // Catches duplicates within the file, which the database check can't see yet
+        private final Set<String> seenUsernames = new HashSet<>();
+        private int created;
+        // Set when hashing was rejected after some users were created; the readers stop
+        private boolean stopped;
+
+        void add(int index, RegisterRequest request) {
+            String error = validate(request);
+            if (error != null) {
+                reject(UserImportResult.failed(index, request == null ? null : request.getUsername(), error));
+                return;
+            }
+            if (!seenUsernames.add(request.getUsername())) {
+                reject(UserImportResult.failed(index, request.getUsername(), "Duplicate username in import"));
+                return;
+            }
+
+            UserImportResult result = new UserImportResult(index, request.getUsername());
+            results.add(result);
+            pending.add(result);
+            chunk.add(request);
+
+            if (chunk.size() >= chunkSize) {
+                flush();
+            }
+        }
+
+        void reject(UserImportResult result) {
+            results.add(result);
+        }
+
+        void flush() {
+            if (chunk.isEmpty()) {
+                return;
+            }
+            try {
+                write();
+            } catch (PasswordHashingRejectedException e) {
+                // Nothing written yet: shed the whole request so the client retries it as is
+                if (created == 0) {
+                    throw e;
+                }
+                logger.warn("User import stopped after {} users: {}", created, e.getMessage());
+                for (UserImportResult result : pending) {
+                    if (result.getStatus() == null) {
+                        result.setStatus(UserImportResult.Status.FAILED);
+                        result.setError("Not processed: password hashing is saturated");
+                    }
+                }
+                stopped = true;
+            } catch (Exception e) {
+                logger.error("User import chunk of {} failed: {}", chunk.size(), e.getMessage());
+                for (UserImportResult result : pending) {
+                    result.setUserId(null);
+                    result.setStatus(UserImportResult.Status.FAILED);
+                    result.setError("Insert failed: " + e.getMessage());
+                }
+            }
+            chunk.clear();
+            pending.clear();
+        }
+
+        private void write() {
+            List<String> usernames = new ArrayList<>(chunk.size());
+            for (RegisterRequest request : chunk) {
+                usernames.add(request.getUsername());
+            }
+            Set<String> taken = new HashSet<>(userRepository.findExistingUsernames(usernames));
+
+            // Don't spend BCrypt time on rows that will be rejected anyway
+            List<RegisterRequest> toInsert = new ArrayList<>(chunk.size());
+            List<UserImportResult> insertResults = new ArrayList<>(chunk.size());
+            for (int i = 0; i < chunk.size(); i++) {
+                UserImportResult result = pending.get(i);
+                if (taken.contains(chunk.get(i).getUsername())) {
+                    result.setStatus(UserImportResult.Status.FAILED);
+                    result.setError("Username is already taken");
+                } else {
+                    toInsert.add(chunk.get(i));
+                    insertResults.add(result);
+                }
+            }
+            if (toInsert.isEmpty()) {
+                return;
+            }
+
+            List<String> hashes = hashAll(toInsert);
+            List<Object[]> rows = new ArrayList<>(toInsert.size());
+            List<UUID> ids = new ArrayList<>(toInsert.size());
+            for (int i = 0; i < toInsert.size(); i++) {
+                RegisterRequest request = toInsert.get(i);
+                UUID id = UUID.randomUUID();
+                ids.add(id);
+                rows.add(new Object[] { id, request.getUsername(), hashes.get(i), request.getEmail(), request.getRole() });
+            }
+
+            int[] counts = transactionTemplate.execute(status -> jdbcTemplate.batchUpdate(INSERT_USER, rows));
+            for (int i = 0; i < insertResults.size(); i++) {
+                UserImportResult result = insertResults.get(i);
+                if (counts != null && counts[i] == 0) {
+                    result.setStatus(UserImportResult.Status.FAILED);
+                    result.setError("Username is already taken");
+                } else {
+                    result.setUserId(ids.get(i));
+                    result.setStatus(UserImportResult.Status.CREATED);
+                    created++;
+                }
+            }
+        }
+    }
+}
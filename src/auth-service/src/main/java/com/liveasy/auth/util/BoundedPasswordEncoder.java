@@ -0,0 +1,161 @@
+
+package com.liveasy.auth.util;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * BCrypt on a fixed pool with a bounded queue, so a login burst uses at most
+ * {@code threads} cores and the rest of the service keeps running. When the
+ * queue is full, callers fail fast with {@link PasswordHashingRejectedException}
+ * instead of piling up. Hashes made with any other work factor are reported
+ * as needing an upgrade, so changing the strength rehashes users as they log in.
+ * Bulk work ({@link #encodeAll}) shares the same pool but may hold at most
+ * {@code bulkThreads} of its threads, so the pool is the one hashing budget.
+ */
+public class BoundedPasswordEncoder implements PasswordEncoder {
+
+    private static final Pattern BCRYPT_COST = Pattern.compile("^\\$2[aby]?\\$(\\d\\d)\\$");
+
+    private final BCryptPasswordEncoder delegate;
+    private final int strength;
+    private final long waitTimeoutMs;
+    private final ThreadPoolExecutor executor;
+    private final Semaphore bulkPermits;
+
+    private final Timer encodeTimer;
+    private final Timer matchesTimer;
+    private final Counter rejected;
+
+    public BoundedPasswordEncoder(int strength, int threads, int bulkThreads, int queueCapacity, long waitTimeoutMs,
+            MeterRegistry meterRegistry) {
+        this.delegate = new BCryptPasswordEncoder(strength);
+        this.strength = strength;
+        this.waitTimeoutMs = waitTimeoutMs;
+        this.bulkPermits = new Semaphore(Math.max(1, Math.min(bulkThreads, threads)));
+
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), runnable -> {
+                    Thread thread = new Thread(runnable, "bcrypt-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                }, new ThreadPoolExecutor.AbortPolicy());
+
+        Gauge.builder("auth.bcrypt.queue.depth", executor, e -> e.getQueue().size()).register(meterRegistry);
+        Gauge.builder("auth.bcrypt.active", executor, ThreadPoolExecutor::getActiveCount).register(meterRegistry);
+        this.encodeTimer = Timer.builder("auth.bcrypt").tag("operation", "encode").register(meterRegistry);
+        this.matchesTimer = Timer.builder("auth.bcrypt").tag("operation", "matches").register(meterRegistry);
+        this.rejected = Counter.builder("auth.bcrypt.rejected").register(meterRegistry);
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return run(encodeTimer, () -> delegate.encode(rawPassword));
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return run(matchesTimer, () -> delegate.matches(rawPassword, encodedPassword));
+    }
+
+    /**
+     * Hashes a batch in order, waiting for a bulk slot before each password
+     * rather than failing fast. Logins keep the threads bulk work can't take.
+     */
+    public List<String> encodeAll(List<? extends CharSequence> rawPasswords) {
+        List<Future<String>> futures = new ArrayList<>(rawPasswords.size());
+        try {
+            for (CharSequence rawPassword : rawPasswords) {
+                bulkPermits.acquire();
+                try {
+                    futures.add(executor.submit(() -> {
+                        try {
+                            return encodeTimer.recordCallable(() -> delegate.encode(rawPassword));
+                        } finally {
+                            bulkPermits.release();
+                        }
+                    }));
+                } catch (RejectedExecutionException e) {
+                    bulkPermits.release();
+                    rejected.increment();
+                    throw new PasswordHashingRejectedException("Password hashing is saturated");
+                }
+            }
+            List<String> hashes = new ArrayList<>(futures.size());
+            for (Future<String> future : futures) {
+                hashes.add(future.get());
+            }
+            return hashes;
+        } catch (InterruptedException e) {
+            // Submitted hashes still run and free their slots; only the wait is abandoned
+            Thread.currentThread().interrupt();
+            throw new PasswordHashingRejectedException("Interrupted waiting for password hashing");
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new IllegalStateException(cause);
+        }
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        if (encodedPassword == null) {
+            return false;
+        }
+        Matcher matcher = BCRYPT_COST.matcher(encodedPassword);
+        return matcher.find() && Integer.parseInt(matcher.group(1)) != strength;
+    }
+
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    private <T> T run(Timer timer, Callable<T> task) {
+        Future<T> future;
+        try {
+            future = executor.submit(() -> timer.recordCallable(task));
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            throw new PasswordHashingRejectedException("Password hashing is saturated");
+        }
+        try {
+            return future.get(waitTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            rejected.increment();
+            throw new PasswordHashingRejectedException("Timed out waiting for password hashing");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new PasswordHashingRejectedException("Interrupted waiting for password hashing");
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new IllegalStateException(cause);
+        }
+    }
+}
@@ -0,0 +1,11 @@
+package com.liveasy.auth.util;
+
+/**
+ * Thrown when a bulk user import is requested while the allowed number of
+ * imports is already running.
+ */
+public class ImportInProgressException extends RuntimeException {
+    public ImportInProgressException(String message) {
+        super(message);
+    }
+}
@@ -8,12 +8,14 @@ import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 import com.liveasy.auth.model.User;
+import com.liveasy.common.revocation.TokenRevocationSet;
 
 import javax.annotation.PostConstruct;
 import java.security.Key;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.UUID;
 
 @Component
 public class JwtUtil {
@@ -32,18 +34,36 @@ public class JwtUtil {
     }
 
     public String generateToken(User user) {
+        long now = System.currentTimeMillis();
         Map<String, Object> claims = new HashMap<>();
         claims.put("role", user.getRole());
+        claims.put(TokenRevocationSet.ISSUED_AT_MILLIS_CLAIM, now);
         
         return Jwts.builder()
                 .setClaims(claims)
                 .setSubject(user.getId().toString())
-                .setIssuedAt(new Date())
-                .setExpiration(new Date((new Date()).getTime() + jwtExpirationMs))
+                // Token id, so a single token can be revoked
+                .setId(UUID.randomUUID().toString())
+                .setIssuedAt(new Date(now))
+                .setExpiration(new Date(now + jwtExpirationMs))
                 .signWith(key)
                 .compact();
     }
 
+    public long getExpirationMs() {
+        return jwtExpirationMs;
+    }
+
+    // Same fallback as the gateway: second-precision iat, else the epoch
+    public long getIssuedAtMillis(Claims claims) {
+        Number issuedAtMillis = claims.get(TokenRevocationSet.ISSUED_AT_MILLIS_CLAIM, Number.class);
+        if (issuedAtMillis != null) {
+            return issuedAtMillis.longValue();
+        }
+        Date issuedAt = claims.getIssuedAt();
+        return issuedAt == null ? 0L : issuedAt.getTime();
+    }
+
     public Claims getAllClaimsFromToken(String token) {
         return Jwts.parserBuilder().setSigningKey(key).build().parseClaimsJws(token).getBody();
     }
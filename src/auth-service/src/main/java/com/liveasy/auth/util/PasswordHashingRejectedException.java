@@ -0,0 +1,12 @@
+
+package com.liveasy.auth.util;
+
+/**
+ * Thrown when the password hashing pool is full, so the caller can shed the
+ * request instead of queueing behind other logins.
+ */
+public class PasswordHashingRejectedException extends RuntimeException {
+    public PasswordHashingRejectedException(String message) {
+        super(message);
+    }
+}
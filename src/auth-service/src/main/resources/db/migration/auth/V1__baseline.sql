@@ -0,0 +1,12 @@
+-- Schema as previously created by ddl-auto: update, and nothing newer.
+-- Existing databases are baselined at this version and skip it, so every
+-- table added since needs its own migration.
+
+CREATE TABLE IF NOT EXISTS users (
+    id       UUID         NOT NULL PRIMARY KEY,
+    username VARCHAR(255) NOT NULL,
+    password VARCHAR(255) NOT NULL,
+    email    VARCHAR(255) NOT NULL,
+    role     VARCHAR(255) NOT NULL,
+    CONSTRAINT uk_users_username UNIQUE (username)
+);
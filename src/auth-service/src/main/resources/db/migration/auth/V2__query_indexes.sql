@@ -0,0 +1,4 @@
+-- findByUsername / existsByUsername are served by the unique constraint's
+-- index. existsByEmail runs on every registration and had nothing.
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_users_email
+    ON users (email);
@@ -0,0 +1,40 @@
+
+package com.liveasy.auth.repository;
+
+import java.io.IOException;
+
+import javax.sql.DataSource;
+
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+
+import com.liveasy.auth.model.User;
+
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+
+/**
+ * The repositories on an embedded Postgres migrated by Flyway, without the
+ * rest of the application (Kafka, Redis, security).
+ */
+@Configuration
+@EntityScan(basePackageClasses = User.class)
+@EnableJpaRepositories(basePackageClasses = UserRepository.class)
+class RepositoryTestConfig {
+
+    @Bean(destroyMethod = "close")
+    EmbeddedPostgres embeddedPostgres() throws IOException {
+        return EmbeddedPostgres.builder().start();
+    }
+
+    @Bean
+    StatementRecorder statementRecorder(EmbeddedPostgres embeddedPostgres) {
+        return new StatementRecorder(embeddedPostgres.getPostgresDatabase());
+    }
+
+    @Bean
+    DataSource dataSource(StatementRecorder statementRecorder) {
+        return statementRecorder.dataSource();
+    }
+}
@@ -0,0 +1,84 @@
+
+package com.liveasy.auth.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.sql.Connection;
+import java.sql.Statement;
+import java.util.Arrays;
+import java.util.Map;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.test.context.ContextConfiguration;
+
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+
+/**
+ * Runs the login, registration and import lookups against a seeded, analyzed
+ * database and EXPLAINs the statements they actually sent: none may fall
+ * back to a sequential scan.
+ */
+@DataJpaTest(properties = {
+        "spring.flyway.locations=classpath:db/migration/auth",
+        "spring.jpa.hibernate.ddl-auto=validate"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ContextConfiguration(classes = RepositoryTestConfig.class)
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class UserRepositoryQueryPlanTest {
+
+    private static final int USERS = 20_000;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private EmbeddedPostgres embeddedPostgres;
+
+    @Autowired
+    private StatementRecorder statementRecorder;
+
+    @BeforeAll
+    void seed() throws Exception {
+        try (Connection connection = embeddedPostgres.getPostgresDatabase().getConnection();
+                Statement statement = connection.createStatement()) {
+            statement.execute("INSERT INTO users (id, username, password, email, role) "
+                    + "SELECT md5('u' || i)::uuid, 'user' || i, 'x', 'user' || i || '@example.com', 'TRANSPORTER' "
+                    + "FROM generate_series(1, " + USERS + ") AS i");
+            statement.execute("ANALYZE");
+        }
+    }
+
+    @BeforeEach
+    void clearRecordedStatements() {
+        statementRecorder.clear();
+    }
+
+    @Test
+    void loginAndRegistrationLookupsUseAnIndex() throws Exception {
+        userRepository.findByUsername("user42");
+        userRepository.existsByUsername("user42");
+        userRepository.existsByEmail("user42@example.com");
+
+        assertNoSequentialScans();
+    }
+
+    @Test
+    void importChunkLookupUsesAnIndex() throws Exception {
+        userRepository.findExistingUsernames(Arrays.asList("user1", "user2", "new-user"));
+
+        assertNoSequentialScans();
+    }
+
+    private void assertNoSequentialScans() throws Exception {
+        Map<String, String> plans = statementRecorder.explainAll();
+        assertThat(plans).isNotEmpty();
+        plans.forEach((sql, plan) -> assertThat(plan).as(sql).doesNotContain("Seq Scan"));
+    }
+}
@@ -0,0 +1,38 @@
+
+package com.liveasy.benchmarks;
+
+import java.io.File;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the benchmarks and writes JMH's JSON results to
+ * benchmark-results/jmh-&lt;release&gt;-&lt;timestamp&gt;.json so runs can be compared
+ * across releases. Usage: BenchmarkRunner [release] [include-regex]
+ */
+public class BenchmarkRunner {
+
+    public static void main(String[] args) throws Exception {
+        String release = args.length > 0 ? args[0] : "snapshot";
+        String include = args.length > 1 ? args[1] : "com\\.liveasy\\.benchmarks\\..*";
+
+        File resultsDir = new File("benchmark-results");
+        resultsDir.mkdirs();
+        String timestamp = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss"));
+        File resultFile = new File(resultsDir, "jmh-" + release + "-" + timestamp + ".json");
+
+        Options options = new OptionsBuilder()
+                .include(include)
+                .resultFormat(ResultFormatType.JSON)
+                .result(resultFile.getPath())
+                .build();
+
+        new Runner(options).run();
+        System.out.println("Results written to " + resultFile.getPath());
+    }
+}
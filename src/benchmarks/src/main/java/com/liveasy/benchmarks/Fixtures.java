@@ -0,0 +1,112 @@
+
+package com.liveasy.benchmarks;
+
+import java.lang.reflect.Field;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.liveasy.common.dto.BookingDto;
+import com.liveasy.common.dto.FacilityDto;
+import com.liveasy.common.dto.LoadDto;
+import com.liveasy.common.events.LoadStatusChangedEvent;
+import com.liveasy.load.model.Facility;
+import com.liveasy.load.model.Load;
+
+/**
+ * Representative payloads shared by the benchmarks.
+ */
+final class Fixtures {
+
+    static final String JWT_SECRET = "Ab5xP3cDfEgHiJkLmNpQrStUvWxYz0123456789AbCdEfGhIjK";
+
+    private Fixtures() {
+    }
+
+    // Configured like Spring Boot's auto-configured mapper
+    static ObjectMapper objectMapper() {
+        ObjectMapper mapper = new ObjectMapper();
+        mapper.registerModule(new JavaTimeModule());
+        mapper.disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        return mapper;
+    }
+
+    static Load load() {
+        Facility facility = new Facility();
+        facility.setLoadingPoint("Delhi");
+        facility.setUnloadingPoint("Mumbai");
+        facility.setLoadingDate(LocalDateTime.of(2024, 4, 20, 10, 30));
+        facility.setUnloadingDate(LocalDateTime.of(2024, 4, 22, 18, 0));
+
+        Load load = new Load();
+        load.setId(UUID.randomUUID());
+        load.setShipperId(UUID.randomUUID().toString());
+        load.setFacility(facility);
+        load.setProductType("Electronics");
+        load.setTruckType("Open");
+        load.setNoOfTrucks(2);
+        load.setWeight(1500);
+        load.setComment("Fragile goods, handle with care");
+        return load;
+    }
+
+    static List<Load> loads(int count) {
+        List<Load> loads = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            loads.add(load());
+        }
+        return loads;
+    }
+
+    static LoadDto loadDto() {
+        FacilityDto facility = new FacilityDto();
+        facility.setLoadingPoint("Delhi");
+        facility.setUnloadingPoint("Mumbai");
+        facility.setLoadingDate(LocalDateTime.of(2024, 4, 20, 10, 30));
+        facility.setUnloadingDate(LocalDateTime.of(2024, 4, 22, 18, 0));
+
+        LoadDto load = new LoadDto();
+        load.setId(UUID.randomUUID());
+        load.setShipperId(UUID.randomUUID().toString());
+        load.setFacility(facility);
+        load.setProductType("Electronics");
+        load.setTruckType("Open");
+        load.setNoOfTrucks(2);
+        load.setWeight(1500);
+        load.setComment("Fragile goods, handle with care");
+        load.setDatePosted(LocalDateTime.now());
+        load.setStatus(LoadDto.LoadStatus.POSTED);
+        return load;
+    }
+
+    static BookingDto bookingDto() {
+        BookingDto booking = new BookingDto();
+        booking.setId(UUID.randomUUID());
+        booking.setLoadId(UUID.randomUUID());
+        booking.setTransporterId(UUID.randomUUID().toString());
+        booking.setProposedRate(25000);
+        booking.setComment("Available for immediate transport");
+        booking.setStatus(BookingDto.BookingStatus.PENDING);
+        booking.setRequestedAt(LocalDateTime.now());
+        return booking;
+    }
+
+    static LoadStatusChangedEvent event() {
+        return new LoadStatusChangedEvent(UUID.randomUUID(), "BOOKED");
+    }
+
+    // Stands in for Spring's field injection on components built outside a context
+    static void inject(Object target, String fieldName, Object value) {
+        try {
+            Field field = target.getClass().getDeclaredField(fieldName);
+            field.setAccessible(true);
+            field.set(target, value);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Cannot set " + fieldName + " on " + target.getClass().getName(), e);
+        }
+    }
+}
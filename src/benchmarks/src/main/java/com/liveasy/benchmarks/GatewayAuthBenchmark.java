@@ -0,0 +1,109 @@
+
+package com.liveasy.benchmarks;
+
+import java.security.Key;
+import java.util.Date;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+
+import com.liveasy.common.revocation.TokenRevocationSet;
+import com.liveasy.gateway.filter.AuthenticationFilter;
+import com.liveasy.gateway.revocation.TokenRevocations;
+import com.liveasy.gateway.util.JwtUtil;
+import com.liveasy.gateway.util.VerifiedToken;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import reactor.core.publisher.Mono;
+
+/**
+ * Per-request JWT cost in the gateway: a full signature-verifying parse, a
+ * verified-token cache hit, the revocation check for an unrevoked token, and
+ * AuthenticationFilter end to end.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class GatewayAuthBenchmark {
+
+    private JwtUtil jwtUtil;
+    private TokenRevocations tokenRevocations;
+    private AuthenticationFilter filter;
+    private String token;
+
+    private final GatewayFilterChain chain = exchange -> Mono.empty();
+
+    @Setup
+    public void setup() {
+        jwtUtil = new JwtUtil();
+        Fixtures.inject(jwtUtil, "secret", Fixtures.JWT_SECRET);
+        Fixtures.inject(jwtUtil, "cacheMaximumSize", 100_000L);
+        Fixtures.inject(jwtUtil, "meterRegistry", new SimpleMeterRegistry());
+        jwtUtil.init();
+
+        tokenRevocations = new TokenRevocations();
+        Fixtures.inject(tokenRevocations, "expectedInsertions", 100_000L);
+        Fixtures.inject(tokenRevocations, "falsePositiveRate", 0.01);
+        Fixtures.inject(tokenRevocations, "meterRegistry", new SimpleMeterRegistry());
+        tokenRevocations.init();
+
+        filter = new AuthenticationFilter();
+        Fixtures.inject(filter, "jwtUtil", jwtUtil);
+        Fixtures.inject(filter, "tokenRevocations", tokenRevocations);
+
+        // Signed the same way auth-service issues tokens
+        Key key = Keys.hmacShaKeyFor(Fixtures.JWT_SECRET.getBytes());
+        long now = System.currentTimeMillis();
+        token = Jwts.builder()
+                .claim("role", "TRANSPORTER")
+                .claim(TokenRevocationSet.ISSUED_AT_MILLIS_CLAIM, now)
+                .setSubject(UUID.randomUUID().toString())
+                .setId(UUID.randomUUID().toString())
+                .setIssuedAt(new Date(now))
+                .setExpiration(new Date(now + TimeUnit.HOURS.toMillis(1)))
+                .signWith(key)
+                .compact();
+    }
+
+    @Benchmark
+    public Claims parseAndVerifySignature() {
+        return jwtUtil.getAllClaimsFromToken(token);
+    }
+
+    @Benchmark
+    public VerifiedToken verifyCached() {
+        return jwtUtil.verify(token);
+    }
+
+    @Benchmark
+    public boolean revocationCheck() {
+        return tokenRevocations.isRevoked(jwtUtil.verify(token));
+    }
+
+    @Benchmark
+    public MockServerWebExchange authenticationFilter() {
+        MockServerWebExchange exchange = MockServerWebExchange.from(
+                MockServerHttpRequest.get("/api/load").header("Authorization", "Bearer " + token));
+        filter.filter(exchange, chain).block();
+        return exchange;
+    }
+}
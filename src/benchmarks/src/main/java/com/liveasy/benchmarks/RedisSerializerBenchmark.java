@@ -0,0 +1,62 @@
+
+package com.liveasy.benchmarks;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+
+import com.liveasy.load.model.Load;
+
+/**
+ * Round trip through the serializer RedisConfig uses for the L2 cache tier,
+ * for cached lists of loads of increasing size.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RedisSerializerBenchmark {
+
+    @Param({"1", "100", "1000"})
+    private int size;
+
+    private GenericJackson2JsonRedisSerializer serializer;
+    private List<Load> loads;
+    private byte[] serialized;
+
+    @Setup
+    public void setup() {
+        serializer = new GenericJackson2JsonRedisSerializer();
+        loads = Fixtures.loads(size);
+        serialized = serializer.serialize(loads);
+    }
+
+    @Benchmark
+    public byte[] serialize() {
+        return serializer.serialize(loads);
+    }
+
+    @Benchmark
+    public Object deserialize() {
+        return serializer.deserialize(serialized);
+    }
+
+    @Benchmark
+    public Object roundTrip() {
+        return serializer.deserialize(serializer.serialize(loads));
+    }
+}
@@ -0,0 +1,100 @@
+
+package com.liveasy.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.liveasy.common.dto.BookingDto;
+import com.liveasy.common.dto.LoadDto;
+import com.liveasy.common.events.LoadStatusChangedEvent;
+import com.liveasy.load.model.Load;
+
+/**
+ * Jackson cost of the payloads that cross service boundaries: REST bodies,
+ * Feign responses and Kafka events.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SerializationBenchmark {
+
+    private ObjectMapper objectMapper;
+
+    private Load load;
+    private LoadDto loadDto;
+    private BookingDto bookingDto;
+    private LoadStatusChangedEvent event;
+
+    private byte[] loadJson;
+    private byte[] loadDtoJson;
+    private byte[] bookingDtoJson;
+    private byte[] eventJson;
+
+    @Setup
+    public void setup() throws Exception {
+        objectMapper = Fixtures.objectMapper();
+        load = Fixtures.load();
+        loadDto = Fixtures.loadDto();
+        bookingDto = Fixtures.bookingDto();
+        event = Fixtures.event();
+
+        loadJson = objectMapper.writeValueAsBytes(load);
+        loadDtoJson = objectMapper.writeValueAsBytes(loadDto);
+        bookingDtoJson = objectMapper.writeValueAsBytes(bookingDto);
+        eventJson = objectMapper.writeValueAsBytes(event);
+    }
+
+    @Benchmark
+    public byte[] serializeLoad() throws Exception {
+        return objectMapper.writeValueAsBytes(load);
+    }
+
+    @Benchmark
+    public Load deserializeLoad() throws Exception {
+        return objectMapper.readValue(loadJson, Load.class);
+    }
+
+    @Benchmark
+    public byte[] serializeLoadDto() throws Exception {
+        return objectMapper.writeValueAsBytes(loadDto);
+    }
+
+    @Benchmark
+    public LoadDto deserializeLoadDto() throws Exception {
+        return objectMapper.readValue(loadDtoJson, LoadDto.class);
+    }
+
+    @Benchmark
+    public byte[] serializeBookingDto() throws Exception {
+        return objectMapper.writeValueAsBytes(bookingDto);
+    }
+
+    @Benchmark
+    public BookingDto deserializeBookingDto() throws Exception {
+        return objectMapper.readValue(bookingDtoJson, BookingDto.class);
+    }
+
+    @Benchmark
+    public byte[] serializeEvent() throws Exception {
+        return objectMapper.writeValueAsBytes(event);
+    }
+
+    @Benchmark
+    public LoadStatusChangedEvent deserializeEvent() throws Exception {
+        return objectMapper.readValue(eventJson, LoadStatusChangedEvent.class);
+    }
+}
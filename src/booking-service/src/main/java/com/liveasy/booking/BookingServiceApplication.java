@@ -1,18 +1,26 @@
 
 package com.liveasy.booking;
 
-import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.builder.SpringApplicationBuilder;
 import org.springframework.cloud.client.discovery.EnableDiscoveryClient;
 import org.springframework.cloud.openfeign.EnableFeignClients;
 import org.springframework.kafka.annotation.EnableKafka;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
 @EnableDiscoveryClient
 @EnableFeignClients
 @EnableKafka
+@EnableScheduling
 public class BookingServiceApplication {
+
+    // Own config file name, so services sharing a classpath (load generator) don't read each other's yml
+    public static final String CONFIG_NAME = "booking-service";
+
     public static void main(String[] args) {
-        SpringApplication.run(BookingServiceApplication.class, args);
+        new SpringApplicationBuilder(BookingServiceApplication.class)
+                .properties("spring.config.name=" + CONFIG_NAME)
+                .run(args);
     }
 }
@@ -7,17 +7,30 @@ import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestParam;
 
 import com.liveasy.common.dto.LoadDto;
+import com.liveasy.common.dto.LoadPageDto;
+
+import feign.Request;
 
 import java.util.UUID;
 
+/**
+ * Raw Feign binding. Callers go through {@link ResilientLoadServiceClient},
+ * which supplies the per-call Request.Options deadline.
+ */
 @FeignClient(name = "load-service")
 public interface LoadServiceClient {
     
     @GetMapping("/api/load/{loadId}")
-    ResponseEntity<LoadDto> getLoadById(@PathVariable UUID loadId);
+    ResponseEntity<LoadDto> getLoadById(@PathVariable UUID loadId, Request.Options options);
+    
+    @GetMapping("/api/load")
+    LoadPageDto getLoadPage(@RequestParam(value = "cursor", required = false) String cursor,
+            @RequestParam("limit") int limit, Request.Options options);
     
     @PutMapping("/api/load/{loadId}/status")
-    ResponseEntity<LoadDto> updateLoadStatus(@PathVariable UUID loadId, @RequestBody String status);
+    ResponseEntity<LoadDto> updateLoadStatus(@PathVariable UUID loadId, @RequestBody String status,
+            @RequestParam(value = "bookingId", required = false) UUID bookingId, Request.Options options);
 }
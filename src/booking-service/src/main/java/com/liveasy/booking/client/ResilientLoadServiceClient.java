@@ -0,0 +1,277 @@
+
+package com.liveasy.booking.client;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+
+import com.liveasy.booking.exception.LoadServiceUnavailableException;
+import com.liveasy.common.concurrent.VirtualThreads;
+import com.liveasy.common.dto.LoadDto;
+import com.liveasy.common.dto.LoadPageDto;
+
+import feign.FeignException;
+import feign.Request;
+import feign.RetryableException;
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadConfig;
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.micrometer.tagged.TaggedBulkheadMetrics;
+import io.github.resilience4j.micrometer.tagged.TaggedCircuitBreakerMetrics;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Calls load-service with a deadline and bulkhead per method, a shared
+ * circuit breaker that fails fast while load-service is unhealthy, and hedged
+ * reads: if getLoadById hasn't answered within the hedge delay a second
+ * request goes out (usually to another instance) and the first answer wins.
+ * Both requests share one deadline, and the hedge takes its own bulkhead
+ * permit, so it is skipped when the bulkhead is full.
+ */
+@Component
+public class ResilientLoadServiceClient {
+
+    private static final Logger logger = LoggerFactory.getLogger(ResilientLoadServiceClient.class);
+
+    @Autowired
+    private LoadServiceClient loadServiceClient;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${load-service.client.connect-timeout-ms:300}")
+    private long connectTimeoutMs;
+
+    @Value("${load-service.client.get-load.timeout-ms:500}")
+    private long getLoadTimeoutMs;
+
+    @Value("${load-service.client.get-load.hedge-delay-ms:80}")
+    private long hedgeDelayMs;
+
+    @Value("${load-service.client.update-status.timeout-ms:2000}")
+    private long updateStatusTimeoutMs;
+
+    @Value("${load-service.client.get-page.timeout-ms:5000}")
+    private long getPageTimeoutMs;
+
+    @Value("${load-service.client.bulkhead.max-concurrent-calls:32}")
+    private int bulkheadMaxConcurrentCalls;
+
+    @Value("${load-service.client.bulkhead.max-wait-ms:50}")
+    private long bulkheadMaxWaitMs;
+
+    @Value("${load-service.client.circuit-breaker.failure-rate-threshold:50}")
+    private float failureRateThreshold;
+
+    @Value("${load-service.client.circuit-breaker.slow-call-threshold-ms:1000}")
+    private long slowCallThresholdMs;
+
+    @Value("${load-service.client.circuit-breaker.open-state-ms:5000}")
+    private long openStateMs;
+
+    private CircuitBreaker circuitBreaker;
+    private Bulkhead getLoadBulkhead;
+    private Bulkhead updateStatusBulkhead;
+    private Bulkhead getPageBulkhead;
+    private ExecutorService hedgeExecutor;
+
+    private Counter hedgesIssued;
+    private Counter hedgesWon;
+    private Counter hedgesSkipped;
+
+    @PostConstruct
+    public void init() {
+        CircuitBreakerConfig circuitBreakerConfig = CircuitBreakerConfig.custom()
+                .failureRateThreshold(failureRateThreshold)
+                .slowCallRateThreshold(failureRateThreshold)
+                .slowCallDurationThreshold(Duration.ofMillis(slowCallThresholdMs))
+                .waitDurationInOpenState(Duration.ofMillis(openStateMs))
+                .slidingWindowSize(50)
+                .minimumNumberOfCalls(20)
+                // A 404/409 is an answer and a full bulkhead is local back-pressure; none means load-service is down
+                .ignoreExceptions(FeignException.NotFound.class, FeignException.Conflict.class, BulkheadFullException.class)
+                .build();
+        CircuitBreakerRegistry circuitBreakerRegistry = CircuitBreakerRegistry.of(circuitBreakerConfig);
+        circuitBreaker = circuitBreakerRegistry.circuitBreaker("load-service");
+        TaggedCircuitBreakerMetrics.ofCircuitBreakerRegistry(circuitBreakerRegistry).bindTo(meterRegistry);
+
+        BulkheadRegistry bulkheadRegistry = BulkheadRegistry.of(BulkheadConfig.custom()
+                .maxConcurrentCalls(bulkheadMaxConcurrentCalls)
+                .maxWaitDuration(Duration.ofMillis(bulkheadMaxWaitMs))
+                .build());
+        getLoadBulkhead = bulkheadRegistry.bulkhead("load-service.getLoadById");
+        updateStatusBulkhead = bulkheadRegistry.bulkhead("load-service.updateLoadStatus");
+        getPageBulkhead = bulkheadRegistry.bulkhead("load-service.getLoadPage");
+        TaggedBulkheadMetrics.ofBulkheadRegistry(bulkheadRegistry).bindTo(meterRegistry);
+
+        hedgeExecutor = VirtualThreads.isSupported()
+                ? VirtualThreads.newPerTaskExecutor("load-service-hedge-")
+                : Executors.newFixedThreadPool(2 * bulkheadMaxConcurrentCalls);
+
+        hedgesIssued = Counter.builder("load_service.client.hedges").tag("result", "issued").register(meterRegistry);
+        hedgesWon = Counter.builder("load_service.client.hedges").tag("result", "won").register(meterRegistry);
+        hedgesSkipped = Counter.builder("load_service.client.hedges").tag("result", "skipped").register(meterRegistry);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        hedgeExecutor.shutdownNow();
+    }
+
+    /**
+     * Returns the load, or empty if load-service says it doesn't exist.
+     */
+    public Optional<LoadDto> getLoadById(UUID loadId) {
+        try {
+            return Optional.ofNullable(call("getLoadById", getLoadBulkhead, () -> hedgedGetLoad(loadId)));
+        } catch (FeignException.NotFound e) {
+            return Optional.empty();
+        }
+    }
+
+    public LoadPageDto getLoadPage(String cursor, int limit) {
+        return call("getLoadPage", getPageBulkhead,
+                () -> loadServiceClient.getLoadPage(cursor, limit, options(getPageTimeoutMs)));
+    }
+
+    // bookingId lets load-service tell a retry of this booking's transition from a competing one
+    public void updateLoadStatus(UUID loadId, String status, UUID bookingId) {
+        call("updateLoadStatus", updateStatusBulkhead,
+                () -> loadServiceClient.updateLoadStatus(loadId, status, bookingId, options(updateStatusTimeoutMs)));
+    }
+
+    // The caller's bulkhead permit covers the primary; the hedge needs one of its own
+    private LoadDto hedgedGetLoad(UUID loadId) {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(getLoadTimeoutMs);
+        CompletableFuture<LoadDto> primary = CompletableFuture.supplyAsync(
+                () -> fetchLoad(loadId, options(getLoadTimeoutMs)), hedgeExecutor);
+        try {
+            return primary.get(hedgeDelayMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            // Primary is slow; race a second request against it
+        } catch (ExecutionException e) {
+            throw unwrap(e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new LoadServiceUnavailableException("Interrupted fetching load " + loadId, e);
+        }
+
+        long remainingMs = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+        CompletableFuture<LoadDto> first;
+        if (remainingMs > 0 && getLoadBulkhead.tryAcquirePermission()) {
+            hedgesIssued.increment();
+            CompletableFuture<LoadDto> hedge = CompletableFuture.supplyAsync(
+                    () -> fetchLoad(loadId, options(remainingMs)), hedgeExecutor);
+            hedge.whenComplete((load, ex) -> getLoadBulkhead.onComplete());
+
+            // First success wins; fail only once both have failed
+            first = new CompletableFuture<>();
+            AtomicInteger failures = new AtomicInteger();
+            CompletableFuture<LoadDto> winner = first;
+            primary.whenComplete((load, ex) -> completeFirst(winner, load, ex, failures, false));
+            hedge.whenComplete((load, ex) -> completeFirst(winner, load, ex, failures, true));
+        } else {
+            // No spare permit: under load a hedge would only add to it, so keep waiting on the primary
+            hedgesSkipped.increment();
+            first = primary;
+        }
+
+        try {
+            // Whatever is left of the one deadline, not a fresh timeout
+            return first.get(Math.max(0, TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime())),
+                    TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            throw new LoadServiceUnavailableException("Timed out fetching load " + loadId, e);
+        } catch (ExecutionException e) {
+            throw unwrap(e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new LoadServiceUnavailableException("Interrupted fetching load " + loadId, e);
+        }
+    }
+
+    private void completeFirst(CompletableFuture<LoadDto> first, LoadDto load, Throwable ex,
+            AtomicInteger failures, boolean isHedge) {
+        if (ex == null) {
+            if (first.complete(load) && isHedge) {
+                hedgesWon.increment();
+            }
+        } else if (failures.incrementAndGet() == 2) {
+            first.completeExceptionally(ex);
+        }
+    }
+
+    private LoadDto fetchLoad(UUID loadId, Request.Options options) {
+        ResponseEntity<LoadDto> response = loadServiceClient.getLoadById(loadId, options);
+        return response == null ? null : response.getBody();
+    }
+
+    private <T> T call(String method, Bulkhead bulkhead, Supplier<T> supplier) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = "success";
+        try {
+            return CircuitBreaker.decorateSupplier(circuitBreaker, Bulkhead.decorateSupplier(bulkhead, supplier)).get();
+        } catch (CallNotPermittedException | BulkheadFullException e) {
+            outcome = "rejected";
+            logger.warn("Fast-failing {} to load-service: {}", method, e.getMessage());
+            throw new LoadServiceUnavailableException("Load service unavailable: " + e.getMessage(), e);
+        } catch (FeignException.NotFound e) {
+            outcome = "not_found";
+            throw e;
+        } catch (FeignException.Conflict e) {
+            outcome = "conflict";
+            throw e;
+        } catch (RetryableException | FeignException.FeignServerException e) {
+            // Timeouts and 5xx: load-service couldn't answer, which callers report as 503
+            outcome = "error";
+            throw new LoadServiceUnavailableException("Load service error: " + e.getMessage(), e);
+        } catch (RuntimeException e) {
+            outcome = "error";
+            throw e;
+        } finally {
+            sample.stop(Timer.builder("load_service.client.calls")
+                    .tag("method", method)
+                    .tag("outcome", outcome)
+                    .publishPercentileHistogram()
+                    .register(meterRegistry));
+        }
+    }
+
+    private Request.Options options(long readTimeoutMs) {
+        return new Request.Options(connectTimeoutMs, TimeUnit.MILLISECONDS, readTimeoutMs, TimeUnit.MILLISECONDS, true);
+    }
+
+    private static RuntimeException unwrap(ExecutionException e) {
+        Throwable cause = e.getCause();
+        if (cause instanceof RuntimeException) {
+            return (RuntimeException) cause;
+        }
+        return new LoadServiceUnavailableException("Error calling load-service: " + cause.getMessage(), cause);
+    }
+}
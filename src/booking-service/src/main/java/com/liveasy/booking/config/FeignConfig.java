@@ -0,0 +1,31 @@
+
+package com.liveasy.booking.config;
+
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import com.liveasy.common.concurrent.ConcurrencyLimitedFeignClient;
+
+import feign.Client;
+
+@Configuration
+public class FeignConfig {
+
+    // Wraps the load-balanced Feign client so outbound calls to load-service are bounded
+    @Bean
+    public static BeanPostProcessor feignConcurrencyLimiter(Environment environment) {
+        int maxConcurrentCalls = environment.getProperty("feign.max-concurrent-calls", Integer.class, 64);
+        long acquireTimeoutMs = environment.getProperty("feign.acquire-timeout-ms", Long.class, 1000L);
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof Client && !(bean instanceof ConcurrencyLimitedFeignClient)) {
+                    return new ConcurrencyLimitedFeignClient((Client) bean, maxConcurrentCalls, acquireTimeoutMs);
+                }
+                return bean;
+            }
+        };
+    }
+}
@@ -0,0 +1,47 @@
+
+package com.liveasy.booking.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.liveasy.common.kafka.LoadEventPublisher;
+import com.liveasy.common.outbox.OutboxEvent;
+import com.liveasy.common.outbox.OutboxEventRepository;
+import com.liveasy.common.outbox.OutboxRelay;
+import com.liveasy.common.outbox.OutboxService;
+import com.liveasy.booking.model.Booking;
+import com.liveasy.booking.repository.BookingRepository;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+// Scanning is explicit because the outbox entity and repository live in common-lib
+@Configuration
+@EntityScan(basePackageClasses = { Booking.class, OutboxEvent.class })
+@EnableJpaRepositories(basePackageClasses = { BookingRepository.class, OutboxEventRepository.class })
+public class OutboxConfig {
+
+    @Value("${outbox.relay.batch-size:500}")
+    private int batchSize;
+
+    @Value("${outbox.relay.send-timeout-ms:10000}")
+    private long sendTimeoutMs;
+
+    @Value("${outbox.relay.lease-ms:30000}")
+    private long leaseMs;
+
+    @Bean
+    public OutboxService outboxService(OutboxEventRepository outboxEventRepository, ObjectMapper objectMapper) {
+        return new OutboxService(outboxEventRepository, objectMapper);
+    }
+
+    @Bean
+    public OutboxRelay outboxRelay(OutboxEventRepository outboxEventRepository, LoadEventPublisher loadEventPublisher,
+            ObjectMapper objectMapper, MeterRegistry meterRegistry) {
+        return new OutboxRelay(outboxEventRepository, loadEventPublisher, objectMapper, meterRegistry, batchSize,
+                sendTimeoutMs, leaseMs);
+    }
+}
@@ -2,14 +2,21 @@
 package com.liveasy.booking.controller;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import com.liveasy.booking.dto.BookingProjectionPage;
+import com.liveasy.booking.exception.BookingConflictException;
 import com.liveasy.booking.exception.BookingException;
 import com.liveasy.booking.exception.BookingNotFoundException;
+import com.liveasy.booking.exception.LoadServiceUnavailableException;
 import com.liveasy.booking.model.Booking;
 import com.liveasy.booking.service.BookingService;
+import com.liveasy.booking.service.LoadStatusProjection;
+import com.liveasy.common.http.ETags;
 
 import java.util.List;
 import java.util.UUID;
@@ -23,15 +30,34 @@ public class BookingController {
 
     private static final Logger logger = LoggerFactory.getLogger(BookingController.class);
     
+    // About one circuit-breaker open period
+    private static final String LOAD_SERVICE_RETRY_AFTER_SECONDS = "5";
+    
     @Autowired
     private BookingService bookingService;
+    
+    @Autowired
+    private LoadStatusProjection loadStatusProjection;
 
     @GetMapping
-    public ResponseEntity<List<Booking>> getAllBookings(
+    public ResponseEntity<?> getAllBookings(
             @RequestParam(required = false) UUID loadId,
-            @RequestParam(required = false) String transporterId) {
+            @RequestParam(required = false) String transporterId,
+            @RequestParam(required = false) String fields,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
         
         try {
+            if (fields != null) {
+                logger.info("Fetching projected page of bookings with fields: {}", fields);
+                BookingProjectionPage page = bookingService.getProjectedBookingPage(fields, loadId, transporterId,
+                        cursor, limit);
+                // Only taggable when the client selected version
+                String etag = ETags.ofList(page.getItems(), item -> item.get("id"), item -> (Long) item.get("version"));
+                return conditional(etag, ifNoneMatch, page);
+            }
+            
             List<Booking> bookings;
             
             if (loadId != null) {
@@ -45,7 +71,10 @@ public class BookingController {
                 bookings = bookingService.getAllBookings();
             }
             
-            return ResponseEntity.ok(bookings);
+            return conditional(ETags.ofList(bookings, Booking::getId, Booking::getVersion), ifNoneMatch, bookings);
+        } catch (IllegalArgumentException e) {
+            logger.error("Bad booking list request: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(e.getMessage());
         } catch (Exception e) {
             logger.error("Error fetching bookings: {}", e.getMessage());
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
@@ -53,10 +82,19 @@ public class BookingController {
     }
 
     @GetMapping("/{bookingId}")
-    public ResponseEntity<?> getBookingById(@PathVariable UUID bookingId) {
+    public ResponseEntity<?> getBookingById(@PathVariable UUID bookingId,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
         try {
+            // Pollers usually already hold the current version; answer them without loading the entity
+            if (ifNoneMatch != null) {
+                String etag = ETags.of(bookingService.getBookingVersion(bookingId));
+                if (ETags.matches(ifNoneMatch, etag)) {
+                    return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+                }
+            }
+            
             Booking booking = bookingService.getBookingById(bookingId);
-            return ResponseEntity.ok(booking);
+            return conditional(ETags.of(booking.getVersion()), null, booking);
         } catch (BookingNotFoundException e) {
             logger.error("Booking not found: {}", e.getMessage());
             return ResponseEntity.status(HttpStatus.NOT_FOUND).body(e.getMessage());
@@ -73,6 +111,11 @@ public class BookingController {
             Booking createdBooking = bookingService.createBooking(booking);
             logger.info("Booking created with ID: {}", createdBooking.getId());
             return ResponseEntity.status(HttpStatus.CREATED).body(createdBooking);
+        } catch (BookingConflictException e) {
+            logger.warn("Booking conflict: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(e.getMessage());
+        } catch (LoadServiceUnavailableException e) {
+            return loadServiceUnavailable(e);
         } catch (BookingException e) {
             logger.error("Error creating booking: {}", e.getMessage());
             return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(e.getMessage());
@@ -101,6 +144,11 @@ public class BookingController {
         } catch (BookingNotFoundException e) {
             logger.error("Booking not found: {}", e.getMessage());
             return ResponseEntity.status(HttpStatus.NOT_FOUND).body(e.getMessage());
+        } catch (BookingConflictException e) {
+            logger.warn("Booking conflict: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(e.getMessage());
+        } catch (LoadServiceUnavailableException e) {
+            return loadServiceUnavailable(e);
         } catch (Exception e) {
             logger.error("Error updating booking: {}", e.getMessage());
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("Error updating booking: " + e.getMessage());
@@ -126,9 +174,50 @@ public class BookingController {
         } catch (BookingNotFoundException e) {
             logger.error("Booking not found: {}", e.getMessage());
             return ResponseEntity.status(HttpStatus.NOT_FOUND).body(e.getMessage());
+        } catch (BookingConflictException e) {
+            logger.warn("Booking conflict: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(e.getMessage());
+        } catch (LoadServiceUnavailableException e) {
+            return loadServiceUnavailable(e);
         } catch (Exception e) {
             logger.error("Error deleting booking: {}", e.getMessage());
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("Error deleting booking: " + e.getMessage());
         }
     }
+
+    @PostMapping("/load-status/resync")
+    public ResponseEntity<?> resyncLoadStatuses(@RequestHeader("role") String role) {
+        if (!role.equals("ADMIN")) {
+            logger.warn("Unauthorized attempt to resync load statuses with role: {}", role);
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).body("Only admins can resync load statuses");
+        }
+        
+        try {
+            long count = loadStatusProjection.resync();
+            logger.info("Load status projection resynced with {} loads", count);
+            return ResponseEntity.ok("Resynced " + count + " loads");
+        } catch (Exception e) {
+            logger.error("Error resyncing load statuses: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("Error resyncing load statuses: " + e.getMessage());
+        }
+    }
+
+    // No booking change was kept; the client can retry once load-service recovers
+    private static ResponseEntity<?> loadServiceUnavailable(LoadServiceUnavailableException e) {
+        logger.warn("Load service unavailable: {}", e.getMessage());
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, LOAD_SERVICE_RETRY_AFTER_SECONDS)
+                .body("Load service unavailable, please retry");
+    }
+
+    // 304 when the client's copy is current; otherwise the body, tagged so the next poll can be conditional
+    private static ResponseEntity<?> conditional(String etag, String ifNoneMatch, Object body) {
+        if (etag == null) {
+            return ResponseEntity.ok(body);
+        }
+        if (ETags.matches(ifNoneMatch, etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+        }
+        return ResponseEntity.ok().eTag(etag).cacheControl(CacheControl.noCache()).body(body);
+    }
 }
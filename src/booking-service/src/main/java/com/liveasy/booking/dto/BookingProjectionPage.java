@@ -0,0 +1,35 @@
+package com.liveasy.booking.dto;
+
+import java.util.List;
+import java.util.Map;
+
+public class BookingProjectionPage {
+    private List<Map<String, Object>> items;
+    private String nextCursor;
+
+    // Constructors
+    public BookingProjectionPage() {
+    }
+
+    public BookingProjectionPage(List<Map<String, Object>> items, String nextCursor) {
+        this.items = items;
+        this.nextCursor = nextCursor;
+    }
+
+    // Getters and Setters
+    public List<Map<String, Object>> getItems() {
+        return items;
+    }
+
+    public void setItems(List<Map<String, Object>> items) {
+        this.items = items;
+    }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    public void setNextCursor(String nextCursor) {
+        this.nextCursor = nextCursor;
+    }
+}
@@ -0,0 +1,9 @@
+
+package com.liveasy.booking.exception;
+
+// The load has moved to a status this booking can no longer act on
+public class BookingConflictException extends RuntimeException {
+    public BookingConflictException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,12 @@
+
+package com.liveasy.booking.exception;
+
+public class LoadServiceUnavailableException extends RuntimeException {
+    public LoadServiceUnavailableException(String message) {
+        super(message);
+    }
+
+    public LoadServiceUnavailableException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -25,6 +25,10 @@ public class Booking {
     private BookingStatus status;
     
     private LocalDateTime requestedAt;
+    
+    // Bumped by Hibernate on every update; backs optimistic locking and ETags
+    @Version
+    private Long version;
 
     public enum BookingStatus {
         PENDING, ACCEPTED, REJECTED
@@ -92,4 +96,12 @@ public class Booking {
     public void setRequestedAt(LocalDateTime requestedAt) {
         this.requestedAt = requestedAt;
     }
+
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
 }
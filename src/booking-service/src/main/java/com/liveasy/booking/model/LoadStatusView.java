@@ -0,0 +1,58 @@
+
+package com.liveasy.booking.model;
+
+import javax.persistence.*;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Booking-service's local copy of a load's status, fed by load-status-changes.
+ */
+@Entity
+@Table(name = "load_status_view")
+public class LoadStatusView {
+    @Id
+    private UUID loadId;
+
+    @Column(nullable = false, length = 16)
+    private String status;
+
+    // Timestamp of the event (or snapshot) this row reflects
+    @Column(nullable = false)
+    private LocalDateTime updatedAt;
+
+    // Constructors
+    public LoadStatusView() {
+    }
+
+    public LoadStatusView(UUID loadId, String status, LocalDateTime updatedAt) {
+        this.loadId = loadId;
+        this.status = status;
+        this.updatedAt = updatedAt;
+    }
+
+    // Getters and Setters
+    public UUID getLoadId() {
+        return loadId;
+    }
+
+    public void setLoadId(UUID loadId) {
+        this.loadId = loadId;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public void setStatus(String status) {
+        this.status = status;
+    }
+
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public void setUpdatedAt(LocalDateTime updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+}
@@ -0,0 +1,21 @@
+package com.liveasy.booking.repository;
+
+import java.util.Set;
+import java.util.UUID;
+
+import com.liveasy.booking.dto.BookingProjectionPage;
+import com.liveasy.common.http.KeysetCursor;
+
+/**
+ * Booking queries that select only the requested columns, returned as flat
+ * maps rather than managed entities.
+ */
+public interface BookingProjectionRepository {
+
+    /**
+     * A keyset page (newest first) of the given fields, filtered by whichever
+     * of loadId and transporterId are non-null.
+     */
+    BookingProjectionPage findProjectedPage(Set<String> fields, UUID loadId, String transporterId,
+            KeysetCursor after, int limit);
+}
@@ -0,0 +1,96 @@
+package com.liveasy.booking.repository;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.Tuple;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Path;
+import javax.persistence.criteria.Predicate;
+import javax.persistence.criteria.Root;
+import javax.persistence.criteria.Selection;
+
+import com.liveasy.booking.dto.BookingProjectionPage;
+import com.liveasy.booking.model.Booking;
+import com.liveasy.common.http.KeysetCursor;
+
+// Tuple queries: Hibernate reads only the selected columns and tracks no entities
+public class BookingProjectionRepositoryImpl implements BookingProjectionRepository {
+
+    private static final String CURSOR_REQUESTED_AT = "cursorRequestedAt";
+    private static final String CURSOR_ID = "cursorId";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public BookingProjectionPage findProjectedPage(Set<String> fields, UUID loadId, String transporterId,
+            KeysetCursor after, int limit) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = cb.createTupleQuery();
+        Root<Booking> booking = query.from(Booking.class);
+
+        List<Selection<?>> selections = new ArrayList<>(fields.size() + 2);
+        for (String field : fields) {
+            selections.add(booking.get(field).alias(field));
+        }
+        // Keyset columns, unless the client asked for them already: Hibernate hands back the same
+        // path object for an attribute, so aliasing it again would rename the client's column
+        String requestedAtAlias = fields.contains("requestedAt") ? "requestedAt" : CURSOR_REQUESTED_AT;
+        String idAlias = fields.contains("id") ? "id" : CURSOR_ID;
+        if (!fields.contains("requestedAt")) {
+            selections.add(booking.get("requestedAt").alias(CURSOR_REQUESTED_AT));
+        }
+        if (!fields.contains("id")) {
+            selections.add(booking.get("id").alias(CURSOR_ID));
+        }
+        query.multiselect(selections);
+
+        List<Predicate> predicates = new ArrayList<>();
+        if (loadId != null) {
+            predicates.add(cb.equal(booking.get("loadId"), loadId));
+        }
+        if (transporterId != null) {
+            predicates.add(cb.equal(booking.get("transporterId"), transporterId));
+        }
+        if (after != null) {
+            Path<LocalDateTime> requestedAt = booking.get("requestedAt");
+            Path<UUID> id = booking.get("id");
+            predicates.add(cb.or(
+                    cb.lessThan(requestedAt, after.getTimestamp()),
+                    cb.and(cb.equal(requestedAt, after.getTimestamp()), cb.lessThan(id, after.getId()))));
+        }
+        query.where(predicates.toArray(new Predicate[0]));
+        query.orderBy(cb.desc(booking.get("requestedAt")), cb.desc(booking.get("id")));
+
+        // One extra row tells us whether another page exists
+        List<Tuple> rows = entityManager.createQuery(query).setMaxResults(limit + 1).getResultList();
+
+        int size = Math.min(rows.size(), limit);
+        List<Map<String, Object>> items = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            Tuple row = rows.get(i);
+            Map<String, Object> item = new LinkedHashMap<>();
+            for (String field : fields) {
+                item.put(field, row.get(field));
+            }
+            items.add(item);
+        }
+
+        String nextCursor = null;
+        if (rows.size() > limit) {
+            Tuple last = rows.get(limit - 1);
+            nextCursor = KeysetCursor.encode(last.get(requestedAtAlias, LocalDateTime.class),
+                    last.get(idAlias, UUID.class));
+        }
+        return new BookingProjectionPage(items, nextCursor);
+    }
+}
@@ -2,15 +2,21 @@
 package com.liveasy.booking.repository;
 
 import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import com.liveasy.booking.model.Booking;
 
 @Repository
-public interface BookingRepository extends JpaRepository<Booking, UUID> {
+public interface BookingRepository extends JpaRepository<Booking, UUID>, BookingProjectionRepository {
     List<Booking> findByLoadId(UUID loadId);
     List<Booking> findByTransporterId(String transporterId);
+
+    @Query("SELECT b.version FROM Booking b WHERE b.id = :id")
+    Optional<Long> findVersionById(@Param("id") UUID id);
 }
@@ -0,0 +1,28 @@
+
+package com.liveasy.booking.repository;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.liveasy.booking.model.LoadStatusView;
+
+@Repository
+public interface LoadStatusViewRepository extends JpaRepository<LoadStatusView, UUID> {
+
+    // One statement, so concurrent writers can't interleave a read and a save; 0 when the row is newer
+    @Transactional
+    @Modifying
+    @Query(value = "INSERT INTO load_status_view (load_id, status, updated_at) "
+            + "VALUES (:loadId, :status, :updatedAt) "
+            + "ON CONFLICT (load_id) DO UPDATE SET status = excluded.status, updated_at = excluded.updated_at "
+            + "WHERE load_status_view.updated_at < excluded.updated_at", nativeQuery = true)
+    int upsertIfNewer(@Param("loadId") UUID loadId, @Param("status") String status,
+                      @Param("updatedAt") LocalDateTime updatedAt);
+}
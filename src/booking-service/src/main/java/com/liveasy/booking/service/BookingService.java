@@ -2,20 +2,33 @@
 package com.liveasy.booking.service;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.Cacheable;
-import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
-import com.liveasy.booking.client.LoadServiceClient;
+import com.liveasy.booking.client.ResilientLoadServiceClient;
+import com.liveasy.booking.dto.BookingProjectionPage;
+import com.liveasy.booking.exception.BookingConflictException;
 import com.liveasy.booking.exception.BookingException;
 import com.liveasy.booking.exception.BookingNotFoundException;
+import com.liveasy.booking.exception.LoadServiceUnavailableException;
 import com.liveasy.booking.model.Booking;
 import com.liveasy.booking.repository.BookingRepository;
+import com.liveasy.booking.util.BookingFields;
 import com.liveasy.common.dto.LoadDto;
 import com.liveasy.common.events.LoadStatusChangedEvent;
+import com.liveasy.common.http.KeysetCursor;
+import com.liveasy.common.outbox.OutboxService;
+
+import feign.FeignException;
 
 import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
 
 import org.slf4j.Logger;
@@ -30,13 +43,28 @@ public class BookingService {
     private BookingRepository bookingRepository;
     
     @Autowired
-    private LoadServiceClient loadServiceClient;
+    private ResilientLoadServiceClient loadServiceClient;
+    
+    @Autowired
+    private LoadStatusProjection loadStatusProjection;
+    
+    @Autowired
+    private OutboxService outboxService;
+    
+    @Autowired
+    private CacheManager cacheManager;
     
     @Autowired
-    private KafkaTemplate<String, LoadStatusChangedEvent> kafkaTemplate;
+    private TransactionTemplate transactionTemplate;
     
     private static final String TOPIC = "booking-events";
 
+    @Value("${booking.page.default-size:50}")
+    private int defaultPageSize;
+
+    @Value("${booking.page.max-size:200}")
+    private int maxPageSize;
+
     @Cacheable(value = "bookings")
     public List<Booking> getAllBookings() {
         logger.info("Fetching all bookings");
@@ -53,6 +81,20 @@ public class BookingService {
                 });
     }
 
+    /**
+     * The booking's current version: from the cache when it holds the booking,
+     * otherwise a single-column query, so conditional GETs never hydrate it.
+     */
+    public Long getBookingVersion(UUID id) {
+        Cache cache = cacheManager.getCache("bookings");
+        Booking cached = cache == null ? null : cache.get(id, Booking.class);
+        if (cached != null && cached.getVersion() != null) {
+            return cached.getVersion();
+        }
+        return bookingRepository.findVersionById(id)
+                .orElseThrow(() -> new BookingNotFoundException("Booking not found with ID: " + id));
+    }
+
     public List<Booking> getBookingsByLoadId(UUID loadId) {
         logger.info("Fetching bookings for load ID: {}", loadId);
         return bookingRepository.findByLoadId(loadId);
@@ -63,43 +105,77 @@ public class BookingService {
         return bookingRepository.findByTransporterId(transporterId);
     }
 
+    // Selects only the requested columns; loadId and transporterId filter in the same query
+    @Transactional(readOnly = true)
+    public BookingProjectionPage getProjectedBookingPage(String fields, UUID loadId, String transporterId,
+            String cursor, Integer limit) {
+        int pageSize = limit == null ? defaultPageSize : Math.max(1, Math.min(limit, maxPageSize));
+        logger.info("Fetching projected booking page, fields: {}, cursor: {}, size: {}", fields, cursor, pageSize);
+        KeysetCursor after = cursor == null || cursor.isEmpty() ? null : KeysetCursor.decode(cursor);
+        return bookingRepository.findProjectedPage(BookingFields.parse(fields), loadId, transporterId, after, pageSize);
+    }
+
+    /**
+     * Saves the booking, then books the load in load-service. No transaction
+     * is open during that call: the booking commits first (load-service needs
+     * its id) and is deleted again if the load can't be booked.
+     */
     @CacheEvict(value = "bookings", allEntries = true)
     public Booking createBooking(Booking booking) {
         try {
-            // Verify load exists and check its status
-            ResponseEntity<LoadDto> loadResponse = loadServiceClient.getLoadById(booking.getLoadId());
+            // Verify load exists and check its status against the local projection
+            Optional<String> loadStatus = loadStatusProjection.getStatus(booking.getLoadId());
             
-            if (loadResponse == null || loadResponse.getBody() == null) {
+            if (loadStatus.isEmpty() || LoadStatusProjection.DELETED.equals(loadStatus.get())) {
                 logger.error("Load not found with ID: {}", booking.getLoadId());
                 throw new BookingException("Load not found with ID: " + booking.getLoadId());
             }
             
-            LoadDto load = loadResponse.getBody();
-            
             // Check if load is already CANCELLED
-            if (load.getStatus() == LoadDto.LoadStatus.CANCELLED) {
+            if (LoadDto.LoadStatus.CANCELLED.name().equals(loadStatus.get())) {
                 logger.error("Cannot create booking for cancelled load with ID: {}", booking.getLoadId());
                 throw new BookingException("Cannot create booking for cancelled load");
             }
             
             // Create booking
-            Booking savedBooking = bookingRepository.save(booking);
+            Booking savedBooking = transactionTemplate.execute(status -> bookingRepository.save(booking));
             
             // Update load status to BOOKED
-            loadServiceClient.updateLoadStatus(booking.getLoadId(), "BOOKED");
+            try {
+                transitionLoad(booking.getLoadId(), "BOOKED", savedBooking.getId());
+            } catch (RuntimeException e) {
+                logger.warn("Removing booking {}: load {} was not booked", savedBooking.getId(), booking.getLoadId());
+                transactionTemplate.executeWithoutResult(status -> bookingRepository.deleteById(savedBooking.getId()));
+                throw e;
+            }
             
-            // Send Kafka event
-            kafkaTemplate.send(TOPIC, new LoadStatusChangedEvent(booking.getLoadId(), "BOOKED"));
+            // Record event; published by the outbox relay after commit. The load is
+            // booked by now and load-service records that itself, so a lost event
+            // doesn't fail the booking.
+            try {
+                transactionTemplate.executeWithoutResult(status ->
+                        outboxService.enqueue(TOPIC, new LoadStatusChangedEvent(booking.getLoadId(), "BOOKED")));
+            } catch (RuntimeException e) {
+                logger.error("Could not record BOOKED event for load {}: {}", booking.getLoadId(), e.getMessage());
+            }
             
             logger.info("Created booking with ID: {}", savedBooking.getId());
             return savedBooking;
             
+        } catch (BookingException | BookingConflictException | LoadServiceUnavailableException e) {
+            // Already the right answer for the caller: 400, 409 or 503
+            throw e;
         } catch (Exception e) {
             logger.error("Error creating booking: {}", e.getMessage());
             throw new BookingException("Error creating booking: " + e.getMessage());
         }
     }
 
+    /**
+     * Accepting a booking books its load first, outside the local transaction.
+     * If the local write then fails, retrying the request is safe: load-service
+     * treats the same booking's BOOKED transition as a repeat.
+     */
     @CacheEvict(value = "bookings", key = "#id")
     public Booking updateBooking(UUID id, Booking bookingDetails) {
         Booking booking = getBookingById(id);
@@ -108,36 +184,57 @@ public class BookingService {
         booking.setComment(bookingDetails.getComment());
         
         // Only update status if it's changing
+        boolean accepted = false;
         if (bookingDetails.getStatus() != null && bookingDetails.getStatus() != booking.getStatus()) {
             booking.setStatus(bookingDetails.getStatus());
             
             // If booking is ACCEPTED, update load status
             if (bookingDetails.getStatus() == Booking.BookingStatus.ACCEPTED) {
-                loadServiceClient.updateLoadStatus(booking.getLoadId(), "BOOKED");
-                
-                // Send Kafka event
-                kafkaTemplate.send(TOPIC, new LoadStatusChangedEvent(booking.getLoadId(), "BOOKED"));
+                transitionLoad(booking.getLoadId(), "BOOKED", booking.getId());
                 logger.info("Updated load status to BOOKED for load ID: {}", booking.getLoadId());
+                accepted = true;
             }
         }
         
-        Booking updatedBooking = bookingRepository.save(booking);
+        boolean loadBooked = accepted;
+        Booking updatedBooking = transactionTemplate.execute(status -> {
+            if (loadBooked) {
+                // Record event
+                outboxService.enqueue(TOPIC, new LoadStatusChangedEvent(booking.getLoadId(), "BOOKED"));
+            }
+            return bookingRepository.save(booking);
+        });
         logger.info("Updated booking with ID: {}", id);
         
         return updatedBooking;
     }
 
+    /**
+     * Cancels the load first, outside the local transaction; re-cancelling is
+     * a repeat in load-service, so a delete whose local write failed can be retried.
+     */
     @CacheEvict(value = "bookings", key = "#id")
     public void deleteBooking(UUID id) {
         Booking booking = getBookingById(id);
         
         // Update load status to CANCELLED when booking is deleted
-        loadServiceClient.updateLoadStatus(booking.getLoadId(), "CANCELLED");
+        transitionLoad(booking.getLoadId(), "CANCELLED", booking.getId());
         
-        // Send Kafka event
-        kafkaTemplate.send(TOPIC, new LoadStatusChangedEvent(booking.getLoadId(), "CANCELLED"));
-        
-        bookingRepository.delete(booking);
+        transactionTemplate.executeWithoutResult(status -> {
+            // Record event
+            outboxService.enqueue(TOPIC, new LoadStatusChangedEvent(booking.getLoadId(), "CANCELLED"));
+            bookingRepository.delete(booking);
+        });
         logger.info("Deleted booking with ID: {}", id);
     }
+
+    // load-service applies the change as a compare-and-set; 409 means the load moved on underneath us
+    private void transitionLoad(UUID loadId, String status, UUID bookingId) {
+        try {
+            loadServiceClient.updateLoadStatus(loadId, status, bookingId);
+        } catch (FeignException.Conflict e) {
+            logger.warn("Load {} cannot move to {}: {}", loadId, status, e.contentUTF8());
+            throw new BookingConflictException("Load " + loadId + " can no longer move to " + status);
+        }
+    }
 }
@@ -0,0 +1,121 @@
+
+package com.liveasy.booking.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.stereotype.Service;
+
+import com.liveasy.booking.client.ResilientLoadServiceClient;
+import com.liveasy.booking.model.LoadStatusView;
+import com.liveasy.booking.repository.LoadStatusViewRepository;
+import com.liveasy.common.dto.LoadDto;
+import com.liveasy.common.dto.LoadPageDto;
+import com.liveasy.common.events.LoadStatusChangedEvent;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.UUID;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Local loadId -> status projection so booking validation doesn't call
+ * load-service. Kept current from load-status-changes; load-service is only
+ * asked for loads the projection hasn't seen yet, and for a full resync.
+ * Every updated_at comes from load-service (event time or page read time),
+ * never booking-service's clock. That is one clock only while load-service
+ * runs on one node; with several, newer-wins is only as good as their clock
+ * sync, and two changes to a load within the skew may apply out of order.
+ */
+@Service
+public class LoadStatusProjection {
+
+    private static final Logger logger = LoggerFactory.getLogger(LoadStatusProjection.class);
+
+    public static final String DELETED = "DELETED";
+
+    private static final int RESYNC_PAGE_SIZE = 200;
+
+    // For rows with no load-service time: they fill a gap, and any timed event replaces them
+    private static final LocalDateTime UNTIMED = LocalDateTime.of(1970, 1, 1, 0, 0);
+
+    @Autowired
+    private LoadStatusViewRepository loadStatusViewRepository;
+
+    @Autowired
+    private ResilientLoadServiceClient loadServiceClient;
+
+    /**
+     * Returns the load's status, or empty if the load doesn't exist.
+     */
+    public Optional<String> getStatus(UUID loadId) {
+        Optional<LoadStatusView> view = loadStatusViewRepository.findById(loadId);
+        if (view.isPresent()) {
+            return Optional.of(view.get().getStatus());
+        }
+
+        // Load created moments ago and its event hasn't arrived yet
+        logger.info("Load {} not in projection, fetching from load-service", loadId);
+        Optional<LoadDto> load = loadServiceClient.getLoadById(loadId);
+        if (!load.isPresent()) {
+            return Optional.empty();
+        }
+        String status = load.get().getStatus().toString();
+        apply(loadId, status, UNTIMED);
+        return Optional.of(status);
+    }
+
+    @KafkaListener(topics = "load-status-changes", groupId = "booking-service-load-status")
+    public void onLoadStatusChanged(LoadStatusChangedEvent event) {
+        LocalDateTime timestamp = event.getTimestamp() != null ? event.getTimestamp() : UNTIMED;
+        apply(event.getLoadId(), event.getStatus(), timestamp);
+    }
+
+    // Lookups and resyncs write here too, not just the consumer, so the newer-wins check is one upsert
+    private boolean apply(UUID loadId, String status, LocalDateTime timestamp) {
+        if (loadStatusViewRepository.upsertIfNewer(loadId, status, timestamp) == 0) {
+            logger.debug("Ignoring stale status {} for load {}", status, loadId);
+            return false;
+        }
+        return true;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void bootstrapIfEmpty() {
+        if (loadStatusViewRepository.count() > 0) {
+            return;
+        }
+        try {
+            resync();
+        } catch (Exception e) {
+            // Lookups fall back to load-service until the next resync
+            logger.error("Load status projection bootstrap failed: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Pages through every load in load-service and refreshes the projection.
+     */
+    public long resync() {
+        logger.info("Resyncing load status projection from load-service");
+        long count = 0;
+        String cursor = null;
+        do {
+            LoadPageDto page = loadServiceClient.getLoadPage(cursor, RESYNC_PAGE_SIZE);
+            // load-service's time before it read the page; rows an event has moved past it are kept
+            LocalDateTime readAt = page.getReadAt() != null ? page.getReadAt() : UNTIMED;
+            for (LoadDto load : page.getItems()) {
+                if (apply(load.getId(), load.getStatus().toString(), readAt)) {
+                    count++;
+                }
+            }
+            cursor = page.getNextCursor();
+        } while (cursor != null);
+
+        logger.info("Resynced load status projection with {} loads", count);
+        return count;
+    }
+}
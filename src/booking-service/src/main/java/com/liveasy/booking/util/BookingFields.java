@@ -0,0 +1,32 @@
+package com.liveasy.booking.util;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+
+import com.liveasy.common.http.FieldSelection;
+
+/**
+ * Parses the {@code fields} parameter of booking list endpoints.
+ * {@code summary} stands for everything but the comment; id is always included.
+ */
+public final class BookingFields {
+
+    public static final String SUMMARY = FieldSelection.SUMMARY;
+
+    public static final List<String> ALLOWED = Collections.unmodifiableList(Arrays.asList(
+            "id", "loadId", "transporterId", "proposedRate", "comment", "status", "requestedAt", "version"));
+
+    public static final List<String> SUMMARY_FIELDS = Collections.unmodifiableList(Arrays.asList(
+            "id", "loadId", "transporterId", "proposedRate", "status", "requestedAt", "version"));
+
+    private static final FieldSelection SELECTION = new FieldSelection(ALLOWED, SUMMARY_FIELDS);
+
+    private BookingFields() {
+    }
+
+    public static Set<String> parse(String fields) {
+        return SELECTION.parse(fields);
+    }
+}
@@ -0,0 +1,13 @@
+-- Schema as previously created by ddl-auto: update, and nothing newer.
+-- Existing databases are baselined at this version and skip it, so every
+-- table added since needs its own migration.
+
+CREATE TABLE IF NOT EXISTS bookings (
+    id             UUID         NOT NULL PRIMARY KEY,
+    load_id        UUID         NOT NULL,
+    transporter_id VARCHAR(255) NOT NULL,
+    proposed_rate  FLOAT8       NOT NULL,
+    comment        VARCHAR(255),
+    status         VARCHAR(255),
+    requested_at   TIMESTAMP
+);
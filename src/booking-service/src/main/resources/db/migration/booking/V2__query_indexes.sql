@@ -0,0 +1,9 @@
+-- Built CONCURRENTLY so the migration doesn't block writes on a live table.
+
+-- findByLoadId: all bids on a load
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_bookings_load_id
+    ON bookings (load_id);
+
+-- findByTransporterId: a transporter's bookings, newest first
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_bookings_transporter_id_requested_at
+    ON bookings (transporter_id, requested_at DESC);
@@ -0,0 +1,2 @@
+-- Optimistic-locking version for Booking; existing rows start at 0.
+ALTER TABLE bookings ADD COLUMN IF NOT EXISTS version BIGINT NOT NULL DEFAULT 0;
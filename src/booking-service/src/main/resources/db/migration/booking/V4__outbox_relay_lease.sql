@@ -0,0 +1,7 @@
+-- Single-row lease for the outbox relay, so one node relays at a time without holding a transaction open.
+CREATE TABLE IF NOT EXISTS outbox_relay_lease (
+    id         INT          NOT NULL PRIMARY KEY,
+    owner      VARCHAR(64),
+    expires_at TIMESTAMPTZ  NOT NULL
+);
+INSERT INTO outbox_relay_lease (id, owner, expires_at) VALUES (1, NULL, 'epoch') ON CONFLICT (id) DO NOTHING;
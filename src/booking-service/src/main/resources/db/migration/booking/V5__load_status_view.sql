@@ -0,0 +1,7 @@
+-- Booking-service's local copy of each load's status, fed by load-status-changes.
+-- Not part of the old ddl-auto schema, so not in V1: baselined databases skip V1.
+CREATE TABLE IF NOT EXISTS load_status_view (
+    load_id    UUID        NOT NULL PRIMARY KEY,
+    status     VARCHAR(16) NOT NULL,
+    updated_at TIMESTAMP   NOT NULL
+);
@@ -0,0 +1,4 @@
+-- Unfiltered ?fields= pages walk all bookings in keyset order and had no
+-- index to do it with. Built CONCURRENTLY, like V2.
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_bookings_requested_at_id
+    ON bookings (requested_at DESC, id DESC);
@@ -0,0 +1,101 @@
+
+package com.liveasy.booking;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.sql.DataSource;
+
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+
+/**
+ * A database created by the old ddl-auto: update is baselined at V1 and must
+ * still end up with exactly the schema a fresh database gets.
+ */
+class SchemaMigrationTest {
+
+    // What ddl-auto: update had built before Flyway took over; deliberately not read from V1
+    private static final String DDL_AUTO_SCHEMA = "CREATE TABLE bookings ("
+            + "id UUID NOT NULL PRIMARY KEY, load_id UUID NOT NULL, transporter_id VARCHAR(255) NOT NULL, "
+            + "proposed_rate FLOAT8 NOT NULL, comment VARCHAR(255), status VARCHAR(255), requested_at TIMESTAMP)";
+
+    private static EmbeddedPostgres postgres;
+
+    @BeforeAll
+    static void start() throws IOException {
+        postgres = EmbeddedPostgres.builder().start();
+    }
+
+    @AfterAll
+    static void stop() throws IOException {
+        postgres.close();
+    }
+
+    @Test
+    void baselinedDatabaseGetsTheSameSchemaAsAFreshOne() throws Exception {
+        DataSource fresh = createDatabase("fresh_booking");
+        migrate(fresh);
+
+        DataSource existing = createDatabase("existing_booking");
+        try (Connection connection = existing.getConnection(); Statement statement = connection.createStatement()) {
+            statement.execute(DDL_AUTO_SCHEMA);
+            statement.execute("INSERT INTO bookings (id, load_id, transporter_id, proposed_rate, status, requested_at) "
+                    + "VALUES (md5('1')::uuid, md5('2')::uuid, 'transporter-1', 1000, 'PENDING', now())");
+        }
+        migrate(existing);
+
+        assertThat(schema(existing)).isNotEmpty().containsExactlyElementsOf(schema(fresh));
+    }
+
+    private static void migrate(DataSource dataSource) {
+        Flyway.configure()
+                .dataSource(dataSource)
+                .locations("classpath:db/migration/booking")
+                .baselineOnMigrate(true)
+                .baselineVersion("1")
+                .load()
+                .migrate();
+    }
+
+    private static DataSource createDatabase(String name) throws Exception {
+        try (Connection connection = postgres.getPostgresDatabase().getConnection();
+                Statement statement = connection.createStatement()) {
+            statement.execute("CREATE DATABASE " + name);
+        }
+        return postgres.getDatabase("postgres", name);
+    }
+
+    // Columns and indexes of the application tables, in a stable order
+    private static List<String> schema(DataSource dataSource) throws Exception {
+        List<String> schema = new ArrayList<>();
+        try (Connection connection = dataSource.getConnection(); Statement statement = connection.createStatement()) {
+            try (ResultSet rows = statement.executeQuery("SELECT table_name, column_name, data_type, is_nullable, "
+                    + "column_default FROM information_schema.columns "
+                    + "WHERE table_schema = 'public' AND table_name <> 'flyway_schema_history' "
+                    + "ORDER BY table_name, column_name")) {
+                while (rows.next()) {
+                    schema.add(rows.getString(1) + "." + rows.getString(2) + " " + rows.getString(3)
+                            + " nullable=" + rows.getString(4) + " default=" + rows.getString(5));
+                }
+            }
+            try (ResultSet rows = statement.executeQuery("SELECT indexdef FROM pg_indexes "
+                    + "WHERE schemaname = 'public' AND tablename <> 'flyway_schema_history' ORDER BY indexname")) {
+                while (rows.next()) {
+                    schema.add(rows.getString(1));
+                }
+            }
+        }
+        return schema;
+    }
+}
@@ -0,0 +1,90 @@
+
+package com.liveasy.booking.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.test.context.ContextConfiguration;
+
+import com.liveasy.booking.dto.BookingProjectionPage;
+import com.liveasy.booking.model.Booking;
+import com.liveasy.booking.util.BookingFields;
+import com.liveasy.common.http.KeysetCursor;
+
+@DataJpaTest(properties = {
+        "spring.flyway.locations=classpath:db/migration/booking",
+        "spring.jpa.hibernate.ddl-auto=validate"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ContextConfiguration(classes = RepositoryTestConfig.class)
+class BookingProjectionRepositoryImplTest {
+
+    // Other test classes may share the database, so every query is narrowed to this load
+    private static final UUID LOAD_ID = UUID.randomUUID();
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    private final List<Booking> newestFirst = new ArrayList<>();
+
+    @BeforeEach
+    void saveBookings() {
+        LocalDateTime requested = LocalDateTime.of(2024, 1, 1, 12, 0);
+        for (int i = 0; i < 5; i++) {
+            Booking booking = new Booking();
+            booking.setLoadId(LOAD_ID);
+            booking.setTransporterId("transporter-" + i);
+            booking.setProposedRate(1000 + i);
+            booking.setRequestedAt(requested.plusMinutes(i));
+            newestFirst.add(bookingRepository.save(booking));
+        }
+        bookingRepository.flush();
+        newestFirst.sort(Comparator.comparing(Booking::getRequestedAt).reversed());
+    }
+
+    @Test
+    void pagesSummaryFields() {
+        assertPagesThroughAll(BookingFields.parse(BookingFields.SUMMARY));
+    }
+
+    @Test
+    void pagesWhenTheKeysetColumnsAreRequested() {
+        Set<String> fields = BookingFields.parse("id,requestedAt");
+
+        List<Map<String, Object>> items = assertPagesThroughAll(fields);
+
+        assertThat(items).extracting(item -> item.get("requestedAt")).containsExactlyElementsOf(
+                newestFirst.stream().map(Booking::getRequestedAt).collect(Collectors.toList()));
+    }
+
+    private List<Map<String, Object>> assertPagesThroughAll(Set<String> fields) {
+        BookingProjectionPage first = bookingRepository.findProjectedPage(fields, LOAD_ID, null, null, 3);
+        assertThat(first.getItems()).hasSize(3);
+        assertThat(first.getNextCursor()).isNotNull();
+
+        BookingProjectionPage second = bookingRepository.findProjectedPage(fields, LOAD_ID, null,
+                KeysetCursor.decode(first.getNextCursor()), 3);
+        assertThat(second.getItems()).hasSize(2);
+        assertThat(second.getNextCursor()).isNull();
+
+        List<Map<String, Object>> items = new ArrayList<>(first.getItems());
+        items.addAll(second.getItems());
+        assertThat(items).allSatisfy(item -> assertThat(item.keySet()).containsExactlyElementsOf(fields));
+        assertThat(items).extracting(item -> item.get("id"))
+                .containsExactlyElementsOf(newestFirst.stream().map(Booking::getId).collect(Collectors.toList()));
+        return items;
+    }
+}
@@ -0,0 +1,133 @@
+
+package com.liveasy.booking.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.sql.Connection;
+import java.sql.Statement;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.context.ContextConfiguration;
+
+import com.liveasy.booking.util.BookingFields;
+import com.liveasy.common.http.KeysetCursor;
+import com.liveasy.common.outbox.OutboxEventRepository;
+
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+
+/**
+ * Runs the hot repository methods against a seeded, analyzed database and
+ * EXPLAINs the statements they actually sent: none may fall back to a
+ * sequential scan.
+ */
+@DataJpaTest(properties = {
+        "spring.flyway.locations=classpath:db/migration/booking",
+        "spring.jpa.hibernate.ddl-auto=validate"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ContextConfiguration(classes = RepositoryTestConfig.class)
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class BookingRepositoryQueryPlanTest {
+
+    private static final int BOOKINGS = 50_000;
+    private static final int LOAD_STATUSES = 10_000;
+    private static final int OUTBOX_EVENTS = 10_000;
+
+    private static final Set<String> SUMMARY = BookingFields.parse(BookingFields.SUMMARY);
+    private static final KeysetCursor MIDDLE = KeysetCursor.decode(
+            KeysetCursor.encode(LocalDateTime.now().minusDays(10), UUID.randomUUID()));
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private LoadStatusViewRepository loadStatusViewRepository;
+
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+
+    @Autowired
+    private EmbeddedPostgres embeddedPostgres;
+
+    @Autowired
+    private StatementRecorder statementRecorder;
+
+    @BeforeAll
+    void seed() throws Exception {
+        try (Connection connection = embeddedPostgres.getPostgresDatabase().getConnection();
+                Statement statement = connection.createStatement()) {
+            statement.execute("INSERT INTO bookings (id, load_id, transporter_id, proposed_rate, comment, status, "
+                    + "requested_at, version) "
+                    + "SELECT md5('b' || i)::uuid, md5((i % " + LOAD_STATUSES + ")::text)::uuid, "
+                    + "'transporter-' || (i % 3000), 1000 + i % 500, NULL, 'PENDING', "
+                    + "now() - i * interval '1 minute', 0 "
+                    + "FROM generate_series(1, " + BOOKINGS + ") AS i");
+            statement.execute("INSERT INTO load_status_view (load_id, status, updated_at) "
+                    + "SELECT md5(i::text)::uuid, 'POSTED', now() "
+                    + "FROM generate_series(0, " + (LOAD_STATUSES - 1) + ") AS i");
+            statement.execute("INSERT INTO outbox_events (topic, aggregate_id, payload, created_at) "
+                    + "SELECT 'booking-events', i::text, '{}', now() - i * interval '1 second' "
+                    + "FROM generate_series(1, " + OUTBOX_EVENTS + ") AS i");
+            statement.execute("ANALYZE");
+        }
+    }
+
+    @BeforeEach
+    void clearRecordedStatements() {
+        statementRecorder.clear();
+    }
+
+    @Test
+    void bookingListingsUseAnIndex() throws Exception {
+        UUID loadId = UUID.nameUUIDFromBytes("42".getBytes());
+        bookingRepository.findByLoadId(loadId);
+        bookingRepository.findByTransporterId("transporter-7");
+        bookingRepository.findVersionById(UUID.randomUUID());
+
+        assertNoSequentialScans();
+    }
+
+    @Test
+    void projectedPagesUseAnIndex() throws Exception {
+        bookingRepository.findProjectedPage(SUMMARY, null, null, null, 50);
+        bookingRepository.findProjectedPage(SUMMARY, null, null, MIDDLE, 50);
+        bookingRepository.findProjectedPage(SUMMARY, UUID.randomUUID(), null, null, 50);
+        bookingRepository.findProjectedPage(SUMMARY, null, "transporter-7", MIDDLE, 50);
+
+        assertNoSequentialScans();
+    }
+
+    @Test
+    void loadStatusProjectionUsesAnIndex() throws Exception {
+        UUID loadId = UUID.randomUUID();
+        loadStatusViewRepository.findById(loadId);
+        loadStatusViewRepository.upsertIfNewer(loadId, "BOOKED", LocalDateTime.now());
+
+        assertNoSequentialScans();
+    }
+
+    @Test
+    void outboxRelayQueriesUseAnIndex() throws Exception {
+        outboxEventRepository.findOldestCreatedAt();
+        outboxEventRepository.findNextBatch(PageRequest.of(0, 100));
+
+        assertNoSequentialScans();
+    }
+
+    private void assertNoSequentialScans() throws Exception {
+        Map<String, String> plans = statementRecorder.explainAll();
+        assertThat(plans).isNotEmpty();
+        plans.forEach((sql, plan) -> assertThat(plan).as(sql).doesNotContain("Seq Scan"));
+    }
+}
@@ -0,0 +1,42 @@
+
+package com.liveasy.booking.repository;
+
+import java.io.IOException;
+
+import javax.sql.DataSource;
+
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+
+import com.liveasy.booking.model.Booking;
+import com.liveasy.common.outbox.OutboxEvent;
+import com.liveasy.common.outbox.OutboxEventRepository;
+
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+
+/**
+ * The repositories on an embedded Postgres migrated by Flyway, without the
+ * rest of the application (Kafka, Redis, discovery).
+ */
+@Configuration
+@EntityScan(basePackageClasses = {Booking.class, OutboxEvent.class})
+@EnableJpaRepositories(basePackageClasses = {BookingRepository.class, OutboxEventRepository.class})
+class RepositoryTestConfig {
+
+    @Bean(destroyMethod = "close")
+    EmbeddedPostgres embeddedPostgres() throws IOException {
+        return EmbeddedPostgres.builder().start();
+    }
+
+    @Bean
+    StatementRecorder statementRecorder(EmbeddedPostgres embeddedPostgres) {
+        return new StatementRecorder(embeddedPostgres.getPostgresDatabase());
+    }
+
+    @Bean
+    DataSource dataSource(StatementRecorder statementRecorder) {
+        return statementRecorder.dataSource();
+    }
+}
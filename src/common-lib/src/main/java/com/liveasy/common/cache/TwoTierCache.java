@@ -0,0 +1,385 @@
+
+package com.liveasy.common.cache;
+
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.springframework.cache.Cache;
+import org.springframework.cache.support.NullValue;
+import org.springframework.cache.support.SimpleValueWrapper;
+import org.springframework.data.redis.cache.RedisCache;
+import org.springframework.data.redis.cache.RedisCacheConfiguration;
+import org.springframework.data.redis.serializer.RedisSerializationContext.SerializationPair;
+import org.springframework.data.redis.util.ByteUtils;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Cache with a bounded in-process L1 in front of a shared L2 (Redis).
+ * Reads fall through L1 to L2 and back-fill L1; every write or eviction
+ * goes to both tiers and is broadcast so other nodes drop their L1 copy.
+ * Loads through {@link #get(Object, Callable)} are single-flight per key:
+ * concurrent misses on a node share one loader call, and with a load lease
+ * configured on the manager, nodes share one loader call cluster-wide.
+ * L1 holds serialized snapshots, so callers never share a mutable instance
+ * (e.g. a JPA entity) and a caller's changes can't leak into the cache.
+ */
+public class TwoTierCache implements Cache {
+
+    private final String name;
+    private final com.github.benmanes.caffeine.cache.Cache<String, ValueWrapper> local;
+    private final Cache remote;
+    private final TwoTierCacheManager manager;
+    // Null when L2 isn't Redis; L1 then holds the values themselves
+    private final SerializationPair<Object> valueSerializer;
+
+    private static final long LEASE_POLL_MS = 20;
+
+    private final ConcurrentMap<String, CompletableFuture<ValueWrapper>> inFlight = new ConcurrentHashMap<>();
+
+    private final Counter l1Hits;
+    private final Counter l1Misses;
+    private final Counter l2Hits;
+    private final Counter l2Misses;
+    private final Counter loaderCalls;
+    private final Counter coalescedLocal;
+    private final Counter coalescedRemote;
+
+    public TwoTierCache(String name, com.github.benmanes.caffeine.cache.Cache<String, ValueWrapper> local,
+            Cache remote, TwoTierCacheManager manager, MeterRegistry meterRegistry) {
+        this.name = name;
+        this.local = local;
+        this.remote = remote;
+        this.manager = manager;
+        this.valueSerializer = remote instanceof RedisCache
+                ? ((RedisCache) remote).getCacheConfiguration().getValueSerializationPair()
+                : null;
+        this.l1Hits = requests(meterRegistry, "l1", "hit");
+        this.l1Misses = requests(meterRegistry, "l1", "miss");
+        this.l2Hits = requests(meterRegistry, "l2", "hit");
+        this.l2Misses = requests(meterRegistry, "l2", "miss");
+        this.loaderCalls = Counter.builder("cache.loader.calls")
+                .tag("cache", name)
+                .register(meterRegistry);
+        this.coalescedLocal = coalesced(meterRegistry, "local");
+        this.coalescedRemote = coalesced(meterRegistry, "remote");
+    }
+
+    private Counter coalesced(MeterRegistry meterRegistry, String scope) {
+        return Counter.builder("cache.coalesced.calls")
+                .tag("cache", name)
+                .tag("scope", scope)
+                .register(meterRegistry);
+    }
+
+    private Counter requests(MeterRegistry meterRegistry, String tier, String result) {
+        return Counter.builder("cache.tier.requests")
+                .tag("cache", name)
+                .tag("tier", tier)
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public Object getNativeCache() {
+        return this;
+    }
+
+    @Override
+    public ValueWrapper get(Object key) {
+        String localKey = localKey(key);
+        ValueWrapper wrapper = local.getIfPresent(localKey);
+        if (wrapper != null) {
+            l1Hits.increment();
+            return wrapper;
+        }
+        l1Misses.increment();
+
+        wrapper = remote.get(key);
+        if (wrapper == null) {
+            l2Misses.increment();
+            return null;
+        }
+        l2Hits.increment();
+        local.put(localKey, snapshot(wrapper.get()));
+        return wrapper;
+    }
+
+    /**
+     * Looks up many keys at once: L1 first, then one MGET against L2 for
+     * whatever L1 missed. Only keys that were found are in the result.
+     */
+    public Map<Object, Object> getAll(Collection<?> keys) {
+        Map<Object, Object> found = new HashMap<>();
+        List<Object> misses = new ArrayList<>();
+        for (Object key : keys) {
+            ValueWrapper wrapper = local.getIfPresent(localKey(key));
+            if (wrapper != null) {
+                l1Hits.increment();
+                found.put(key, wrapper.get());
+            } else {
+                l1Misses.increment();
+                misses.add(key);
+            }
+        }
+        if (misses.isEmpty()) {
+            return found;
+        }
+
+        List<Object> values = remoteGetAll(misses);
+        for (int i = 0; i < misses.size(); i++) {
+            Object value = values.get(i);
+            if (value == null) {
+                l2Misses.increment();
+                continue;
+            }
+            l2Hits.increment();
+            Object key = misses.get(i);
+            local.put(localKey(key), snapshot(value));
+            found.put(key, value);
+        }
+        return found;
+    }
+
+    // Same keys and serializers RedisCache uses for single gets
+    private List<Object> remoteGetAll(List<Object> keys) {
+        if (!(remote instanceof RedisCache)) {
+            List<Object> values = new ArrayList<>(keys.size());
+            for (Object key : keys) {
+                ValueWrapper wrapper = remote.get(key);
+                values.add(wrapper != null ? wrapper.get() : null);
+            }
+            return values;
+        }
+
+        RedisCacheConfiguration config = ((RedisCache) remote).getCacheConfiguration();
+        String prefix = config.usePrefix() ? config.getKeyPrefixFor(name) : "";
+        byte[][] redisKeys = new byte[keys.size()][];
+        for (int i = 0; i < redisKeys.length; i++) {
+            redisKeys[i] = ByteUtils.getBytes(config.getKeySerializationPair().write(prefix + localKey(keys.get(i))));
+        }
+
+        List<byte[]> raw = manager.multiGet(redisKeys);
+        List<Object> values = new ArrayList<>(keys.size());
+        for (int i = 0; i < redisKeys.length; i++) {
+            byte[] bytes = raw == null ? null : raw.get(i);
+            Object value = bytes == null ? null : config.getValueSerializationPair().read(ByteBuffer.wrap(bytes));
+            // A cached null reads as absent; the caller's batch load settles it
+            values.add(value instanceof NullValue ? null : value);
+        }
+        return values;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Class<T> type) {
+        ValueWrapper wrapper = get(key);
+        Object value = wrapper != null ? wrapper.get() : null;
+        if (value != null && type != null && !type.isInstance(value)) {
+            throw new IllegalStateException("Cached value is not of required type [" + type.getName() + "]: " + value);
+        }
+        return (T) value;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        ValueWrapper wrapper = get(key);
+        if (wrapper != null) {
+            return (T) wrapper.get();
+        }
+
+        String localKey = localKey(key);
+        CompletableFuture<ValueWrapper> flight = new CompletableFuture<>();
+        CompletableFuture<ValueWrapper> existing = inFlight.putIfAbsent(localKey, flight);
+        if (existing != null) {
+            coalescedLocal.increment();
+            return (T) await(existing, key, valueLoader).get();
+        }
+
+        try {
+            // The previous flight may have finished between our miss and putIfAbsent
+            wrapper = local.getIfPresent(localKey);
+            ValueWrapper loaded = wrapper != null ? wrapper : loadOnce(key, localKey, valueLoader);
+            // Waiters share the snapshot; each get() hands out its own copy
+            flight.complete(loaded);
+            return (T) loaded.get();
+        } catch (RuntimeException e) {
+            flight.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(localKey, flight);
+        }
+    }
+
+    private ValueWrapper loadOnce(Object key, String localKey, Callable<?> valueLoader) {
+        Duration lease = manager.getLoadLease();
+        if (lease == null || manager.tryAcquireLease(name, localKey, lease)) {
+            boolean loaded = false;
+            try {
+                ValueWrapper value = load(key, valueLoader);
+                loaded = true;
+                return value;
+            } finally {
+                if (lease != null && loaded) {
+                    manager.releaseLease(name, localKey);
+                } else if (lease != null) {
+                    manager.failLease(name, localKey);
+                }
+            }
+        }
+
+        // Another node holds the lease; wait for its result to land in L2
+        long deadline = System.nanoTime() + lease.toNanos();
+        while (System.nanoTime() < deadline) {
+            try {
+                TimeUnit.MILLISECONDS.sleep(LEASE_POLL_MS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+            ValueWrapper wrapper = remote.get(key);
+            if (wrapper == null) {
+                String holder = manager.leaseHolder(name, localKey);
+                // Its load failed; ours surfaces the loader's own exception (e.g. not found), not a generic one
+                if (TwoTierCacheManager.FAILED_LEASE.equals(holder)) {
+                    break;
+                }
+                if (holder != null) {
+                    continue;
+                }
+                // Released: the value may have landed just after our read
+                wrapper = remote.get(key);
+                if (wrapper == null) {
+                    break;
+                }
+            }
+            coalescedRemote.increment();
+            ValueWrapper snapshot = snapshot(wrapper.get());
+            local.put(localKey, snapshot);
+            return snapshot;
+        }
+
+        // Lease holder failed, died, is too slow, or released without a value; load it ourselves
+        return load(key, valueLoader);
+    }
+
+    private ValueWrapper load(Object key, Callable<?> valueLoader) {
+        loaderCalls.increment();
+        Object value;
+        try {
+            value = valueLoader.call();
+        } catch (Exception e) {
+            throw new ValueRetrievalException(key, valueLoader, e);
+        }
+        return store(key, value);
+    }
+
+    private ValueWrapper await(CompletableFuture<ValueWrapper> flight, Object key, Callable<?> valueLoader) {
+        try {
+            return flight.get(manager.getLoadWait().toMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            // The leader is stuck; don't queue behind it any longer
+            return load(key, valueLoader);
+        } catch (ExecutionException e) {
+            // The leader's exception, unchanged, so callers see the same failure
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new ValueRetrievalException(key, valueLoader, e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ValueRetrievalException(key, valueLoader, e);
+        }
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        store(key, value);
+    }
+
+    private ValueWrapper store(Object key, Object value) {
+        remote.put(key, value);
+        ValueWrapper snapshot = snapshot(value);
+        local.put(localKey(key), snapshot);
+        manager.publishInvalidation(name, localKey(key));
+        return snapshot;
+    }
+
+    @Override
+    public ValueWrapper putIfAbsent(Object key, Object value) {
+        ValueWrapper existing = remote.putIfAbsent(key, value);
+        local.invalidate(localKey(key));
+        manager.publishInvalidation(name, localKey(key));
+        return existing;
+    }
+
+    @Override
+    public void evict(Object key) {
+        remote.evict(key);
+        local.invalidate(localKey(key));
+        manager.publishInvalidation(name, localKey(key));
+    }
+
+    @Override
+    public void clear() {
+        remote.clear();
+        local.invalidateAll();
+        manager.publishInvalidation(name, null);
+    }
+
+    // Called when another node has changed an entry
+    void invalidateLocal(String key) {
+        if (key == null) {
+            local.invalidateAll();
+        } else {
+            local.invalidate(key);
+        }
+    }
+
+    private ValueWrapper snapshot(Object value) {
+        if (value == null || valueSerializer == null) {
+            return new SimpleValueWrapper(value);
+        }
+        return new Snapshot(ByteUtils.getBytes(valueSerializer.write(value)), valueSerializer);
+    }
+
+    // Serialized with L2's serializer; every get() deserializes a fresh copy
+    private static final class Snapshot implements ValueWrapper {
+        private final byte[] bytes;
+        private final SerializationPair<Object> serializer;
+
+        Snapshot(byte[] bytes, SerializationPair<Object> serializer) {
+            this.bytes = bytes;
+            this.serializer = serializer;
+        }
+
+        @Override
+        public Object get() {
+            return serializer.read(ByteBuffer.wrap(bytes));
+        }
+    }
+
+    // Same string form RedisCache uses, so keys survive the trip through pub/sub
+    private static String localKey(Object key) {
+        return String.valueOf(key);
+    }
+}
@@ -0,0 +1,210 @@
+
+package com.liveasy.common.cache;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+/**
+ * CacheManager that decorates every cache of a Redis-backed manager with a
+ * Caffeine L1. L1 entries are dropped cluster-wide through a Redis pub/sub
+ * channel; the short L1 TTL bounds staleness if a message is lost.
+ */
+public class TwoTierCacheManager implements CacheManager, MessageListener {
+
+    private static final Logger logger = LoggerFactory.getLogger(TwoTierCacheManager.class);
+
+    public static final String INVALIDATION_CHANNEL = "cache-invalidation";
+
+    private static final String SEPARATOR = "\n";
+    private static final String ALL_KEYS = "*";
+
+    private static final String LEASE_PREFIX = "cache-lease:";
+
+    // Lease value left behind by a failed load, so waiting nodes stop polling and load themselves
+    static final String FAILED_LEASE = "failed";
+    private static final long FAILED_LEASE_MS = 250;
+
+    // Only the holder may release, so an expired lease can't drop someone else's
+    private static final RedisScript<Long> RELEASE_LEASE = new DefaultRedisScript<>(
+            "if redis.call('get', KEYS[1]) == ARGV[1] then return redis.call('del', KEYS[1]) else return 0 end",
+            Long.class);
+
+    private static final RedisScript<Long> FAIL_LEASE = new DefaultRedisScript<>(
+            "if redis.call('get', KEYS[1]) == ARGV[1] then "
+            + "return redis.call('set', KEYS[1], ARGV[2], 'PX', ARGV[3]) and 1 else return 0 end",
+            Long.class);
+
+    private final CacheManager remoteCacheManager;
+    private final StringRedisTemplate redisTemplate;
+    private final MeterRegistry meterRegistry;
+    private final long localMaximumSize;
+    private final Duration localTtl;
+
+    // Null keeps single-flight loads local to this node
+    private volatile Duration loadLease;
+
+    // How long a caller waits for another thread's load of the same key before loading itself
+    private volatile Duration loadWait = Duration.ofSeconds(2);
+
+    // Lets a node ignore its own broadcasts
+    private final String nodeId = UUID.randomUUID().toString();
+
+    private final ConcurrentMap<String, TwoTierCache> caches = new ConcurrentHashMap<>();
+
+    public TwoTierCacheManager(CacheManager remoteCacheManager, StringRedisTemplate redisTemplate,
+            MeterRegistry meterRegistry, long localMaximumSize, Duration localTtl) {
+        this.remoteCacheManager = remoteCacheManager;
+        this.redisTemplate = redisTemplate;
+        this.meterRegistry = meterRegistry;
+        this.localMaximumSize = localMaximumSize;
+        this.localTtl = localTtl;
+    }
+
+    /**
+     * Makes cache loads single-flight across nodes: the first node to miss a
+     * key holds a Redis lease of this length while it loads, and other nodes
+     * wait for the value to reach Redis instead of running their own loader.
+     */
+    public void setLoadLease(Duration loadLease) {
+        this.loadLease = loadLease == null || loadLease.isZero() ? null : loadLease;
+    }
+
+    Duration getLoadLease() {
+        return loadLease;
+    }
+
+    public void setLoadWait(Duration loadWait) {
+        this.loadWait = loadWait;
+    }
+
+    Duration getLoadWait() {
+        return loadWait;
+    }
+
+    @Override
+    public Cache getCache(String name) {
+        return caches.computeIfAbsent(name, this::createCache);
+    }
+
+    @Override
+    public Collection<String> getCacheNames() {
+        return Collections.unmodifiableSet(caches.keySet());
+    }
+
+    private TwoTierCache createCache(String name) {
+        Counter evictions = Counter.builder("cache.tier.evictions")
+                .tag("cache", name)
+                .tag("tier", "l1")
+                .register(meterRegistry);
+
+        com.github.benmanes.caffeine.cache.Cache<String, Cache.ValueWrapper> local = Caffeine.newBuilder()
+                .maximumSize(localMaximumSize)
+                .expireAfterWrite(localTtl)
+                .recordStats()
+                .removalListener((String key, Cache.ValueWrapper value, RemovalCause cause) -> {
+                    if (cause.wasEvicted()) {
+                        evictions.increment();
+                    }
+                })
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, local, name + "-l1");
+
+        logger.info("Created two-tier cache: {} (L1 max {} entries, ttl {})", name, localMaximumSize, localTtl);
+        return new TwoTierCache(name, local, remoteCacheManager.getCache(name), this, meterRegistry);
+    }
+
+    void publishInvalidation(String cacheName, String key) {
+        String message = nodeId + SEPARATOR + cacheName + SEPARATOR + (key == null ? ALL_KEYS : key);
+        try {
+            redisTemplate.convertAndSend(INVALIDATION_CHANNEL, message);
+        } catch (Exception e) {
+            // The L1 TTL still bounds how long other nodes can serve the stale entry
+            logger.warn("Failed to publish cache invalidation for {}: {}", cacheName, e.getMessage());
+        }
+    }
+
+    // One round trip for a batch of raw cache keys; nulls mark misses
+    List<byte[]> multiGet(byte[][] keys) {
+        return redisTemplate.execute((RedisCallback<List<byte[]>>) connection -> connection.mGet(keys));
+    }
+
+    boolean tryAcquireLease(String cacheName, String key, Duration lease) {
+        try {
+            return Boolean.TRUE.equals(redisTemplate.opsForValue().setIfAbsent(leaseKey(cacheName, key), nodeId, lease));
+        } catch (Exception e) {
+            // Without Redis there's nothing to wait on; load locally
+            logger.warn("Failed to acquire load lease for {}: {}", cacheName, e.getMessage());
+            return true;
+        }
+    }
+
+    void releaseLease(String cacheName, String key) {
+        try {
+            redisTemplate.execute(RELEASE_LEASE, Collections.singletonList(leaseKey(cacheName, key)), nodeId);
+        } catch (Exception e) {
+            // Expires on its own
+            logger.warn("Failed to release load lease for {}: {}", cacheName, e.getMessage());
+        }
+    }
+
+    // Replaces our lease with a short-lived failure marker; see FAILED_LEASE
+    void failLease(String cacheName, String key) {
+        try {
+            redisTemplate.execute(FAIL_LEASE, Collections.singletonList(leaseKey(cacheName, key)), nodeId,
+                    FAILED_LEASE, String.valueOf(FAILED_LEASE_MS));
+        } catch (Exception e) {
+            logger.warn("Failed to mark load lease failed for {}: {}", cacheName, e.getMessage());
+        }
+    }
+
+    // The holder's node id, FAILED_LEASE, or null once the lease is released or expired
+    String leaseHolder(String cacheName, String key) {
+        try {
+            return redisTemplate.opsForValue().get(leaseKey(cacheName, key));
+        } catch (Exception e) {
+            logger.warn("Failed to read load lease for {}: {}", cacheName, e.getMessage());
+            return null;
+        }
+    }
+
+    private static String leaseKey(String cacheName, String key) {
+        return LEASE_PREFIX + cacheName + ":" + key;
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String[] parts = new String(message.getBody(), StandardCharsets.UTF_8).split(SEPARATOR, 3);
+        if (parts.length != 3 || nodeId.equals(parts[0])) {
+            return;
+        }
+
+        TwoTierCache cache = caches.get(parts[1]);
+        if (cache != null) {
+            cache.invalidateLocal(ALL_KEYS.equals(parts[2]) ? null : parts[2]);
+        }
+    }
+}
@@ -0,0 +1,47 @@
+
+package com.liveasy.common.concurrent;
+
+import java.io.IOException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+import feign.Client;
+import feign.Request;
+import feign.Response;
+
+/**
+ * Caps concurrent outbound Feign calls. With virtual threads request handling
+ * is no longer bounded by the Tomcat pool, so the bound has to live here.
+ */
+public class ConcurrencyLimitedFeignClient implements Client {
+
+    private final Client delegate;
+    private final Semaphore permits;
+    private final long acquireTimeoutMs;
+
+    public ConcurrencyLimitedFeignClient(Client delegate, int maxConcurrentCalls, long acquireTimeoutMs) {
+        this.delegate = delegate;
+        this.permits = new Semaphore(maxConcurrentCalls);
+        this.acquireTimeoutMs = acquireTimeoutMs;
+    }
+
+    @Override
+    public Response execute(Request request, Request.Options options) throws IOException {
+        boolean acquired;
+        try {
+            acquired = permits.tryAcquire(acquireTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted waiting for outbound call permit", e);
+        }
+        if (!acquired) {
+            throw new IOException("Outbound call limit reached for " + request.url());
+        }
+
+        try {
+            return delegate.execute(request, options);
+        } finally {
+            permits.release();
+        }
+    }
+}
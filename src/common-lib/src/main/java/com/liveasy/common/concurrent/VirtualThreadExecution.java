@@ -0,0 +1,48 @@
+
+package com.liveasy.common.concurrent;
+
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.support.TaskExecutorAdapter;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.concurrent.ExecutorService;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * The beans behind execution.mode=virtual, shared by the servlet services:
+ * request handling and async MVC work on virtual threads, falling back to
+ * platform threads below Java 21. Each service registers them from its own
+ * ExecutionConfig.
+ */
+public final class VirtualThreadExecution {
+
+    private static final Logger logger = LoggerFactory.getLogger(VirtualThreadExecution.class);
+
+    private VirtualThreadExecution() {
+    }
+
+    public static TomcatProtocolHandlerCustomizer<?> tomcatProtocolHandlerCustomizer() {
+        if (!VirtualThreads.isSupported()) {
+            logger.warn("execution.mode=virtual needs Java 21+, keeping the platform thread pool");
+            return protocolHandler -> { };
+        }
+        ExecutorService executor = VirtualThreads.newPerTaskExecutor("tomcat-virtual-");
+        logger.info("Handling requests on virtual threads");
+        return protocolHandler -> protocolHandler.setExecutor(executor);
+    }
+
+    // Stands in for Boot's pooled applicationTaskExecutor used by @Async and async MVC
+    public static AsyncTaskExecutor applicationTaskExecutor() {
+        if (!VirtualThreads.isSupported()) {
+            ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+            executor.setCorePoolSize(8);
+            executor.setThreadNamePrefix("task-");
+            executor.initialize();
+            return executor;
+        }
+        return new TaskExecutorAdapter(VirtualThreads.newPerTaskExecutor("task-virtual-"));
+    }
+}
@@ -0,0 +1,53 @@
+
+package com.liveasy.common.concurrent;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Virtual-thread executors, resolved reflectively so the services still build
+ * for Java 11 and only use virtual threads when running on Java 21+.
+ */
+public final class VirtualThreads {
+
+    private static final Method OF_VIRTUAL = findOfVirtual();
+
+    private VirtualThreads() {
+    }
+
+    public static boolean isSupported() {
+        return OF_VIRTUAL != null;
+    }
+
+    /**
+     * Executor that starts one named virtual thread per task.
+     */
+    public static ExecutorService newPerTaskExecutor(String namePrefix) {
+        if (!isSupported()) {
+            throw new UnsupportedOperationException("Virtual threads require Java 21 or later");
+        }
+        try {
+            // Thread.ofVirtual().name(prefix, 0).factory()
+            // Look methods up on the public Thread.Builder interface, not the JDK-internal impl class
+            Class<?> builderType = Class.forName("java.lang.Thread$Builder");
+            Object builder = OF_VIRTUAL.invoke(null);
+            builder = builderType.getMethod("name", String.class, long.class).invoke(builder, namePrefix, 0L);
+            ThreadFactory threadFactory = (ThreadFactory) builderType.getMethod("factory").invoke(builder);
+
+            Method perTask = Executors.class.getMethod("newThreadPerTaskExecutor", ThreadFactory.class);
+            return (ExecutorService) perTask.invoke(null, threadFactory);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Could not create virtual thread executor", e);
+        }
+    }
+
+    private static Method findOfVirtual() {
+        try {
+            return Thread.class.getMethod("ofVirtual");
+        } catch (NoSuchMethodException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,41 @@
+
+package com.liveasy.common.dto;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public class LoadPageDto {
+    private List<LoadDto> items;
+    private String nextCursor;
+    // load-service's clock just before the page was read
+    private LocalDateTime readAt;
+
+    // Constructors
+    public LoadPageDto() {
+    }
+
+    // Getters and Setters
+    public List<LoadDto> getItems() {
+        return items;
+    }
+
+    public void setItems(List<LoadDto> items) {
+        this.items = items;
+    }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    public void setNextCursor(String nextCursor) {
+        this.nextCursor = nextCursor;
+    }
+
+    public LocalDateTime getReadAt() {
+        return readAt;
+    }
+
+    public void setReadAt(LocalDateTime readAt) {
+        this.readAt = readAt;
+    }
+}
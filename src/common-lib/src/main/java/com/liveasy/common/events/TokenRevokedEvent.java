@@ -0,0 +1,79 @@
+
+package com.liveasy.common.events;
+
+import java.time.LocalDateTime;
+
+/**
+ * Revokes either one token (tokenId set) or every token of a user issued at or
+ * before revokedAtMillis (tokenId null). Either way the revocation only matters
+ * until expiresAtMillis, after which the affected tokens have expired anyway.
+ */
+public class TokenRevokedEvent {
+    private String tokenId;
+    private String userId;
+    private long revokedAtMillis;
+    private long expiresAtMillis;
+    private String reason;
+    private LocalDateTime timestamp;
+
+    public TokenRevokedEvent() {
+    }
+
+    public TokenRevokedEvent(String tokenId, String userId, long revokedAtMillis, long expiresAtMillis, String reason) {
+        this.tokenId = tokenId;
+        this.userId = userId;
+        this.revokedAtMillis = revokedAtMillis;
+        this.expiresAtMillis = expiresAtMillis;
+        this.reason = reason;
+        this.timestamp = LocalDateTime.now();
+    }
+
+    // Getters and Setters
+    public String getTokenId() {
+        return tokenId;
+    }
+
+    public void setTokenId(String tokenId) {
+        this.tokenId = tokenId;
+    }
+
+    public String getUserId() {
+        return userId;
+    }
+
+    public void setUserId(String userId) {
+        this.userId = userId;
+    }
+
+    public long getRevokedAtMillis() {
+        return revokedAtMillis;
+    }
+
+    public void setRevokedAtMillis(long revokedAtMillis) {
+        this.revokedAtMillis = revokedAtMillis;
+    }
+
+    public long getExpiresAtMillis() {
+        return expiresAtMillis;
+    }
+
+    public void setExpiresAtMillis(long expiresAtMillis) {
+        this.expiresAtMillis = expiresAtMillis;
+    }
+
+    public String getReason() {
+        return reason;
+    }
+
+    public void setReason(String reason) {
+        this.reason = reason;
+    }
+
+    public LocalDateTime getTimestamp() {
+        return timestamp;
+    }
+
+    public void setTimestamp(LocalDateTime timestamp) {
+        this.timestamp = timestamp;
+    }
+}
@@ -0,0 +1,94 @@
+package com.liveasy.common.http;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.function.Function;
+
+/**
+ * Weak entity tags derived from JPA version counters. Weak, because the same
+ * version can go out gzip-compressed or not and as a full or sparse body.
+ */
+public final class ETags {
+
+    private ETags() {
+    }
+
+    /**
+     * Tag for a single entity, or null if it has no version yet.
+     */
+    public static String of(Long version) {
+        return version == null ? null : "W/\"" + version + "\"";
+    }
+
+    /**
+     * Tag for a list: changes whenever membership, order or any item's
+     * version changes. Null if any item has no version.
+     */
+    public static <T> String ofList(Collection<T> items, Function<T, Object> id, Function<T, Long> version) {
+        MessageDigest digest = sha256();
+        for (T item : items) {
+            Long itemVersion = version.apply(item);
+            if (itemVersion == null) {
+                return null;
+            }
+            digest.update((id.apply(item) + ":" + itemVersion + ";").getBytes(StandardCharsets.UTF_8));
+        }
+        // 128 bits is plenty to tell list states apart
+        byte[] hash = new byte[16];
+        System.arraycopy(digest.digest(), 0, hash, 0, hash.length);
+        return "W/\"" + Base64.getUrlEncoder().withoutPadding().encodeToString(hash) + "\"";
+    }
+
+    /**
+     * Weak comparison against an If-None-Match header, which may be "*" or a
+     * comma-separated list of tags.
+     */
+    public static boolean matches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null || etag == null) {
+            return false;
+        }
+        String opaque = opaque(etag);
+        for (String candidate : ifNoneMatch.split(",")) {
+            String trimmed = candidate.trim();
+            if (trimmed.equals("*") || opaque(trimmed).equals(opaque)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Version carried by an If-Match header built from {@link #of(Long)}, or
+     * null if the header is absent or "*". Weak tags are accepted because the
+     * version alone decides whether the write is based on the current state.
+     */
+    public static Long version(String ifMatch) {
+        if (ifMatch == null || ifMatch.trim().equals("*")) {
+            return null;
+        }
+        String opaque = opaque(ifMatch.trim());
+        if (opaque.length() < 2 || !opaque.startsWith("\"") || !opaque.endsWith("\"")) {
+            throw new IllegalArgumentException("Malformed entity tag: " + ifMatch);
+        }
+        try {
+            return Long.parseLong(opaque.substring(1, opaque.length() - 1));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Entity tag is not a version: " + ifMatch);
+        }
+    }
+
+    private static String opaque(String etag) {
+        return etag.startsWith("W/") ? etag.substring(2) : etag;
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
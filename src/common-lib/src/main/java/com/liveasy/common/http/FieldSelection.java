@@ -0,0 +1,42 @@
+package com.liveasy.common.http;
+
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Parses a comma-separated {@code fields} parameter into the flat field names
+ * a projection query selects. {@code summary} expands to the entity's summary
+ * columns; id is always included.
+ */
+public final class FieldSelection {
+
+    public static final String SUMMARY = "summary";
+
+    private final List<String> allowed;
+    private final List<String> summaryFields;
+
+    public FieldSelection(List<String> allowed, List<String> summaryFields) {
+        this.allowed = allowed;
+        this.summaryFields = summaryFields;
+    }
+
+    public Set<String> parse(String fields) {
+        Set<String> parsed = new LinkedHashSet<>();
+        parsed.add("id");
+        for (String field : fields.split(",")) {
+            String name = field.trim();
+            if (name.isEmpty()) {
+                continue;
+            }
+            if (SUMMARY.equals(name)) {
+                parsed.addAll(summaryFields);
+            } else if (allowed.contains(name)) {
+                parsed.add(name);
+            } else {
+                throw new IllegalArgumentException("Unknown field: " + name + ", allowed: " + allowed);
+            }
+        }
+        return parsed;
+    }
+}
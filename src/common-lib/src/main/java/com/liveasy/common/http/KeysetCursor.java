@@ -0,0 +1,46 @@
+package com.liveasy.common.http;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.UUID;
+
+/**
+ * Opaque keyset cursor over (timestamp, id) for newest-first listings.
+ * Clients only ever see the base64url form and hand it back unchanged.
+ */
+public final class KeysetCursor {
+
+    private static final String SEPARATOR = "|";
+
+    private final LocalDateTime timestamp;
+    private final UUID id;
+
+    private KeysetCursor(LocalDateTime timestamp, UUID id) {
+        this.timestamp = timestamp;
+        this.id = id;
+    }
+
+    public static String encode(LocalDateTime timestamp, UUID id) {
+        String raw = timestamp.toString() + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static KeysetCursor decode(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int idx = raw.indexOf(SEPARATOR);
+            return new KeysetCursor(LocalDateTime.parse(raw.substring(0, idx)), UUID.fromString(raw.substring(idx + 1)));
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Invalid cursor: " + cursor);
+        }
+    }
+
+    public LocalDateTime getTimestamp() {
+        return timestamp;
+    }
+
+    public UUID getId() {
+        return id;
+    }
+}
@@ -0,0 +1,37 @@
+
+package com.liveasy.common.kafka;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.springframework.kafka.support.serializer.JsonSerializer;
+
+/**
+ * Producer configuration shared by every service that publishes events.
+ */
+public final class EventProducerSettings {
+
+    private EventProducerSettings() {
+    }
+
+    public static Map<String, Object> producerConfig(String bootstrapServers, ProducerProfile profile) {
+        Map<String, Object> configProps = new HashMap<>();
+        configProps.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
+        configProps.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
+        configProps.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, JsonSerializer.class);
+
+        // Idempotent delivery keeps per-partition order across retries
+        configProps.put(ProducerConfig.ENABLE_IDEMPOTENCE_CONFIG, true);
+        configProps.put(ProducerConfig.ACKS_CONFIG, "all");
+        configProps.put(ProducerConfig.MAX_IN_FLIGHT_REQUESTS_PER_CONNECTION, 5);
+        configProps.put(ProducerConfig.RETRIES_CONFIG, Integer.MAX_VALUE);
+        configProps.put(ProducerConfig.DELIVERY_TIMEOUT_MS_CONFIG, 120000);
+
+        configProps.put(ProducerConfig.LINGER_MS_CONFIG, profile.getLingerMs());
+        configProps.put(ProducerConfig.BATCH_SIZE_CONFIG, profile.getBatchSize());
+        configProps.put(ProducerConfig.COMPRESSION_TYPE_CONFIG, profile.getCompressionType());
+        return configProps;
+    }
+}
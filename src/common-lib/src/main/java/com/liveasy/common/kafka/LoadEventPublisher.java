@@ -0,0 +1,73 @@
+
+package com.liveasy.common.kafka;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
+
+import com.liveasy.common.events.LoadStatusChangedEvent;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Publishes load events keyed by loadId, so every event for a load lands on the
+ * same partition and keeps its order however many partitions the topic has.
+ * Completion is asynchronous; latency and failures are recorded per topic.
+ */
+public class LoadEventPublisher {
+
+    private static final Logger logger = LoggerFactory.getLogger(LoadEventPublisher.class);
+
+    private final KafkaTemplate<String, LoadStatusChangedEvent> kafkaTemplate;
+    private final MeterRegistry meterRegistry;
+
+    private final ConcurrentMap<String, Timer> sendTimers = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, Counter> sendFailures = new ConcurrentHashMap<>();
+
+    public LoadEventPublisher(KafkaTemplate<String, LoadStatusChangedEvent> kafkaTemplate, MeterRegistry meterRegistry) {
+        this.kafkaTemplate = kafkaTemplate;
+        this.meterRegistry = meterRegistry;
+    }
+
+    public CompletableFuture<SendResult<String, LoadStatusChangedEvent>> publish(String topic,
+            LoadStatusChangedEvent event) {
+        return publish(topic, event.getLoadId().toString(), event);
+    }
+
+    public CompletableFuture<SendResult<String, LoadStatusChangedEvent>> publish(String topic, String key,
+            LoadStatusChangedEvent event) {
+        long start = System.nanoTime();
+        return kafkaTemplate.send(topic, key, event).completable().whenComplete((result, ex) -> {
+            sendTimer(topic).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            if (ex != null) {
+                sendFailure(topic).increment();
+                logger.error("Failed to publish event for load {} to {}: {}", key, topic, ex.getMessage());
+            }
+        });
+    }
+
+    public void flush() {
+        kafkaTemplate.flush();
+    }
+
+    private Timer sendTimer(String topic) {
+        return sendTimers.computeIfAbsent(topic, t -> Timer.builder("kafka.producer.send")
+                .tag("topic", t)
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry));
+    }
+
+    private Counter sendFailure(String topic) {
+        return sendFailures.computeIfAbsent(topic, t -> Counter.builder("kafka.producer.send.failures")
+                .tag("topic", t)
+                .register(meterRegistry));
+    }
+}
@@ -0,0 +1,34 @@
+
+package com.liveasy.common.kafka;
+
+/**
+ * Producer batching presets. LOW_LATENCY sends immediately, THROUGHPUT waits
+ * longer to fill bigger compressed batches (outbox relay, bulk posting).
+ */
+public enum ProducerProfile {
+    LOW_LATENCY(0, 16 * 1024, "none"),
+    BALANCED(5, 64 * 1024, "lz4"),
+    THROUGHPUT(20, 256 * 1024, "zstd");
+
+    private final int lingerMs;
+    private final int batchSize;
+    private final String compressionType;
+
+    ProducerProfile(int lingerMs, int batchSize, String compressionType) {
+        this.lingerMs = lingerMs;
+        this.batchSize = batchSize;
+        this.compressionType = compressionType;
+    }
+
+    public int getLingerMs() {
+        return lingerMs;
+    }
+
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    public String getCompressionType() {
+        return compressionType;
+    }
+}
@@ -0,0 +1,36 @@
+
+package com.liveasy.common.outbox;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+@Repository
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, Long> {
+    @Query("SELECT e FROM OutboxEvent e ORDER BY e.id")
+    List<OutboxEvent> findNextBatch(Pageable pageable);
+
+    @Query("SELECT MIN(e.createdAt) FROM OutboxEvent e")
+    LocalDateTime findOldestCreatedAt();
+
+    // Takes or renews the single relay lease; 1 if this owner holds it afterwards
+    @Transactional
+    @Modifying
+    @Query(value = "UPDATE outbox_relay_lease SET owner = :owner, "
+            + "expires_at = now() + CAST(:leaseMs AS bigint) * interval '1 millisecond' "
+            + "WHERE id = 1 AND (owner = :owner OR expires_at < now())", nativeQuery = true)
+    int acquireRelayLease(@Param("owner") String owner, @Param("leaseMs") long leaseMs);
+
+    @Transactional
+    @Modifying
+    @Query(value = "UPDATE outbox_relay_lease SET owner = NULL, expires_at = now() "
+            + "WHERE id = 1 AND owner = :owner", nativeQuery = true)
+    int releaseRelayLease(@Param("owner") String owner);
+}
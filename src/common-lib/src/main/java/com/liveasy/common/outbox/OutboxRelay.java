@@ -0,0 +1,172 @@
+
+package com.liveasy.common.outbox;
+
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.liveasy.common.events.LoadStatusChangedEvent;
+import com.liveasy.common.kafka.LoadEventPublisher;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import javax.annotation.PreDestroy;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Drains the outbox table to Kafka in batches, oldest first. Events of one
+ * aggregate (the record key) are sent one at a time, each only after the one
+ * before it was acked; the first failure stops that key for the cycle and
+ * leaves the rest of its events in the table. Other keys carry on.
+ *
+ * <p>Delivery is at least once. An event whose ack was lost is re-sent, so
+ * consumers see duplicates, and a node that loses its lease mid-batch can
+ * re-send events the new holder has already sent after them. Consumers must
+ * tolerate repeats and stale events; there is no ordering across keys.
+ *
+ * <p>No transaction is open while sends are in flight: the batch is read and
+ * committed, sent, then deleted in a second short transaction. A lease row
+ * (outbox_relay_lease) rather than a transaction-scoped lock keeps a single
+ * node relaying; it must outlive a batch's sends, so lease-ms should exceed
+ * send-timeout-ms. A node that loses it mid-batch only causes re-sends.
+ */
+public class OutboxRelay {
+
+    private static final Logger logger = LoggerFactory.getLogger(OutboxRelay.class);
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final LoadEventPublisher loadEventPublisher;
+    private final ObjectMapper objectMapper;
+    private final int batchSize;
+    private final long sendTimeoutMs;
+    private final long leaseMs;
+
+    private final String owner = UUID.randomUUID().toString();
+    private final AtomicLong lagMillis = new AtomicLong();
+
+    private final Counter published;
+    private final Counter failed;
+    private final Timer batchTimer;
+
+    public OutboxRelay(OutboxEventRepository outboxEventRepository, LoadEventPublisher loadEventPublisher,
+            ObjectMapper objectMapper, MeterRegistry meterRegistry, int batchSize, long sendTimeoutMs, long leaseMs) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.loadEventPublisher = loadEventPublisher;
+        this.objectMapper = objectMapper;
+        this.batchSize = batchSize;
+        this.sendTimeoutMs = sendTimeoutMs;
+        this.leaseMs = leaseMs;
+
+        Gauge.builder("outbox.lag.seconds", lagMillis, lag -> lag.get() / 1000.0)
+                .description("Age of the oldest unpublished outbox event")
+                .register(meterRegistry);
+        published = Counter.builder("outbox.events").tag("result", "published").register(meterRegistry);
+        failed = Counter.builder("outbox.events").tag("result", "failed").register(meterRegistry);
+        batchTimer = Timer.builder("outbox.relay.batch").register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${outbox.relay.interval-ms:200}")
+    public void relay() {
+        if (outboxEventRepository.acquireRelayLease(owner, leaseMs) == 0) {
+            return;
+        }
+
+        LocalDateTime oldest = outboxEventRepository.findOldestCreatedAt();
+        lagMillis.set(oldest == null ? 0 : Math.max(0, Duration.between(oldest, LocalDateTime.now()).toMillis()));
+        if (oldest == null) {
+            return;
+        }
+
+        List<OutboxEvent> batch = outboxEventRepository.findNextBatch(PageRequest.of(0, batchSize));
+        long start = System.nanoTime();
+
+        // Each key's events in created order
+        Map<String, Deque<OutboxEvent>> byKey = new LinkedHashMap<>();
+        for (OutboxEvent event : batch) {
+            byKey.computeIfAbsent(event.getAggregateId(), key -> new ArrayDeque<>()).add(event);
+        }
+
+        // One round sends the next event of every key still going, so a batch
+        // takes as many round trips as its busiest key has events
+        List<OutboxEvent> done = new ArrayList<>(batch.size());
+        int sent = 0;
+        while (!byKey.isEmpty()) {
+            // null marks an unreadable row: deleted with the batch, counted once as failed
+            List<OutboxEvent> round = new ArrayList<>(byKey.size());
+            List<CompletableFuture<?>> sends = new ArrayList<>(byKey.size());
+            for (Deque<OutboxEvent> events : byKey.values()) {
+                OutboxEvent event = events.poll();
+                round.add(event);
+                sends.add(send(event));
+            }
+            // The whole round is queued; don't wait out linger.ms before it leaves
+            loadEventPublisher.flush();
+
+            for (int i = 0; i < round.size(); i++) {
+                OutboxEvent event = round.get(i);
+                CompletableFuture<?> send = sends.get(i);
+                if (send != null) {
+                    try {
+                        send.get(sendTimeoutMs, TimeUnit.MILLISECONDS);
+                        sent++;
+                    } catch (Exception e) {
+                        // This key's remaining events stay behind it for the next cycle
+                        logger.warn("Outbox relay stopped key {} at event {}: {}", event.getAggregateId(),
+                                event.getId(), e.getMessage());
+                        failed.increment();
+                        byKey.remove(event.getAggregateId());
+                        continue;
+                    }
+                }
+                done.add(event);
+            }
+            byKey.values().removeIf(Deque::isEmpty);
+        }
+
+        outboxEventRepository.deleteAllInBatch(done);
+        published.increment(sent);
+        batchTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+    }
+
+    private CompletableFuture<?> send(OutboxEvent event) {
+        LoadStatusChangedEvent payload;
+        try {
+            payload = objectMapper.readValue(event.getPayload(), LoadStatusChangedEvent.class);
+        } catch (JsonProcessingException e) {
+            // Retrying cannot fix an unreadable row, so drop it rather than block the outbox
+            logger.error("Dropping unreadable outbox event {}: {}", event.getId(), e.getMessage());
+            failed.increment();
+            return null;
+        }
+        return loadEventPublisher.publish(event.getTopic(), event.getAggregateId(), payload);
+    }
+
+    // Lets another node take over now instead of after the lease expires
+    @PreDestroy
+    public void releaseLease() {
+        try {
+            outboxEventRepository.releaseRelayLease(owner);
+        } catch (Exception e) {
+            logger.warn("Could not release outbox relay lease: {}", e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,34 @@
+
+package com.liveasy.common.outbox;
+
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.liveasy.common.events.LoadStatusChangedEvent;
+
+/**
+ * Records events in the outbox table as part of the caller's transaction;
+ * {@link OutboxRelay} publishes them to Kafka after commit.
+ */
+public class OutboxService {
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final ObjectMapper objectMapper;
+
+    public OutboxService(OutboxEventRepository outboxEventRepository, ObjectMapper objectMapper) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.objectMapper = objectMapper;
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void enqueue(String topic, LoadStatusChangedEvent event) {
+        try {
+            outboxEventRepository.save(new OutboxEvent(topic, event.getLoadId().toString(),
+                    objectMapper.writeValueAsString(event)));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize event for load " + event.getLoadId(), e);
+        }
+    }
+}
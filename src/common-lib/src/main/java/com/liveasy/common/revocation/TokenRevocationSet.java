@@ -0,0 +1,130 @@
+
+package com.liveasy.common.revocation;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import com.liveasy.common.events.TokenRevokedEvent;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Revoked tokens and users, checked on every authenticated request without I/O.
+ * A Bloom filter answers the common case ("never revoked") in a few memory
+ * reads; only its positives consult the exact maps. Filters can't delete, so
+ * there are two generations, swapped once per token lifetime: an entry lives
+ * at most one lifetime, so it is always in the current or the previous one.
+ */
+public class TokenRevocationSet {
+
+    /** Millisecond issue time; iat has second precision, too coarse to order against a revocation. */
+    public static final String ISSUED_AT_MILLIS_CLAIM = "iat_ms";
+
+    private static final String TOKEN = "t:";
+    private static final String USER = "u:";
+
+    private final long expectedInsertions;
+    private final double falsePositiveRate;
+
+    // tokenId -> token expiry
+    private final ConcurrentMap<String, Long> revokedTokens = new ConcurrentHashMap<>();
+    // userId -> tokens issued before this instant are revoked
+    private final ConcurrentMap<String, UserRevocation> revokedUsers = new ConcurrentHashMap<>();
+
+    private volatile BloomFilter current;
+    private volatile BloomFilter previous;
+
+    private final Counter filterPositives;
+    private final Counter falsePositives;
+
+    public TokenRevocationSet(long expectedInsertions, double falsePositiveRate, MeterRegistry meterRegistry,
+            String metricPrefix) {
+        this.expectedInsertions = expectedInsertions;
+        this.falsePositiveRate = falsePositiveRate;
+        this.current = new BloomFilter(expectedInsertions, falsePositiveRate);
+        this.previous = new BloomFilter(expectedInsertions, falsePositiveRate);
+        Gauge.builder(metricPrefix + ".entries", this, TokenRevocationSet::size).register(meterRegistry);
+        this.filterPositives = Counter.builder(metricPrefix + ".filter.positives").register(meterRegistry);
+        this.falsePositives = Counter.builder(metricPrefix + ".filter.false_positives").register(meterRegistry);
+    }
+
+    public void apply(TokenRevokedEvent event) {
+        if (event.getExpiresAtMillis() <= System.currentTimeMillis()) {
+            return;
+        }
+        if (event.getTokenId() != null) {
+            revokedTokens.put(event.getTokenId(), event.getExpiresAtMillis());
+            current.add(TOKEN + event.getTokenId());
+        } else if (event.getUserId() != null) {
+            revokedUsers.merge(event.getUserId(),
+                    new UserRevocation(event.getRevokedAtMillis(), event.getExpiresAtMillis()), UserRevocation::latest);
+            current.add(USER + event.getUserId());
+        }
+    }
+
+    /**
+     * A user-wide revocation covers tokens issued strictly before it, so a
+     * login right after "sign out everywhere" keeps its new token.
+     */
+    public boolean isRevoked(String tokenId, String userId, long issuedAtMillis) {
+        boolean tokenMaybe = tokenId != null && mightContain(TOKEN + tokenId);
+        boolean userMaybe = userId != null && mightContain(USER + userId);
+        if (!tokenMaybe && !userMaybe) {
+            return false;
+        }
+
+        filterPositives.increment();
+        if (tokenMaybe && revokedTokens.containsKey(tokenId)) {
+            return true;
+        }
+        if (userMaybe) {
+            UserRevocation revocation = revokedUsers.get(userId);
+            if (revocation != null && issuedAtMillis < revocation.revokedAtMillis) {
+                return true;
+            }
+        }
+        falsePositives.increment();
+        return false;
+    }
+
+    private boolean mightContain(String key) {
+        return current.mightContain(key) || previous.mightContain(key);
+    }
+
+    // Call once per token lifetime
+    public void rotate() {
+        long now = System.currentTimeMillis();
+        revokedTokens.values().removeIf(expiresAt -> expiresAt <= now);
+        revokedUsers.values().removeIf(revocation -> revocation.expiresAtMillis <= now);
+        previous = current;
+        current = new BloomFilter(expectedInsertions, falsePositiveRate);
+    }
+
+    public int revokedTokenCount() {
+        return revokedTokens.size();
+    }
+
+    public int revokedUserCount() {
+        return revokedUsers.size();
+    }
+
+    public int size() {
+        return revokedTokens.size() + revokedUsers.size();
+    }
+
+    private static final class UserRevocation {
+        final long revokedAtMillis;
+        final long expiresAtMillis;
+
+        UserRevocation(long revokedAtMillis, long expiresAtMillis) {
+            this.revokedAtMillis = revokedAtMillis;
+            this.expiresAtMillis = expiresAtMillis;
+        }
+
+        static UserRevocation latest(UserRevocation a, UserRevocation b) {
+            return a.revokedAtMillis >= b.revokedAtMillis ? a : b;
+        }
+    }
+}
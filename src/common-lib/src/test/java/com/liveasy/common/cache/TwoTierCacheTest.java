@@ -0,0 +1,83 @@
+
+package com.liveasy.common.cache;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.Cache;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.data.redis.core.script.RedisScript;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class TwoTierCacheTest {
+
+    // Stands in for Redis string keys: the load leases
+    private final Map<String, String> redis = new ConcurrentHashMap<>();
+
+    private Cache cache;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void createCache() {
+        StringRedisTemplate redisTemplate = mock(StringRedisTemplate.class);
+        ValueOperations<String, String> values = mock(ValueOperations.class);
+        when(redisTemplate.opsForValue()).thenReturn(values);
+        when(values.setIfAbsent(anyString(), anyString(), any(Duration.class)))
+                .thenAnswer(call -> redis.putIfAbsent(call.getArgument(0), call.getArgument(1)) == null);
+        when(values.get(anyString())).thenAnswer(call -> redis.get(call.<String>getArgument(0)));
+        // RELEASE_LEASE passes the holder; FAIL_LEASE the holder, marker and marker ttl
+        when(redisTemplate.execute(any(RedisScript.class), anyList(), any(Object[].class))).thenAnswer(call -> {
+            String key = call.<List<String>>getArgument(1).get(0);
+            Object[] args = call.getArguments();
+            String holder = (String) args[2];
+            boolean held = holder.equals(redis.get(key));
+            if (held && args.length > 3) {
+                redis.put(key, (String) args[3]);
+            } else if (held) {
+                redis.remove(key);
+            }
+            return held ? 1L : 0L;
+        });
+
+        TwoTierCacheManager manager = new TwoTierCacheManager(new ConcurrentMapCacheManager(), redisTemplate,
+                new SimpleMeterRegistry(), 100, Duration.ofMinutes(1));
+        manager.setLoadLease(Duration.ofMillis(500));
+        cache = manager.getCache("loads");
+    }
+
+    @Test
+    void missAfterAFailedLoadRunsItsOwnLoader() {
+        AtomicInteger calls = new AtomicInteger();
+        Callable<Object> notFound = () -> {
+            calls.incrementAndGet();
+            throw new IllegalArgumentException("Load not found");
+        };
+
+        // The second miss lands while the first one's failure marker is still in Redis
+        Throwable first = catchThrowable(() -> cache.get("unknown-id", notFound));
+        Throwable second = catchThrowable(() -> cache.get("unknown-id", notFound));
+
+        assertThat(first).isInstanceOf(Cache.ValueRetrievalException.class)
+                .hasCauseInstanceOf(IllegalArgumentException.class);
+        assertThat(second).isInstanceOf(Cache.ValueRetrievalException.class)
+                .hasCauseInstanceOf(IllegalArgumentException.class);
+        assertThat(calls).hasValue(2);
+    }
+}
@@ -0,0 +1,79 @@
+
+package com.liveasy.common.outbox;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.domain.Pageable;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.liveasy.common.events.LoadStatusChangedEvent;
+import com.liveasy.common.kafka.LoadEventPublisher;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class OutboxRelayTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void failedSendStopsOnlyItsKey() throws Exception {
+        UUID first = UUID.randomUUID();
+        UUID second = UUID.randomUUID();
+        OutboxEvent firstPosted = event(1, first, "POSTED");
+        OutboxEvent secondPosted = event(2, second, "POSTED");
+        OutboxEvent firstBooked = event(3, first, "BOOKED");
+        OutboxEvent secondBooked = event(4, second, "BOOKED");
+
+        OutboxEventRepository repository = mock(OutboxEventRepository.class);
+        when(repository.acquireRelayLease(anyString(), anyLong())).thenReturn(1);
+        when(repository.findOldestCreatedAt()).thenReturn(LocalDateTime.now());
+        when(repository.findNextBatch(any(Pageable.class)))
+                .thenReturn(Arrays.asList(firstPosted, secondPosted, firstBooked, secondBooked));
+
+        // The first load's first event fails; everything else is acked
+        List<String> published = new ArrayList<>();
+        LoadEventPublisher publisher = mock(LoadEventPublisher.class);
+        when(publisher.publish(anyString(), anyString(), any(LoadStatusChangedEvent.class))).thenAnswer(call -> {
+            LoadStatusChangedEvent payload = call.getArgument(2);
+            published.add(call.getArgument(1) + ":" + payload.getStatus());
+            if (payload.getLoadId().equals(first) && payload.getStatus().equals("POSTED")) {
+                CompletableFuture<Object> failure = new CompletableFuture<>();
+                failure.completeExceptionally(new IllegalStateException("broker down"));
+                return failure;
+            }
+            return CompletableFuture.completedFuture(null);
+        });
+
+        new OutboxRelay(repository, publisher, objectMapper, new SimpleMeterRegistry(), 10, 1000, 5000).relay();
+
+        // Nothing of the first load is sent after its failure, so it can't overtake the retry
+        assertThat(published).containsExactly(first + ":POSTED", second + ":POSTED", second + ":BOOKED");
+        ArgumentCaptor<List<OutboxEvent>> deleted = ArgumentCaptor.forClass(List.class);
+        verify(repository).deleteAllInBatch(deleted.capture());
+        assertThat(deleted.getValue()).containsExactly(secondPosted, secondBooked);
+    }
+
+    private OutboxEvent event(long id, UUID loadId, String status) throws Exception {
+        OutboxEvent event = new OutboxEvent("load-status-changes", loadId.toString(),
+                objectMapper.writeValueAsString(new LoadStatusChangedEvent(loadId, status)));
+        event.setId(id);
+        return event;
+    }
+}
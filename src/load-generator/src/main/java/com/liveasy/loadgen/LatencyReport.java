@@ -0,0 +1,109 @@
+
+package com.liveasy.loadgen;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Per-operation latency histograms and error counts. Latency is measured from
+ * each request's intended start, so queueing delay isn't hidden
+ * (no coordinated omission).
+ */
+public class LatencyReport {
+
+    private static final long HIGHEST_TRACKABLE_NANOS = TimeUnit.MINUTES.toNanos(2);
+
+    private final Map<Operation, Recorder> recorders = new EnumMap<>(Operation.class);
+    private final Map<Operation, AtomicLong> errors = new EnumMap<>(Operation.class);
+    private final Map<Operation, Histogram> totals = new EnumMap<>(Operation.class);
+    private final AtomicLong dropped = new AtomicLong();
+
+    public LatencyReport() {
+        for (Operation operation : Operation.values()) {
+            recorders.put(operation, new Recorder(HIGHEST_TRACKABLE_NANOS, 3));
+            errors.put(operation, new AtomicLong());
+            totals.put(operation, new Histogram(HIGHEST_TRACKABLE_NANOS, 3));
+        }
+    }
+
+    public void recordSuccess(Operation operation, long latencyNanos) {
+        recorders.get(operation).recordValue(Math.min(latencyNanos, HIGHEST_TRACKABLE_NANOS));
+    }
+
+    public void recordError(Operation operation, long latencyNanos) {
+        errors.get(operation).incrementAndGet();
+        recordSuccess(operation, latencyNanos);
+    }
+
+    public void recordDropped() {
+        dropped.incrementAndGet();
+    }
+
+    // Discard what was recorded during warm-up
+    public void reset() {
+        for (Operation operation : Operation.values()) {
+            recorders.get(operation).reset();
+            errors.get(operation).set(0);
+            totals.get(operation).reset();
+        }
+        dropped.set(0);
+    }
+
+    public Map<String, Object> summarize(long elapsedNanos) {
+        double seconds = elapsedNanos / 1e9;
+        Map<String, Object> summary = new LinkedHashMap<>();
+        for (Operation operation : Operation.values()) {
+            Histogram histogram = totals.get(operation);
+            histogram.add(recorders.get(operation).getIntervalHistogram());
+            if (histogram.getTotalCount() == 0) {
+                continue;
+            }
+            Map<String, Object> row = new LinkedHashMap<>();
+            row.put("count", histogram.getTotalCount());
+            row.put("errors", errors.get(operation).get());
+            row.put("throughputPerSec", histogram.getTotalCount() / seconds);
+            row.put("p50Ms", millis(histogram.getValueAtPercentile(50)));
+            row.put("p99Ms", millis(histogram.getValueAtPercentile(99)));
+            row.put("p999Ms", millis(histogram.getValueAtPercentile(99.9)));
+            row.put("maxMs", millis(histogram.getMaxValue()));
+            summary.put(operation.label(), row);
+        }
+        summary.put("droppedRequests", dropped.get());
+        return summary;
+    }
+
+    @SuppressWarnings("unchecked")
+    public void print(Map<String, Object> summary) {
+        System.out.printf("%-28s %9s %7s %10s %9s %9s %9s %9s%n",
+                "endpoint", "count", "errors", "req/s", "p50 ms", "p99 ms", "p999 ms", "max ms");
+        for (Map.Entry<String, Object> entry : summary.entrySet()) {
+            if (!(entry.getValue() instanceof Map)) {
+                continue;
+            }
+            Map<String, Object> row = (Map<String, Object>) entry.getValue();
+            System.out.printf("%-28s %9d %7d %10.1f %9.2f %9.2f %9.2f %9.2f%n", entry.getKey(),
+                    row.get("count"), row.get("errors"), row.get("throughputPerSec"),
+                    row.get("p50Ms"), row.get("p99Ms"), row.get("p999Ms"), row.get("maxMs"));
+        }
+        System.out.println("dropped (in-flight cap reached): " + summary.get("droppedRequests"));
+    }
+
+    public void write(Map<String, Object> summary, File file, ObjectMapper objectMapper) throws IOException {
+        file.getParentFile().mkdirs();
+        objectMapper.writerWithDefaultPrettyPrinter().writeValue(file, summary);
+    }
+
+    private static double millis(long nanos) {
+        return nanos / 1e6;
+    }
+}
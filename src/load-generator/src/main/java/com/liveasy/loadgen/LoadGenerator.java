@@ -0,0 +1,91 @@
+
+package com.liveasy.loadgen;
+
+import java.io.File;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.HashMap;
+import java.util.Map;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Drives a traffic mix against load-service and booking-service and reports
+ * throughput and p50/p99/p999 latency per endpoint.
+ *
+ * <pre>
+ * --mix=LOAD_BOARD|BID_STORM|SINGLE_POST|BULK_POST   (default LOAD_BOARD)
+ * --rate=200            requests per second
+ * --duration=60         measured seconds
+ * --warmup=15           warm-up seconds, not reported
+ * --seed-loads=2000     loads posted before the run
+ * --target=local        boot services against embedded stand-ins, or
+ * --execution-mode=platform|virtual   request threading of the locally booted services
+ * --load-url=... --booking-url=...   to drive an existing deployment
+ * </pre>
+ */
+public class LoadGenerator {
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = parse(args);
+        TrafficMix mix = TrafficMix.valueOf(options.getOrDefault("mix", "LOAD_BOARD"));
+        double rate = Double.parseDouble(options.getOrDefault("rate", "200"));
+        Duration duration = Duration.ofSeconds(Long.parseLong(options.getOrDefault("duration", "60")));
+        Duration warmup = Duration.ofSeconds(Long.parseLong(options.getOrDefault("warmup", "15")));
+        int seedLoads = Integer.parseInt(options.getOrDefault("seed-loads", "2000"));
+
+        LocalEnvironment environment = null;
+        String loadUrl = options.get("load-url");
+        String bookingUrl = options.get("booking-url");
+        if ("local".equals(options.getOrDefault("target", "local")) && loadUrl == null) {
+            environment = new LocalEnvironment(18082, 18083, options.getOrDefault("execution-mode", "platform"));
+            environment.start();
+            loadUrl = environment.loadServiceUrl();
+            bookingUrl = environment.bookingServiceUrl();
+        }
+
+        try {
+            ObjectMapper objectMapper = new ObjectMapper();
+            Workload workload = new Workload(objectMapper);
+            LatencyReport report = new LatencyReport();
+            OpenLoopDriver driver = new OpenLoopDriver(loadUrl, bookingUrl, workload, report, objectMapper);
+
+            // Give list and bid traffic something to hit
+            for (int i = 0; i < seedLoads; i += Operation.BULK_SIZE) {
+                driver.fire(Operation.BULK_POST_LOADS, System.nanoTime());
+            }
+            driver.awaitIdle();
+
+            driver.run(mix, rate, warmup);
+            report.reset();
+            long elapsed = driver.run(mix, rate, duration);
+
+            Map<String, Object> summary = report.summarize(elapsed);
+            summary.put("mix", mix.name());
+            summary.put("targetRatePerSec", rate);
+            summary.put("executionMode", options.getOrDefault("execution-mode", "platform"));
+            report.print(summary);
+
+            String timestamp = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss"));
+            File resultFile = new File("loadgen-results", mix.name().toLowerCase() + "-" + timestamp + ".json");
+            report.write(summary, resultFile, objectMapper);
+            System.out.println("Results written to " + resultFile.getPath());
+        } finally {
+            if (environment != null) {
+                environment.close();
+            }
+        }
+    }
+
+    private static Map<String, String> parse(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            if (arg.startsWith("--") && arg.contains("=")) {
+                int idx = arg.indexOf('=');
+                options.put(arg.substring(2, idx), arg.substring(idx + 1));
+            }
+        }
+        return options;
+    }
+}
@@ -0,0 +1,138 @@
+
+package com.liveasy.loadgen;
+
+import java.sql.Connection;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.kafka.test.EmbeddedKafkaBroker;
+
+import com.liveasy.booking.BookingServiceApplication;
+import com.liveasy.load.LoadServiceApplication;
+
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import redis.embedded.RedisServer;
+
+/**
+ * Boots load-service and booking-service in-process against local stand-ins:
+ * an embedded Kafka broker, an embedded Redis server and an embedded Postgres
+ * (real Postgres, since the services rely on its native queries). Eureka is
+ * replaced by Spring Cloud's simple discovery client.
+ */
+public class LocalEnvironment implements AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(LocalEnvironment.class);
+
+    private static final String[] TOPICS = {"load-status-changes", "booking-events"};
+    private static final int PARTITIONS = 12;
+
+    private final int loadServicePort;
+    private final int bookingServicePort;
+    private final String executionMode;
+
+    private EmbeddedKafkaBroker kafka;
+    private RedisServer redis;
+    private EmbeddedPostgres postgres;
+    private final List<ConfigurableApplicationContext> services = new ArrayList<>();
+
+    public LocalEnvironment(int loadServicePort, int bookingServicePort, String executionMode) {
+        this.loadServicePort = loadServicePort;
+        this.bookingServicePort = bookingServicePort;
+        this.executionMode = executionMode;
+    }
+
+    public void start() throws Exception {
+        logger.info("Starting embedded Kafka, Redis and Postgres");
+        kafka = new EmbeddedKafkaBroker(1, false, PARTITIONS, TOPICS);
+        kafka.afterPropertiesSet();
+
+        int redisPort = 16379;
+        redis = new RedisServer(redisPort);
+        redis.start();
+
+        postgres = EmbeddedPostgres.builder().start();
+        try (Connection connection = postgres.getPostgresDatabase().getConnection();
+                Statement statement = connection.createStatement()) {
+            statement.execute("CREATE DATABASE liveasy_load");
+            statement.execute("CREATE DATABASE liveasy_booking");
+        }
+
+        // Command-line args outrank every config file, so nothing in the services' yml can point them
+        // back at the real localhost:5432/6379/9092
+        services.add(new SpringApplicationBuilder(LoadServiceApplication.class)
+                .run(args(redisPort,
+                        "spring.config.name=" + LoadServiceApplication.CONFIG_NAME,
+                        "server.port=" + loadServicePort,
+                        "spring.datasource.url=" + jdbcUrl("liveasy_load") + "?reWriteBatchedInserts=true",
+                        "spring.flyway.locations=classpath:db/migration/load")));
+
+        services.add(new SpringApplicationBuilder(BookingServiceApplication.class)
+                .run(args(redisPort,
+                        "spring.config.name=" + BookingServiceApplication.CONFIG_NAME,
+                        "server.port=" + bookingServicePort,
+                        "spring.datasource.url=" + jdbcUrl("liveasy_booking"),
+                        "spring.flyway.locations=classpath:db/migration/booking",
+                        "spring.cloud.discovery.client.simple.instances.load-service[0].uri=" + loadServiceUrl())));
+
+        logger.info("Local environment ready: load-service {}, booking-service {}", loadServiceUrl(), bookingServiceUrl());
+    }
+
+    private String[] args(int redisPort, String... serviceProperties) {
+        List<String> args = new ArrayList<>();
+        for (String property : commonProperties(redisPort)) {
+            args.add("--" + property);
+        }
+        for (String property : serviceProperties) {
+            args.add("--" + property);
+        }
+        return args.toArray(new String[0]);
+    }
+
+    private String[] commonProperties(int redisPort) {
+        return new String[] {
+            "spring.datasource.username=postgres",
+            "spring.datasource.password=postgres",
+            "spring.jpa.show-sql=false",
+            "spring.kafka.bootstrap-servers=" + kafka.getBrokersAsString(),
+            "spring.redis.host=localhost",
+            "spring.redis.port=" + redisPort,
+            "spring.zipkin.enabled=false",
+            "eureka.client.enabled=false",
+            "execution.mode=" + executionMode,
+            "logging.level.com.liveasy=WARN"
+        };
+    }
+
+    private String jdbcUrl(String database) {
+        return "jdbc:postgresql://localhost:" + postgres.getPort() + "/" + database;
+    }
+
+    public String loadServiceUrl() {
+        return "http://localhost:" + loadServicePort;
+    }
+
+    public String bookingServiceUrl() {
+        return "http://localhost:" + bookingServicePort;
+    }
+
+    @Override
+    public void close() throws Exception {
+        for (int i = services.size() - 1; i >= 0; i--) {
+            services.get(i).close();
+        }
+        if (postgres != null) {
+            postgres.close();
+        }
+        if (redis != null) {
+            redis.stop();
+        }
+        if (kafka != null) {
+            kafka.destroy();
+        }
+    }
+}
@@ -0,0 +1,100 @@
+
+package com.liveasy.loadgen;
+
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.locks.LockSupport;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Open-model traffic: requests arrive as a Poisson process at the target rate
+ * whether or not earlier ones have completed, the way independent users do.
+ */
+public class OpenLoopDriver {
+
+    private static final Logger logger = LoggerFactory.getLogger(OpenLoopDriver.class);
+
+    private static final int MAX_IN_FLIGHT = 10_000;
+
+    private final HttpClient httpClient = HttpClient.newBuilder()
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+
+    private final String loadUrl;
+    private final String bookingUrl;
+    private final Workload workload;
+    private final LatencyReport report;
+    private final ObjectMapper objectMapper;
+    private final Semaphore inFlight = new Semaphore(MAX_IN_FLIGHT);
+
+    public OpenLoopDriver(String loadUrl, String bookingUrl, Workload workload, LatencyReport report,
+            ObjectMapper objectMapper) {
+        this.loadUrl = loadUrl;
+        this.bookingUrl = bookingUrl;
+        this.workload = workload;
+        this.report = report;
+        this.objectMapper = objectMapper;
+    }
+
+    public long run(TrafficMix mix, double ratePerSecond, Duration duration) {
+        logger.info("Driving {} at {} req/s for {}", mix, ratePerSecond, duration);
+        double meanIntervalNanos = 1e9 / ratePerSecond;
+        long start = System.nanoTime();
+        long end = start + duration.toNanos();
+        long intended = start;
+
+        while (intended < end) {
+            // Exponential inter-arrival times give a Poisson arrival process
+            intended += (long) (-Math.log(1 - ThreadLocalRandom.current().nextDouble()) * meanIntervalNanos);
+            long wait = intended - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            fire(mix.next(), intended);
+        }
+
+        // Let in-flight requests finish so their latency is counted
+        awaitIdle();
+        return System.nanoTime() - start;
+    }
+
+    public void awaitIdle() {
+        inFlight.acquireUninterruptibly(MAX_IN_FLIGHT);
+        inFlight.release(MAX_IN_FLIGHT);
+    }
+
+    public void fire(Operation operation, long intendedStartNanos) {
+        HttpRequest request = operation.request(loadUrl, bookingUrl, workload);
+        if (request == null) {
+            return;
+        }
+        if (!inFlight.tryAcquire()) {
+            report.recordDropped();
+            return;
+        }
+
+        httpClient.sendAsync(request, HttpResponse.BodyHandlers.ofString()).whenComplete((response, ex) -> {
+            long latency = System.nanoTime() - intendedStartNanos;
+            try {
+                if (ex != null || response.statusCode() >= 400) {
+                    report.recordError(operation, latency);
+                    return;
+                }
+                report.recordSuccess(operation, latency);
+                operation.onSuccess(objectMapper.readTree(response.body()), workload);
+            } catch (Exception e) {
+                logger.debug("Could not read {} response: {}", operation, e.getMessage());
+            } finally {
+                inFlight.release();
+            }
+        });
+    }
+}
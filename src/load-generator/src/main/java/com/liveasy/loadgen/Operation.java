@@ -0,0 +1,140 @@
+
+package com.liveasy.loadgen;
+
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.time.Duration;
+import java.util.UUID;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+/**
+ * One endpoint call in the post-load -> bid -> accept flow. Latency is
+ * reported per operation.
+ */
+public enum Operation {
+
+    POST_LOAD("POST /api/load") {
+        @Override
+        HttpRequest request(String loadUrl, String bookingUrl, Workload workload) {
+            return json(loadUrl + "/api/load", workload.shipperId(), "SHIPPER")
+                    .POST(body(workload.newLoad())).build();
+        }
+
+        @Override
+        void onSuccess(JsonNode response, Workload workload) {
+            workload.addLoad(UUID.fromString(response.get("id").asText()));
+        }
+    },
+
+    BULK_POST_LOADS("POST /api/load/batch") {
+        @Override
+        HttpRequest request(String loadUrl, String bookingUrl, Workload workload) {
+            return json(loadUrl + "/api/load/batch", workload.shipperId(), "SHIPPER")
+                    .POST(body(workload.newLoads(BULK_SIZE))).build();
+        }
+
+        @Override
+        void onSuccess(JsonNode response, Workload workload) {
+            for (JsonNode result : response) {
+                if ("CREATED".equals(result.path("status").asText())) {
+                    workload.addLoad(UUID.fromString(result.get("loadId").asText()));
+                }
+            }
+        }
+    },
+
+    LIST_LOAD_PAGE("GET /api/load") {
+        @Override
+        HttpRequest request(String loadUrl, String bookingUrl, Workload workload) {
+            return json(loadUrl + "/api/load?limit=50", workload.transporterId(), "TRANSPORTER").GET().build();
+        }
+    },
+
+    LIST_LOADS_BY_TRUCK_TYPE("GET /api/load?truckType") {
+        @Override
+        HttpRequest request(String loadUrl, String bookingUrl, Workload workload) {
+            return json(loadUrl + "/api/load?truckType=" + workload.truckType(), workload.transporterId(), "TRANSPORTER")
+                    .GET().build();
+        }
+    },
+
+    GET_LOAD("GET /api/load/{id}") {
+        @Override
+        HttpRequest request(String loadUrl, String bookingUrl, Workload workload) {
+            UUID loadId = workload.anyLoad();
+            return loadId == null ? null
+                    : json(loadUrl + "/api/load/" + loadId, workload.transporterId(), "TRANSPORTER").GET().build();
+        }
+    },
+
+    POST_BOOKING("POST /api/booking") {
+        @Override
+        HttpRequest request(String loadUrl, String bookingUrl, Workload workload) {
+            UUID loadId = workload.hotLoad();
+            return loadId == null ? null
+                    : json(bookingUrl + "/api/booking", workload.transporterId(), "TRANSPORTER")
+                            .POST(body(workload.newBooking(loadId))).build();
+        }
+
+        @Override
+        void onSuccess(JsonNode response, Workload workload) {
+            workload.addBooking(UUID.fromString(response.get("id").asText()));
+        }
+    },
+
+    LIST_BOOKINGS_BY_LOAD("GET /api/booking?loadId") {
+        @Override
+        HttpRequest request(String loadUrl, String bookingUrl, Workload workload) {
+            UUID loadId = workload.hotLoad();
+            return loadId == null ? null
+                    : json(bookingUrl + "/api/booking?loadId=" + loadId, workload.shipperId(), "SHIPPER").GET().build();
+        }
+    },
+
+    ACCEPT_BOOKING("PUT /api/booking/{id}") {
+        @Override
+        HttpRequest request(String loadUrl, String bookingUrl, Workload workload) {
+            UUID bookingId = workload.anyBooking();
+            return bookingId == null ? null
+                    : json(bookingUrl + "/api/booking/" + bookingId, workload.shipperId(), "ADMIN")
+                            .PUT(HttpRequest.BodyPublishers.ofString(
+                                    "{\"proposedRate\":30000,\"comment\":\"Accepted\",\"status\":\"ACCEPTED\"}"))
+                            .build();
+        }
+    };
+
+    static final int BULK_SIZE = 100;
+
+    private static final Duration TIMEOUT = Duration.ofSeconds(30);
+
+    private final String label;
+
+    Operation(String label) {
+        this.label = label;
+    }
+
+    public String label() {
+        return label;
+    }
+
+    /**
+     * Builds the request, or returns null if the workload has nothing to act on yet.
+     */
+    abstract HttpRequest request(String loadUrl, String bookingUrl, Workload workload);
+
+    void onSuccess(JsonNode response, Workload workload) {
+    }
+
+    private static HttpRequest.Builder json(String url, String userId, String role) {
+        return HttpRequest.newBuilder(URI.create(url))
+                .timeout(TIMEOUT)
+                .header("Content-Type", "application/json")
+                .header("userId", userId)
+                .header("role", role);
+    }
+
+    private static HttpRequest.BodyPublisher body(JsonNode json) {
+        return HttpRequest.BodyPublishers.ofString(json.toString());
+    }
+}
@@ -0,0 +1,62 @@
+
+package com.liveasy.loadgen;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Weighted operation mixes the generator can drive.
+ */
+public enum TrafficMix {
+
+    // Transporters polling the load board, a trickle of new loads
+    LOAD_BOARD(weights(
+            Operation.LIST_LOADS_BY_TRUCK_TYPE, 50,
+            Operation.LIST_LOAD_PAGE, 20,
+            Operation.GET_LOAD, 25,
+            Operation.POST_LOAD, 5)),
+
+    // Many transporters bidding on a few hot loads
+    BID_STORM(weights(
+            Operation.POST_BOOKING, 60,
+            Operation.LIST_BOOKINGS_BY_LOAD, 15,
+            Operation.ACCEPT_BOOKING, 10,
+            Operation.GET_LOAD, 10,
+            Operation.POST_LOAD, 5)),
+
+    // Single-item vs bulk posting, loads per second compared in the report
+    SINGLE_POST(weights(Operation.POST_LOAD, 1)),
+    BULK_POST(weights(Operation.BULK_POST_LOADS, 1));
+
+    private final Operation[] operations;
+    private final int[] cumulativeWeights;
+
+    TrafficMix(Map<Operation, Integer> weights) {
+        this.operations = weights.keySet().toArray(new Operation[0]);
+        this.cumulativeWeights = new int[operations.length];
+        int total = 0;
+        for (int i = 0; i < operations.length; i++) {
+            total += weights.get(operations[i]);
+            cumulativeWeights[i] = total;
+        }
+    }
+
+    public Operation next() {
+        int roll = ThreadLocalRandom.current().nextInt(cumulativeWeights[cumulativeWeights.length - 1]);
+        for (int i = 0; i < cumulativeWeights.length; i++) {
+            if (roll < cumulativeWeights[i]) {
+                return operations[i];
+            }
+        }
+        return operations[operations.length - 1];
+    }
+
+    private static Map<Operation, Integer> weights(Object... pairs) {
+        Map<Operation, Integer> weights = new EnumMap<>(Operation.class);
+        for (int i = 0; i < pairs.length; i += 2) {
+            weights.put((Operation) pairs[i], (Integer) pairs[i + 1]);
+        }
+        return weights;
+    }
+}
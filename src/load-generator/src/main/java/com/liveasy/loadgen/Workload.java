@@ -0,0 +1,101 @@
+
+package com.liveasy.loadgen;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ThreadLocalRandom;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+/**
+ * Shared state the traffic draws from: IDs of loads and bookings created so
+ * far, plus generators for request bodies.
+ */
+public class Workload {
+
+    private static final String[] TRUCK_TYPES = {"Open", "Container", "Trailer", "Tanker", "Reefer"};
+    private static final String[] CITIES = {"Delhi", "Mumbai", "Pune", "Jaipur", "Chennai", "Kolkata", "Indore"};
+
+    // A small set of hot loads that attract most bids, like a real bid storm
+    private static final int HOT_LOADS = 20;
+
+    private final ObjectMapper objectMapper;
+    private final List<UUID> loadIds = new CopyOnWriteArrayList<>();
+    private final List<UUID> bookingIds = new CopyOnWriteArrayList<>();
+    private final String shipperId = UUID.randomUUID().toString();
+
+    public Workload(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    public String shipperId() {
+        return shipperId;
+    }
+
+    public String transporterId() {
+        return "transporter-" + ThreadLocalRandom.current().nextInt(1000);
+    }
+
+    public String truckType() {
+        return TRUCK_TYPES[ThreadLocalRandom.current().nextInt(TRUCK_TYPES.length)];
+    }
+
+    public void addLoad(UUID loadId) {
+        loadIds.add(loadId);
+    }
+
+    public void addBooking(UUID bookingId) {
+        bookingIds.add(bookingId);
+    }
+
+    public UUID anyLoad() {
+        return pick(loadIds, loadIds.size());
+    }
+
+    public UUID hotLoad() {
+        return pick(loadIds, Math.min(HOT_LOADS, loadIds.size()));
+    }
+
+    public UUID anyBooking() {
+        return pick(bookingIds, bookingIds.size());
+    }
+
+    private static UUID pick(List<UUID> ids, int bound) {
+        return bound == 0 ? null : ids.get(ThreadLocalRandom.current().nextInt(bound));
+    }
+
+    public ObjectNode newLoad() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        ObjectNode load = objectMapper.createObjectNode();
+        ObjectNode facility = load.putObject("facility");
+        facility.put("loadingPoint", CITIES[random.nextInt(CITIES.length)]);
+        facility.put("unloadingPoint", CITIES[random.nextInt(CITIES.length)]);
+        facility.put("loadingDate", "2024-05-0" + (1 + random.nextInt(9)) + "T10:00:00");
+        facility.put("unloadingDate", "2024-05-1" + random.nextInt(10) + "T18:00:00");
+        load.put("productType", "Cement");
+        load.put("truckType", truckType());
+        load.put("noOfTrucks", 1 + random.nextInt(5));
+        load.put("weight", 500 + random.nextInt(20000));
+        load.put("comment", "Generated by load-generator");
+        return load;
+    }
+
+    public ArrayNode newLoads(int count) {
+        ArrayNode loads = objectMapper.createArrayNode();
+        for (int i = 0; i < count; i++) {
+            loads.add(newLoad());
+        }
+        return loads;
+    }
+
+    public ObjectNode newBooking(UUID loadId) {
+        ObjectNode booking = objectMapper.createObjectNode();
+        booking.put("loadId", loadId.toString());
+        booking.put("proposedRate", 10000 + ThreadLocalRandom.current().nextInt(40000));
+        booking.put("comment", "Available for immediate transport");
+        return booking;
+    }
+}
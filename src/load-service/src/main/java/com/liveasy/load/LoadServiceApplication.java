@@ -1,18 +1,26 @@
 
 package com.liveasy.load;
 
-import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.builder.SpringApplicationBuilder;
 import org.springframework.cloud.client.discovery.EnableDiscoveryClient;
 import org.springframework.cloud.openfeign.EnableFeignClients;
 import org.springframework.kafka.annotation.EnableKafka;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
 @EnableDiscoveryClient
 @EnableFeignClients
 @EnableKafka
+@EnableScheduling
 public class LoadServiceApplication {
+
+    // Own config file name, so services sharing a classpath (load generator) don't read each other's yml
+    public static final String CONFIG_NAME = "load-service";
+
     public static void main(String[] args) {
-        SpringApplication.run(LoadServiceApplication.class, args);
+        new SpringApplicationBuilder(LoadServiceApplication.class)
+                .properties("spring.config.name=" + CONFIG_NAME)
+                .run(args);
     }
 }
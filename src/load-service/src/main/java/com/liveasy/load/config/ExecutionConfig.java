@@ -0,0 +1,30 @@
+package com.liveasy.load.config;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.AsyncTaskExecutor;
+
+import com.liveasy.common.concurrent.VirtualThreadExecution;
+
+/**
+ * execution.mode=virtual runs request handling (and async MVC work) on virtual
+ * threads. Concurrency is then bounded by the JDBC pool and the outbound call
+ * limit rather than by the Tomcat thread count.
+ */
+@Configuration
+@ConditionalOnProperty(name = "execution.mode", havingValue = "virtual")
+public class ExecutionConfig {
+
+    @Bean
+    public TomcatProtocolHandlerCustomizer<?> virtualThreadProtocolHandlerCustomizer() {
+        return VirtualThreadExecution.tomcatProtocolHandlerCustomizer();
+    }
+
+    // Replaces Boot's pooled applicationTaskExecutor used by @Async and async MVC
+    @Bean(name = "applicationTaskExecutor")
+    public AsyncTaskExecutor applicationTaskExecutor() {
+        return VirtualThreadExecution.applicationTaskExecutor();
+    }
+}
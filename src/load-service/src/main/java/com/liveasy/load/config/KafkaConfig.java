@@ -1,34 +1,41 @@
 
 package com.liveasy.load.config;
 
-import org.apache.kafka.clients.producer.ProducerConfig;
-import org.apache.kafka.common.serialization.StringSerializer;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.kafka.core.DefaultKafkaProducerFactory;
 import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.kafka.core.ProducerFactory;
-import org.springframework.kafka.support.serializer.JsonSerializer;
 
 import com.liveasy.common.events.LoadStatusChangedEvent;
+import com.liveasy.common.kafka.EventProducerSettings;
+import com.liveasy.common.kafka.LoadEventPublisher;
+import com.liveasy.common.kafka.ProducerProfile;
 
-import java.util.HashMap;
-import java.util.Map;
+import io.micrometer.core.instrument.MeterRegistry;
 
 @Configuration
 public class KafkaConfig {
 
+    @Value("${spring.kafka.bootstrap-servers}")
+    private String bootstrapServers;
+
+    @Value("${kafka.producer.profile:BALANCED}")
+    private ProducerProfile producerProfile;
+
     @Bean
     public ProducerFactory<String, LoadStatusChangedEvent> producerFactory() {
-        Map<String, Object> configProps = new HashMap<>();
-        configProps.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, "localhost:9092");
-        configProps.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
-        configProps.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, JsonSerializer.class);
-        return new DefaultKafkaProducerFactory<>(configProps);
+        return new DefaultKafkaProducerFactory<>(EventProducerSettings.producerConfig(bootstrapServers, producerProfile));
     }
 
     @Bean
     public KafkaTemplate<String, LoadStatusChangedEvent> kafkaTemplate() {
         return new KafkaTemplate<>(producerFactory());
     }
+
+    @Bean
+    public LoadEventPublisher loadEventPublisher(MeterRegistry meterRegistry) {
+        return new LoadEventPublisher(kafkaTemplate(), meterRegistry);
+    }
 }
@@ -1,30 +1,70 @@
 
 package com.liveasy.load.config;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.cache.annotation.EnableCaching;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.data.redis.cache.RedisCacheConfiguration;
 import org.springframework.data.redis.cache.RedisCacheManager;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
 import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
 import org.springframework.data.redis.serializer.RedisSerializationContext;
 
+import com.liveasy.common.cache.TwoTierCacheManager;
+import com.liveasy.load.service.LoadChangeBroadcaster;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
 import java.time.Duration;
 
 @Configuration
 @EnableCaching
 public class RedisConfig {
 
+    @Value("${cache.local.maximum-size:10000}")
+    private long localMaximumSize;
+
+    @Value("${cache.local.ttl:30s}")
+    private Duration localTtl;
+
+    @Value("${cache.load-lease:0ms}")
+    private Duration loadLease;
+
+    @Value("${cache.load-wait:2s}")
+    private Duration loadWait;
+
     @Bean
-    public RedisCacheManager cacheManager(RedisConnectionFactory connectionFactory) {
+    public TwoTierCacheManager cacheManager(RedisConnectionFactory connectionFactory,
+            StringRedisTemplate redisTemplate, MeterRegistry meterRegistry) {
         RedisCacheConfiguration cacheConfig = RedisCacheConfiguration.defaultCacheConfig()
             .entryTtl(Duration.ofMinutes(10))
             .serializeValuesWith(RedisSerializationContext.SerializationPair
                 .fromSerializer(new GenericJackson2JsonRedisSerializer()));
 
-        return RedisCacheManager.builder(connectionFactory)
+        RedisCacheManager redisCacheManager = RedisCacheManager.builder(connectionFactory)
             .cacheDefaults(cacheConfig)
             .build();
+        redisCacheManager.afterPropertiesSet();
+
+        // In-process L1 in front of Redis, kept coherent across nodes via pub/sub
+        TwoTierCacheManager cacheManager = new TwoTierCacheManager(redisCacheManager, redisTemplate, meterRegistry,
+                localMaximumSize, localTtl);
+        cacheManager.setLoadLease(loadLease);
+        cacheManager.setLoadWait(loadWait);
+        return cacheManager;
+    }
+
+    @Bean
+    public RedisMessageListenerContainer cacheInvalidationListenerContainer(RedisConnectionFactory connectionFactory,
+            TwoTierCacheManager cacheManager, LoadChangeBroadcaster loadChangeBroadcaster) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(connectionFactory);
+        container.addMessageListener(cacheManager, new ChannelTopic(TwoTierCacheManager.INVALIDATION_CHANNEL));
+        container.addMessageListener(loadChangeBroadcaster, new ChannelTopic(LoadChangeBroadcaster.CHANNEL));
+        return container;
     }
 }
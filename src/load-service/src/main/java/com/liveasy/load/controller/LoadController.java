@@ -2,17 +2,42 @@
 package com.liveasy.load.controller;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.liveasy.common.http.ETags;
+import com.liveasy.load.dto.LoadBatchResult;
+import com.liveasy.load.dto.LoadPage;
+import com.liveasy.load.dto.LoadProjectionPage;
+import com.liveasy.load.dto.TruckProfile;
+import com.liveasy.load.exception.LoadConflictException;
 import com.liveasy.load.exception.LoadNotFoundException;
+import com.liveasy.load.exception.LoadVersionMismatchException;
 import com.liveasy.load.model.Load;
+import com.liveasy.load.service.LoadBatchService;
+import com.liveasy.load.service.LoadMatchingService;
+import com.liveasy.load.service.LoadSearchService;
 import com.liveasy.load.service.LoadService;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.LocalDate;
 import java.util.List;
 import java.util.UUID;
 
+import javax.servlet.http.HttpServletRequest;
+
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -22,40 +47,173 @@ public class LoadController {
 
     private static final Logger logger = LoggerFactory.getLogger(LoadController.class);
     
+    private static final MediaType NDJSON = MediaType.parseMediaType("application/x-ndjson");
+    
     @Autowired
     private LoadService loadService;
+    
+    @Autowired
+    private LoadBatchService loadBatchService;
+    
+    @Autowired
+    private LoadMatchingService loadMatchingService;
+    
+    @Autowired
+    private LoadSearchService loadSearchService;
+    
+    @Autowired
+    private ObjectMapper objectMapper;
 
     @GetMapping
-    public ResponseEntity<List<Load>> getAllLoads(
+    public ResponseEntity<?> getAllLoads(
             @RequestParam(required = false) String shipperId,
-            @RequestParam(required = false) String truckType) {
+            @RequestParam(required = false) String truckType,
+            @RequestParam(required = false) Load.LoadStatus status,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(required = false) String fields,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
         
         try {
-            List<Load> loads;
+            if (fields != null) {
+                logger.info("Fetching projected page of loads with fields: {}", fields);
+                LoadProjectionPage page = loadService.getProjectedLoadPage(fields, shipperId, truckType, status, cursor, limit);
+                // Only taggable when the client selected version
+                String etag = ETags.ofList(page.getItems(), item -> item.get("id"), item -> (Long) item.get("version"));
+                return conditional(etag, ifNoneMatch, page);
+            }
             
+            LoadPage page;
             if (shipperId != null) {
                 logger.info("Fetching loads for shipper ID: {}", shipperId);
-                loads = loadService.getLoadsByShipperId(shipperId);
+                page = loadService.getLoadsByShipperId(shipperId, cursor, limit);
             } else if (truckType != null) {
                 logger.info("Fetching loads for truck type: {}", truckType);
-                loads = loadService.getLoadsByTruckType(truckType);
+                page = loadService.getLoadsByTruckType(truckType, cursor, limit);
+            } else if (status != null) {
+                logger.info("Fetching loads with status: {}", status);
+                page = loadService.getLoadsByStatus(status, cursor, limit);
             } else {
-                logger.info("Fetching all loads");
-                loads = loadService.getAllLoads();
+                logger.info("Fetching page of loads");
+                page = loadService.getLoadPage(cursor, limit);
             }
-            
-            return ResponseEntity.ok(loads);
+            return conditional(listETag(page.getItems()), ifNoneMatch, page);
+        } catch (IllegalArgumentException e) {
+            logger.error("Bad load page request: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(e.getMessage());
         } catch (Exception e) {
             logger.error("Error fetching loads: {}", e.getMessage());
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
         }
     }
 
+    @GetMapping("/stream")
+    public ResponseEntity<StreamingResponseBody> streamAllLoads() {
+        logger.info("Streaming all loads as NDJSON");
+        
+        // Rows are written as they come off the JDBC cursor, one JSON document per line
+        StreamingResponseBody body = outputStream -> {
+            ObjectWriter writer = objectMapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+            JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream);
+            generator.setRootValueSeparator(null);
+            loadService.streamAllLoads(load -> {
+                try {
+                    writer.writeValue(generator, load);
+                    generator.writeRaw('\n');
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            generator.flush();
+        };
+        
+        return ResponseEntity.ok().contentType(NDJSON).body(body);
+    }
+
+    @GetMapping("/search")
+    public ResponseEntity<?> searchByLane(
+            @RequestParam String from,
+            @RequestParam String to,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate fromDate,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate toDate,
+            @RequestParam(required = false) Integer limit) {
+        
+        try {
+            return ResponseEntity.ok(loadService.searchByLane(from, to, fromDate, toDate, limit));
+        } catch (IllegalArgumentException e) {
+            logger.error("Bad lane search request: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(e.getMessage());
+        } catch (Exception e) {
+            logger.error("Error searching loads by lane: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
+    @GetMapping("/search/text")
+    public ResponseEntity<?> searchByText(
+            @RequestParam String q,
+            @RequestParam(required = false) Load.LoadStatus status,
+            @RequestParam(required = false) String truckType,
+            @RequestParam(required = false) Integer limit) {
+        
+        try {
+            return ResponseEntity.ok(loadService.searchByText(q, status, truckType, limit));
+        } catch (IllegalArgumentException e) {
+            logger.error("Bad text search request: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(e.getMessage());
+        } catch (Exception e) {
+            logger.error("Error searching loads by text: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
+    @PostMapping("/search/text/rebuild")
+    public ResponseEntity<?> rebuildTextIndex(@RequestHeader("role") String role) {
+        if (!role.equals("ADMIN")) {
+            logger.warn("Unauthorized attempt to rebuild load search index with role: {}", role);
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).body("Only admins can rebuild the search index");
+        }
+        
+        try {
+            long indexed = loadSearchService.rebuild();
+            logger.info("Load search index rebuilt with {} loads", indexed);
+            return ResponseEntity.ok("Indexed " + indexed + " loads");
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(e.getMessage());
+        } catch (Exception e) {
+            logger.error("Error rebuilding load search index: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("Error rebuilding search index: " + e.getMessage());
+        }
+    }
+
+    @PostMapping("/match")
+    public ResponseEntity<?> matchLoads(@RequestBody TruckProfile profile,
+            @RequestParam(required = false) Integer limit) {
+        try {
+            return ResponseEntity.ok(loadMatchingService.match(profile, limit));
+        } catch (IllegalArgumentException e) {
+            logger.error("Bad match request: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(e.getMessage());
+        } catch (Exception e) {
+            logger.error("Error matching loads: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
     @GetMapping("/{loadId}")
-    public ResponseEntity<?> getLoadById(@PathVariable UUID loadId) {
+    public ResponseEntity<?> getLoadById(@PathVariable UUID loadId,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
         try {
+            // Pollers usually already hold the current version; answer them without loading the entity
+            if (ifNoneMatch != null) {
+                String etag = ETags.of(loadService.getLoadVersion(loadId));
+                if (ETags.matches(ifNoneMatch, etag)) {
+                    return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+                }
+            }
+            
             Load load = loadService.getLoadById(loadId);
-            return ResponseEntity.ok(load);
+            return conditional(ETags.of(load.getVersion()), null, load);
         } catch (LoadNotFoundException e) {
             logger.error("Load not found: {}", e.getMessage());
             return ResponseEntity.status(HttpStatus.NOT_FOUND).body(e.getMessage());
@@ -78,11 +236,26 @@ public class LoadController {
         }
     }
 
+    @PostMapping(value = "/batch", consumes = {MediaType.APPLICATION_JSON_VALUE, "application/x-ndjson"})
+    public ResponseEntity<?> createLoads(HttpServletRequest request, @RequestHeader("userId") String userId) {
+        try {
+            boolean ndjson = NDJSON.isCompatibleWith(MediaType.parseMediaType(request.getContentType()));
+            List<LoadBatchResult> results = loadBatchService.createLoads(request.getInputStream(), ndjson, userId);
+            logger.info("Bulk load request processed with {} items", results.size());
+            return ResponseEntity.ok(results);
+        } catch (Exception e) {
+            logger.error("Error creating loads in bulk: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body("Error creating loads: " + e.getMessage());
+        }
+    }
+
     @PutMapping("/{loadId}")
     public ResponseEntity<?> updateLoad(@PathVariable UUID loadId, @RequestBody Load loadDetails, 
-            @RequestHeader("userId") String userId, @RequestHeader("role") String role) {
+            @RequestHeader("userId") String userId, @RequestHeader("role") String role,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
         
         try {
+            Long expectedVersion = ETags.version(ifMatch);
             Load existingLoad = loadService.getLoadById(loadId);
             
             // Check if user is the shipper who created the load or an admin
@@ -91,18 +264,54 @@ public class LoadController {
                 return ResponseEntity.status(HttpStatus.FORBIDDEN).body("You are not authorized to update this load");
             }
             
-            Load updatedLoad = loadService.updateLoad(loadId, loadDetails);
+            Load updatedLoad = loadService.updateLoad(loadId, loadDetails, expectedVersion);
             logger.info("Load updated with ID: {}", loadId);
-            return ResponseEntity.ok(updatedLoad);
+            return conditional(ETags.of(updatedLoad.getVersion()), null, updatedLoad);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(e.getMessage());
         } catch (LoadNotFoundException e) {
             logger.error("Load not found: {}", e.getMessage());
             return ResponseEntity.status(HttpStatus.NOT_FOUND).body(e.getMessage());
+        } catch (LoadVersionMismatchException e) {
+            logger.warn("Stale update rejected: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).body(e.getMessage());
+        } catch (ObjectOptimisticLockingFailureException e) {
+            logger.warn("Concurrent update of load ID: {}", loadId);
+            return ResponseEntity.status(HttpStatus.CONFLICT).body("Load was modified concurrently; reload and retry");
         } catch (Exception e) {
             logger.error("Error updating load: {}", e.getMessage());
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("Error updating load: " + e.getMessage());
         }
     }
 
+    @PutMapping("/{loadId}/status")
+    public ResponseEntity<?> updateLoadStatus(@PathVariable UUID loadId, @RequestBody String status,
+            @RequestParam(required = false) UUID bookingId,
+            @RequestHeader(value = "role", required = false) String role) {
+        // Called service-to-service by booking-service; through the gateway only admins may set it directly
+        if (role != null && !role.equals("ADMIN")) {
+            logger.warn("Unauthorized attempt to set status of load ID: {} with role: {}", loadId, role);
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).body("You are not authorized to change the load status");
+        }
+        
+        try {
+            // Accept both a bare status and a JSON string literal
+            Load.LoadStatus newStatus = Load.LoadStatus.valueOf(status.trim().replace("\"", "").toUpperCase());
+            Load updatedLoad = loadService.updateLoadStatus(loadId, newStatus, bookingId);
+            return conditional(ETags.of(updatedLoad.getVersion()), null, updatedLoad);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body("Unknown load status: " + status);
+        } catch (LoadNotFoundException e) {
+            logger.error("Load not found: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(e.getMessage());
+        } catch (LoadConflictException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(e.getMessage());
+        } catch (Exception e) {
+            logger.error("Error updating load status: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("Error updating load status: " + e.getMessage());
+        }
+    }
+
     @DeleteMapping("/{loadId}")
     public ResponseEntity<?> deleteLoad(@PathVariable UUID loadId, 
             @RequestHeader("userId") String userId, @RequestHeader("role") String role) {
@@ -127,4 +336,19 @@ public class LoadController {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("Error deleting load: " + e.getMessage());
         }
     }
+
+    private static String listETag(List<Load> loads) {
+        return ETags.ofList(loads, Load::getId, Load::getVersion);
+    }
+
+    // 304 when the client's copy is current; otherwise the body, tagged so the next poll can be conditional
+    private static ResponseEntity<?> conditional(String etag, String ifNoneMatch, Object body) {
+        if (etag == null) {
+            return ResponseEntity.ok(body);
+        }
+        if (ETags.matches(ifNoneMatch, etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+        }
+        return ResponseEntity.ok().eTag(etag).cacheControl(CacheControl.noCache()).body(body);
+    }
 }
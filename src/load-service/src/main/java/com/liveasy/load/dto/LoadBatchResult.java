@@ -0,0 +1,63 @@
+
+package com.liveasy.load.dto;
+
+import java.util.UUID;
+
+public class LoadBatchResult {
+    private int index;
+    private UUID loadId;
+    private Status status;
+    private String error;
+
+    public enum Status {
+        CREATED, FAILED
+    }
+
+    // Constructors
+    public LoadBatchResult() {
+    }
+
+    public LoadBatchResult(int index) {
+        this.index = index;
+    }
+
+    public static LoadBatchResult failed(int index, String error) {
+        LoadBatchResult result = new LoadBatchResult(index);
+        result.setStatus(Status.FAILED);
+        result.setError(error);
+        return result;
+    }
+
+    // Getters and Setters
+    public int getIndex() {
+        return index;
+    }
+
+    public void setIndex(int index) {
+        this.index = index;
+    }
+
+    public UUID getLoadId() {
+        return loadId;
+    }
+
+    public void setLoadId(UUID loadId) {
+        this.loadId = loadId;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public void setStatus(Status status) {
+        this.status = status;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public void setError(String error) {
+        this.error = error;
+    }
+}
@@ -0,0 +1,154 @@
+package com.liveasy.load.dto;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import com.liveasy.load.model.Facility;
+import com.liveasy.load.model.Load;
+
+/**
+ * Snapshot of a load after a committed write, as broadcast between
+ * load-service nodes to keep their in-process indexes current. A removed
+ * change carries only the loadId.
+ */
+public class LoadChange {
+    private UUID loadId;
+    private String origin;
+    private String destination;
+    private LocalDateTime loadingDate;
+    private String productType;
+    private String truckType;
+    private double weight;
+    private int noOfTrucks;
+    private String comment;
+    private LocalDateTime datePosted;
+    private Load.LoadStatus status;
+    private boolean removed;
+
+    // Constructors
+    public LoadChange() {
+    }
+
+    public static LoadChange of(Load load) {
+        LoadChange change = new LoadChange();
+        change.setLoadId(load.getId());
+        Facility facility = load.getFacility();
+        if (facility != null) {
+            change.setOrigin(facility.getLoadingPoint());
+            change.setDestination(facility.getUnloadingPoint());
+            change.setLoadingDate(facility.getLoadingDate());
+        }
+        change.setProductType(load.getProductType());
+        change.setTruckType(load.getTruckType());
+        change.setWeight(load.getWeight());
+        change.setNoOfTrucks(load.getNoOfTrucks());
+        change.setComment(load.getComment());
+        change.setDatePosted(load.getDatePosted());
+        change.setStatus(load.getStatus());
+        return change;
+    }
+
+    public static LoadChange removed(UUID loadId) {
+        LoadChange change = new LoadChange();
+        change.setLoadId(loadId);
+        change.setRemoved(true);
+        return change;
+    }
+
+    // Getters and Setters
+    public UUID getLoadId() {
+        return loadId;
+    }
+
+    public void setLoadId(UUID loadId) {
+        this.loadId = loadId;
+    }
+
+    public String getOrigin() {
+        return origin;
+    }
+
+    public void setOrigin(String origin) {
+        this.origin = origin;
+    }
+
+    public String getDestination() {
+        return destination;
+    }
+
+    public void setDestination(String destination) {
+        this.destination = destination;
+    }
+
+    public LocalDateTime getLoadingDate() {
+        return loadingDate;
+    }
+
+    public void setLoadingDate(LocalDateTime loadingDate) {
+        this.loadingDate = loadingDate;
+    }
+
+    public String getProductType() {
+        return productType;
+    }
+
+    public void setProductType(String productType) {
+        this.productType = productType;
+    }
+
+    public String getTruckType() {
+        return truckType;
+    }
+
+    public void setTruckType(String truckType) {
+        this.truckType = truckType;
+    }
+
+    public double getWeight() {
+        return weight;
+    }
+
+    public void setWeight(double weight) {
+        this.weight = weight;
+    }
+
+    public int getNoOfTrucks() {
+        return noOfTrucks;
+    }
+
+    public void setNoOfTrucks(int noOfTrucks) {
+        this.noOfTrucks = noOfTrucks;
+    }
+
+    public String getComment() {
+        return comment;
+    }
+
+    public void setComment(String comment) {
+        this.comment = comment;
+    }
+
+    public LocalDateTime getDatePosted() {
+        return datePosted;
+    }
+
+    public void setDatePosted(LocalDateTime datePosted) {
+        this.datePosted = datePosted;
+    }
+
+    public Load.LoadStatus getStatus() {
+        return status;
+    }
+
+    public void setStatus(Load.LoadStatus status) {
+        this.status = status;
+    }
+
+    public boolean isRemoved() {
+        return removed;
+    }
+
+    public void setRemoved(boolean removed) {
+        this.removed = removed;
+    }
+}
@@ -0,0 +1,68 @@
+package com.liveasy.load.dto;
+
+import com.liveasy.load.model.Load;
+
+/**
+ * A candidate load with its overall score and the components behind it,
+ * each between 0 and 1.
+ */
+public class LoadMatch {
+    private Load load;
+    private double score;
+    private double laneScore;
+    private double dateScore;
+    private double capacityScore;
+
+    // Constructors
+    public LoadMatch() {
+    }
+
+    public LoadMatch(Load load, double score, double laneScore, double dateScore, double capacityScore) {
+        this.load = load;
+        this.score = score;
+        this.laneScore = laneScore;
+        this.dateScore = dateScore;
+        this.capacityScore = capacityScore;
+    }
+
+    // Getters and Setters
+    public Load getLoad() {
+        return load;
+    }
+
+    public void setLoad(Load load) {
+        this.load = load;
+    }
+
+    public double getScore() {
+        return score;
+    }
+
+    public void setScore(double score) {
+        this.score = score;
+    }
+
+    public double getLaneScore() {
+        return laneScore;
+    }
+
+    public void setLaneScore(double laneScore) {
+        this.laneScore = laneScore;
+    }
+
+    public double getDateScore() {
+        return dateScore;
+    }
+
+    public void setDateScore(double dateScore) {
+        this.dateScore = dateScore;
+    }
+
+    public double getCapacityScore() {
+        return capacityScore;
+    }
+
+    public void setCapacityScore(double capacityScore) {
+        this.capacityScore = capacityScore;
+    }
+}
@@ -0,0 +1,53 @@
+
+package com.liveasy.load.dto;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import com.liveasy.load.model.Load;
+
+public class LoadPage {
+    private List<Load> items;
+    private String nextCursor;
+    // Taken before the page was read; consumers order it against event timestamps
+    private LocalDateTime readAt;
+
+    // Constructors
+    public LoadPage() {
+    }
+
+    public LoadPage(List<Load> items, String nextCursor) {
+        this.items = items;
+        this.nextCursor = nextCursor;
+    }
+
+    public LoadPage(List<Load> items, String nextCursor, LocalDateTime readAt) {
+        this(items, nextCursor);
+        this.readAt = readAt;
+    }
+
+    // Getters and Setters
+    public List<Load> getItems() {
+        return items;
+    }
+
+    public void setItems(List<Load> items) {
+        this.items = items;
+    }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    public void setNextCursor(String nextCursor) {
+        this.nextCursor = nextCursor;
+    }
+
+    public LocalDateTime getReadAt() {
+        return readAt;
+    }
+
+    public void setReadAt(LocalDateTime readAt) {
+        this.readAt = readAt;
+    }
+}
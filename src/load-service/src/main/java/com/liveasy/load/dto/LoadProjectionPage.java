@@ -0,0 +1,35 @@
+package com.liveasy.load.dto;
+
+import java.util.List;
+import java.util.Map;
+
+public class LoadProjectionPage {
+    private List<Map<String, Object>> items;
+    private String nextCursor;
+
+    // Constructors
+    public LoadProjectionPage() {
+    }
+
+    public LoadProjectionPage(List<Map<String, Object>> items, String nextCursor) {
+        this.items = items;
+        this.nextCursor = nextCursor;
+    }
+
+    // Getters and Setters
+    public List<Map<String, Object>> getItems() {
+        return items;
+    }
+
+    public void setItems(List<Map<String, Object>> items) {
+        this.items = items;
+    }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    public void setNextCursor(String nextCursor) {
+        this.nextCursor = nextCursor;
+    }
+}
@@ -0,0 +1,60 @@
+package com.liveasy.load.dto;
+
+import java.time.LocalDate;
+
+/**
+ * What a transporter can offer: trucks of one type, the weight each can
+ * carry, where they are and from when they are free.
+ */
+public class TruckProfile {
+    private String truckType;
+    private double capacity;
+    private int noOfTrucks;
+    private String currentLocation;
+    private LocalDate availableDate;
+
+    // Constructors
+    public TruckProfile() {
+    }
+
+    // Getters and Setters
+    public String getTruckType() {
+        return truckType;
+    }
+
+    public void setTruckType(String truckType) {
+        this.truckType = truckType;
+    }
+
+    public double getCapacity() {
+        return capacity;
+    }
+
+    public void setCapacity(double capacity) {
+        this.capacity = capacity;
+    }
+
+    public int getNoOfTrucks() {
+        return noOfTrucks;
+    }
+
+    public void setNoOfTrucks(int noOfTrucks) {
+        this.noOfTrucks = noOfTrucks;
+    }
+
+    public String getCurrentLocation() {
+        return currentLocation;
+    }
+
+    public void setCurrentLocation(String currentLocation) {
+        this.currentLocation = currentLocation;
+    }
+
+    public LocalDate getAvailableDate() {
+        return availableDate;
+    }
+
+    public void setAvailableDate(LocalDate availableDate) {
+        this.availableDate = availableDate;
+    }
+}
@@ -0,0 +1,8 @@
+
+package com.liveasy.load.exception;
+
+public class LoadConflictException extends RuntimeException {
+    public LoadConflictException(String message) {
+        super(message);
+    }
+}
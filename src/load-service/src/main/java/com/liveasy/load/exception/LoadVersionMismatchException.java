@@ -0,0 +1,8 @@
+
+package com.liveasy.load.exception;
+
+public class LoadVersionMismatchException extends RuntimeException {
+    public LoadVersionMismatchException(String message) {
+        super(message);
+    }
+}
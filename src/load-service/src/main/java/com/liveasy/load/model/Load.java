@@ -3,6 +3,8 @@ package com.liveasy.load.model;
 
 import javax.persistence.*;
 import java.time.LocalDateTime;
+import java.util.EnumSet;
+import java.util.Set;
 import java.util.UUID;
 
 @Entity
@@ -28,8 +30,27 @@ public class Load {
     @Enumerated(EnumType.STRING)
     private LoadStatus status;
 
+    // Set only by the BOOKED transition
+    private UUID bookingId;
+
+    // Bumped by Hibernate on every update; backs optimistic locking and ETags
+    @Version
+    private Long version;
+
     public enum LoadStatus {
-        POSTED, BOOKED, CANCELLED
+        POSTED, BOOKED, CANCELLED;
+
+        // Transition table: the statuses a load may move to this one from
+        public Set<LoadStatus> allowedFrom() {
+            switch (this) {
+                case BOOKED:
+                    return EnumSet.of(POSTED);
+                case CANCELLED:
+                    return EnumSet.of(POSTED, BOOKED);
+                default:
+                    return EnumSet.noneOf(LoadStatus.class);
+            }
+        }
     }
 
     // Constructors
@@ -118,4 +139,20 @@ public class Load {
     public void setStatus(LoadStatus status) {
         this.status = status;
     }
+
+    public UUID getBookingId() {
+        return bookingId;
+    }
+
+    public void setBookingId(UUID bookingId) {
+        this.bookingId = bookingId;
+    }
+
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
 }
@@ -0,0 +1,28 @@
+package com.liveasy.load.repository;
+
+import java.util.List;
+import java.util.Set;
+
+import com.liveasy.load.dto.LoadProjectionPage;
+import com.liveasy.load.model.Load;
+import com.liveasy.load.util.LoadCursor;
+
+/**
+ * Load queries built from optional filters, newest first in keyset order.
+ * The projected page selects only the requested columns, returned as flat
+ * maps rather than managed entities.
+ */
+public interface LoadProjectionRepository {
+
+    /**
+     * A keyset page (newest first) of the given fields, filtered by whichever
+     * of shipperId, truckType and status are non-null.
+     */
+    LoadProjectionPage findProjectedPage(Set<String> fields, String shipperId, String truckType,
+            Load.LoadStatus status, LoadCursor after, int limit);
+
+    /**
+     * Up to limit whole loads after the cursor, filtered the same way.
+     */
+    List<Load> findPage(String shipperId, String truckType, Load.LoadStatus status, LoadCursor after, int limit);
+}
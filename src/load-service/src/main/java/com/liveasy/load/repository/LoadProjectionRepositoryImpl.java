@@ -0,0 +1,127 @@
+package com.liveasy.load.repository;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.Tuple;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Path;
+import javax.persistence.criteria.Predicate;
+import javax.persistence.criteria.Root;
+import javax.persistence.criteria.Selection;
+
+import com.liveasy.load.dto.LoadProjectionPage;
+import com.liveasy.load.model.Load;
+import com.liveasy.load.util.LoadCursor;
+
+// Tuple queries: Hibernate reads only the selected columns and tracks no entities
+public class LoadProjectionRepositoryImpl implements LoadProjectionRepository {
+
+    private static final String CURSOR_DATE_POSTED = "cursorDatePosted";
+    private static final String CURSOR_ID = "cursorId";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public LoadProjectionPage findProjectedPage(Set<String> fields, String shipperId, String truckType,
+            Load.LoadStatus status, LoadCursor after, int limit) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = cb.createTupleQuery();
+        Root<Load> load = query.from(Load.class);
+
+        List<Selection<?>> selections = new ArrayList<>(fields.size() + 2);
+        for (String field : fields) {
+            selections.add(path(load, field).alias(field));
+        }
+        // Keyset columns, unless the client asked for them already: Hibernate hands back the same
+        // path object for an attribute, so aliasing it again would rename the client's column
+        String datePostedAlias = fields.contains("datePosted") ? "datePosted" : CURSOR_DATE_POSTED;
+        String idAlias = fields.contains("id") ? "id" : CURSOR_ID;
+        if (!fields.contains("datePosted")) {
+            selections.add(load.get("datePosted").alias(CURSOR_DATE_POSTED));
+        }
+        if (!fields.contains("id")) {
+            selections.add(load.get("id").alias(CURSOR_ID));
+        }
+        query.multiselect(selections);
+
+        filter(cb, query, load, shipperId, truckType, status, after);
+
+        // One extra row tells us whether another page exists
+        List<Tuple> rows = entityManager.createQuery(query).setMaxResults(limit + 1).getResultList();
+
+        int size = Math.min(rows.size(), limit);
+        List<Map<String, Object>> items = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            Tuple row = rows.get(i);
+            Map<String, Object> item = new LinkedHashMap<>();
+            for (String field : fields) {
+                item.put(field, row.get(field));
+            }
+            items.add(item);
+        }
+
+        String nextCursor = null;
+        if (rows.size() > limit) {
+            Tuple last = rows.get(limit - 1);
+            nextCursor = LoadCursor.encode(last.get(datePostedAlias, LocalDateTime.class),
+                    last.get(idAlias, UUID.class));
+        }
+        return new LoadProjectionPage(items, nextCursor);
+    }
+
+    @Override
+    public List<Load> findPage(String shipperId, String truckType, Load.LoadStatus status, LoadCursor after,
+            int limit) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Load> query = cb.createQuery(Load.class);
+        Root<Load> load = query.from(Load.class);
+        query.select(load);
+        filter(cb, query, load, shipperId, truckType, status, after);
+        return entityManager.createQuery(query).setMaxResults(limit).getResultList();
+    }
+
+    private static void filter(CriteriaBuilder cb, CriteriaQuery<?> query, Root<Load> load, String shipperId,
+            String truckType, Load.LoadStatus status, LoadCursor after) {
+        List<Predicate> predicates = new ArrayList<>();
+        if (shipperId != null) {
+            predicates.add(cb.equal(load.get("shipperId"), shipperId));
+        }
+        if (truckType != null) {
+            predicates.add(cb.equal(load.get("truckType"), truckType));
+        }
+        if (status != null) {
+            predicates.add(cb.equal(load.get("status"), status));
+        }
+        if (after != null) {
+            Path<LocalDateTime> datePosted = load.get("datePosted");
+            Path<UUID> id = load.get("id");
+            predicates.add(cb.or(
+                    cb.lessThan(datePosted, after.getDatePosted()),
+                    cb.and(cb.equal(datePosted, after.getDatePosted()), cb.lessThan(id, after.getId()))));
+        }
+        query.where(predicates.toArray(new Predicate[0]));
+        query.orderBy(cb.desc(load.get("datePosted")), cb.desc(load.get("id")));
+    }
+
+    private static Path<Object> path(Root<Load> load, String field) {
+        switch (field) {
+            case "loadingPoint":
+            case "unloadingPoint":
+            case "loadingDate":
+            case "unloadingDate":
+                return load.get("facility").get(field);
+            default:
+                return load.get(field);
+        }
+    }
+}
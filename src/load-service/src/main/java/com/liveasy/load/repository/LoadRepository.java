@@ -1,17 +1,63 @@
 
 package com.liveasy.load.repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
+import java.util.stream.Stream;
 
+import javax.persistence.QueryHint;
+
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import com.liveasy.load.model.Load;
 
 @Repository
-public interface LoadRepository extends JpaRepository<Load, UUID> {
+public interface LoadRepository extends JpaRepository<Load, UUID>, LoadProjectionRepository {
     List<Load> findByShipperId(String shipperId);
     List<Load> findByTruckType(String truckType);
     List<Load> findByStatus(Load.LoadStatus status);
+
+    @Query("SELECT l.version FROM Load l WHERE l.id = :id")
+    Optional<Long> findVersionById(@Param("id") UUID id);
+
+    // Compare-and-set in one statement; empty when the load is missing or not in an allowed status.
+    // bookingId is a string so a null binds as a typed parameter.
+    @Query(value = "UPDATE loads SET status = :status, version = version + 1, "
+            + "booking_id = CASE WHEN :status = 'BOOKED' THEN CAST(:bookingId AS uuid) ELSE booking_id END "
+            + "WHERE id = :id AND status IN (:fromStatuses) RETURNING *", nativeQuery = true)
+    List<Load> transitionStatus(@Param("id") UUID id, @Param("status") String status,
+                                @Param("fromStatuses") Collection<String> fromStatuses,
+                                @Param("bookingId") String bookingId);
+
+    // Keyset pagination on (datePosted, id), newest first
+    @Query("SELECT l FROM Load l ORDER BY l.datePosted DESC, l.id DESC")
+    List<Load> findFirstPage(Pageable pageable);
+
+    @Query("SELECT l FROM Load l WHERE l.datePosted < :datePosted "
+            + "OR (l.datePosted = :datePosted AND l.id < :id) "
+            + "ORDER BY l.datePosted DESC, l.id DESC")
+    List<Load> findPageAfter(@Param("datePosted") LocalDateTime datePosted, @Param("id") UUID id, Pageable pageable);
+
+    // Server-side cursor; must be consumed inside a read-only transaction
+    @QueryHints({
+        @QueryHint(name = "org.hibernate.fetchSize", value = "500"),
+        @QueryHint(name = "org.hibernate.readOnly", value = "true")
+    })
+    @Query("SELECT l FROM Load l ORDER BY l.datePosted DESC, l.id DESC")
+    Stream<Load> streamAll();
+
+    @QueryHints({
+        @QueryHint(name = "org.hibernate.fetchSize", value = "500"),
+        @QueryHint(name = "org.hibernate.readOnly", value = "true")
+    })
+    @Query("SELECT l FROM Load l WHERE l.status = :status")
+    Stream<Load> streamByStatus(@Param("status") Load.LoadStatus status);
 }
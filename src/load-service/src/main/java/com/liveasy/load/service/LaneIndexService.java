@@ -0,0 +1,310 @@
+package com.liveasy.load.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.liveasy.load.dto.LoadChange;
+import com.liveasy.load.model.Load;
+import com.liveasy.load.repository.LoadRepository;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import javax.annotation.PostConstruct;
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.NavigableMap;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.stream.Stream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * In-memory index of POSTED loads by lane (normalized loadingPoint ->
+ * unloadingPoint) and by truckType, each sorted by loadingDate, so lane
+ * search and load matching never scan the table. Every node holds the whole
+ * index, fed by {@link LoadChangeBroadcaster}; a periodic rebuild from
+ * Postgres repairs anything a lost message missed.
+ * Loads without both points and a loading date are not indexed.
+ */
+@Service
+public class LaneIndexService implements LoadChangeListener {
+
+    private static final Logger logger = LoggerFactory.getLogger(LaneIndexService.class);
+
+    private static final String SEPARATOR = "\n";
+    private static final UUID MIN_ID = new UUID(Long.MIN_VALUE, Long.MIN_VALUE);
+
+    @Autowired
+    private LoadRepository loadRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    // Reads are lock-free; writes and index swaps are serialized on writeLock
+    private volatile Index index = new Index();
+    private final Object writeLock = new Object();
+    private List<LoadChange> changesDuringRebuild;
+
+    private Timer searchTimer;
+
+    @PostConstruct
+    public void init() {
+        searchTimer = Timer.builder("lane.index.search")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        Gauge.builder("lane.index.size", this, service -> service.index.size())
+                .register(meterRegistry);
+    }
+
+    /**
+     * Returns IDs of POSTED loads on the lane with a loadingDate between the
+     * given days (both inclusive, either open-ended), earliest first.
+     */
+    public List<UUID> search(String from, String to, LocalDate fromDate, LocalDate toDate, int limit) {
+        if (fromDate != null && toDate != null && fromDate.isAfter(toDate)) {
+            throw new IllegalArgumentException("fromDate must not be after toDate");
+        }
+        LocalDateTime start = fromDate == null ? null : fromDate.atStartOfDay();
+        LocalDateTime end = toDate == null ? null : toDate.plusDays(1).atStartOfDay();
+        return searchTimer.record(() -> index.search(laneKey(from, to), start, end, limit));
+    }
+
+    /**
+     * Open loads for the truck type with a loadingDate in [start, end),
+     * earliest first. The result is a snapshot copy.
+     */
+    public List<OpenLoad> getOpenLoads(String truckType, LocalDateTime start, LocalDateTime end) {
+        return index.openLoads(normalize(truckType), start, end);
+    }
+
+    @Override
+    public void apply(List<LoadChange> changes) {
+        synchronized (writeLock) {
+            for (LoadChange change : changes) {
+                index.apply(change);
+            }
+            if (changesDuringRebuild != null) {
+                changesDuringRebuild.addAll(changes);
+            }
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(initialDelayString = "${lane.index.rebuild-interval-ms:600000}",
+            fixedDelayString = "${lane.index.rebuild-interval-ms:600000}")
+    public void rebuild() {
+        synchronized (writeLock) {
+            changesDuringRebuild = new ArrayList<>();
+        }
+
+        Index rebuilt = new Index();
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                try (Stream<Load> loads = loadRepository.streamByStatus(Load.LoadStatus.POSTED)) {
+                    loads.forEach(load -> {
+                        rebuilt.apply(LoadChange.of(load));
+                        entityManager.detach(load);
+                    });
+                }
+            });
+        } catch (RuntimeException e) {
+            synchronized (writeLock) {
+                changesDuringRebuild = null;
+            }
+            logger.error("Lane index rebuild failed: {}", e.getMessage());
+            return;
+        }
+
+        // Changes that landed while streaming may be missing from the snapshot
+        synchronized (writeLock) {
+            for (LoadChange change : changesDuringRebuild) {
+                rebuilt.apply(change);
+            }
+            changesDuringRebuild = null;
+            index = rebuilt;
+        }
+        logger.info("Rebuilt lane index with {} loads", rebuilt.size());
+    }
+
+    // Only POSTED loads with both points and a loading date can be placed
+    private static boolean isIndexable(LoadChange change) {
+        return !change.isRemoved() && change.getStatus() == Load.LoadStatus.POSTED && change.getOrigin() != null
+                && change.getDestination() != null && change.getLoadingDate() != null;
+    }
+
+    // Case- and whitespace-insensitive; whitespace is collapsed, so the separator can't occur inside a point
+    static String laneKey(String origin, String destination) {
+        return normalize(origin) + SEPARATOR + normalize(destination);
+    }
+
+    static String normalize(String value) {
+        return value == null ? "" : value.trim().replaceAll("\\s+", " ").toLowerCase(Locale.ROOT);
+    }
+
+    private static final class Slot implements Comparable<Slot> {
+        private final LocalDateTime loadingDate;
+        private final UUID loadId;
+
+        private Slot(LocalDateTime loadingDate, UUID loadId) {
+            this.loadingDate = loadingDate;
+            this.loadId = loadId;
+        }
+
+        @Override
+        public int compareTo(Slot other) {
+            int byDate = loadingDate.compareTo(other.loadingDate);
+            return byDate != 0 ? byDate : loadId.compareTo(other.loadId);
+        }
+    }
+
+    /**
+     * Immutable snapshot of an indexed load, with its points and truck type
+     * already normalized.
+     */
+    public static final class OpenLoad {
+        private final UUID loadId;
+        private final String origin;
+        private final String destination;
+        private final LocalDateTime loadingDate;
+        private final String truckType;
+        private final double weight;
+        private final int noOfTrucks;
+
+        private OpenLoad(LoadChange change) {
+            this.loadId = change.getLoadId();
+            this.origin = normalize(change.getOrigin());
+            this.destination = normalize(change.getDestination());
+            this.loadingDate = change.getLoadingDate();
+            this.truckType = normalize(change.getTruckType());
+            this.weight = change.getWeight();
+            this.noOfTrucks = change.getNoOfTrucks();
+        }
+
+        public UUID getLoadId() {
+            return loadId;
+        }
+
+        public String getOrigin() {
+            return origin;
+        }
+
+        public String getDestination() {
+            return destination;
+        }
+
+        public LocalDateTime getLoadingDate() {
+            return loadingDate;
+        }
+
+        public String getTruckType() {
+            return truckType;
+        }
+
+        public double getWeight() {
+            return weight;
+        }
+
+        public int getNoOfTrucks() {
+            return noOfTrucks;
+        }
+
+        private String laneKey() {
+            return origin + SEPARATOR + destination;
+        }
+
+        private Slot slot() {
+            return new Slot(loadingDate, loadId);
+        }
+    }
+
+    private static final class Index {
+        private final ConcurrentMap<String, ConcurrentSkipListMap<Slot, OpenLoad>> lanes = new ConcurrentHashMap<>();
+        private final ConcurrentMap<String, ConcurrentSkipListMap<Slot, OpenLoad>> truckTypes = new ConcurrentHashMap<>();
+        private final ConcurrentMap<UUID, OpenLoad> loads = new ConcurrentHashMap<>();
+
+        void apply(LoadChange change) {
+            OpenLoad previous = loads.remove(change.getLoadId());
+            if (previous != null) {
+                remove(lanes, previous.laneKey(), previous);
+                remove(truckTypes, previous.truckType, previous);
+            }
+            if (!isIndexable(change)) {
+                return;
+            }
+
+            OpenLoad load = new OpenLoad(change);
+            lanes.computeIfAbsent(load.laneKey(), key -> new ConcurrentSkipListMap<>()).put(load.slot(), load);
+            truckTypes.computeIfAbsent(load.truckType, key -> new ConcurrentSkipListMap<>()).put(load.slot(), load);
+            loads.put(load.loadId, load);
+        }
+
+        private static void remove(ConcurrentMap<String, ConcurrentSkipListMap<Slot, OpenLoad>> groups, String key,
+                OpenLoad load) {
+            ConcurrentSkipListMap<Slot, OpenLoad> group = groups.get(key);
+            if (group != null) {
+                group.remove(load.slot());
+                if (group.isEmpty()) {
+                    groups.remove(key, group);
+                }
+            }
+        }
+
+        List<UUID> search(String laneKey, LocalDateTime start, LocalDateTime end, int limit) {
+            NavigableMap<Slot, OpenLoad> window = window(lanes.get(laneKey), start, end);
+            List<UUID> ids = new ArrayList<>(Math.min(limit, 64));
+            for (Slot slot : window.keySet()) {
+                if (ids.size() == limit) {
+                    break;
+                }
+                ids.add(slot.loadId);
+            }
+            return ids;
+        }
+
+        List<OpenLoad> openLoads(String truckType, LocalDateTime start, LocalDateTime end) {
+            return new ArrayList<>(window(truckTypes.get(truckType), start, end).values());
+        }
+
+        private static NavigableMap<Slot, OpenLoad> window(NavigableMap<Slot, OpenLoad> group,
+                LocalDateTime start, LocalDateTime end) {
+            if (group == null) {
+                return Collections.emptyNavigableMap();
+            }
+            NavigableMap<Slot, OpenLoad> window = group;
+            if (start != null) {
+                window = window.tailMap(new Slot(start, MIN_ID), true);
+            }
+            if (end != null) {
+                window = window.headMap(new Slot(end, MIN_ID), false);
+            }
+            return window;
+        }
+
+        int size() {
+            return loads.size();
+        }
+    }
+}
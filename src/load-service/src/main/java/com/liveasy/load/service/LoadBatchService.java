@@ -0,0 +1,248 @@
+
+package com.liveasy.load.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.liveasy.common.events.LoadStatusChangedEvent;
+import com.liveasy.load.dto.LoadBatchResult;
+import com.liveasy.load.model.Facility;
+import com.liveasy.load.model.Load;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Bulk load posting. Items are read from the request body as they arrive and
+ * written in chunks: one JDBC batch for the loads and one for their outbox
+ * events per transaction, and one pipelined index update per chunk.
+ */
+@Service
+public class LoadBatchService {
+
+    private static final Logger logger = LoggerFactory.getLogger(LoadBatchService.class);
+
+    private static final String TOPIC = "load-status-changes";
+
+    private static final String INSERT_LOAD = "INSERT INTO loads (id, shipper_id, loading_point, unloading_point, "
+            + "loading_date, unloading_date, product_type, truck_type, no_of_trucks, weight, comment, date_posted, status) "
+            + "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private static final String INSERT_OUTBOX = "INSERT INTO outbox_events (topic, aggregate_id, payload, created_at) "
+            + "VALUES (?, ?, ?, ?)";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private LoadIndexService loadIndexService;
+
+    @Autowired
+    private LoadChangeBroadcaster loadChangeBroadcaster;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${load.batch.chunk-size:500}")
+    private int chunkSize;
+
+    @Value("${load.batch.max-items:10000}")
+    private int maxItems;
+
+    public List<LoadBatchResult> createLoads(InputStream body, boolean ndjson, String shipperId) throws IOException {
+        ChunkWriter writer = new ChunkWriter(shipperId);
+        ObjectReader reader = objectMapper.readerFor(Load.class);
+
+        if (ndjson) {
+            // One load per line; a bad line fails only that item
+            BufferedReader lines = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8));
+            String line;
+            int index = 0;
+            while ((line = lines.readLine()) != null) {
+                if (line.isBlank()) {
+                    continue;
+                }
+                if (index >= maxItems) {
+                    writer.reject(limitExceeded(index));
+                    break;
+                }
+                try {
+                    writer.add(index, reader.readValue(line));
+                } catch (JsonProcessingException e) {
+                    writer.reject(LoadBatchResult.failed(index, "Malformed load: " + e.getOriginalMessage()));
+                }
+                index++;
+            }
+        } else {
+            // A top-level JSON array is iterated element by element, never fully materialized
+            try (MappingIterator<Load> loads = reader.readValues(body)) {
+                int index = 0;
+                try {
+                    while (loads.hasNextValue()) {
+                        if (index >= maxItems) {
+                            writer.reject(limitExceeded(index));
+                            break;
+                        }
+                        try {
+                            writer.add(index, loads.nextValue());
+                        } catch (JsonMappingException e) {
+                            // Well-formed but not a load: the iterator skips past it, so only this item fails
+                            writer.reject(LoadBatchResult.failed(index, "Malformed load: " + e.getOriginalMessage()));
+                        }
+                        index++;
+                    }
+                } catch (JsonParseException e) {
+                    // Broken JSON has no next element to resume at; keep the items read so far
+                    writer.reject(LoadBatchResult.failed(index, "Malformed JSON: " + e.getOriginalMessage()
+                            + "; remaining items were not processed"));
+                }
+            }
+        }
+
+        writer.flush();
+        logger.info("Bulk posted {} of {} loads for shipper {}", writer.created, writer.results.size(), shipperId);
+        return writer.results;
+    }
+
+    private LoadBatchResult limitExceeded(int index) {
+        return LoadBatchResult.failed(index, "Batch limit of " + maxItems + " loads exceeded; remaining items were not processed");
+    }
+
+    private String validate(Load load) {
+        if (load == null) {
+            return "Load is empty";
+        }
+        Facility facility = load.getFacility();
+        if (facility == null || facility.getLoadingPoint() == null || facility.getUnloadingPoint() == null) {
+            return "Loading and unloading points are required";
+        }
+        if (load.getNoOfTrucks() <= 0 || load.getWeight() <= 0) {
+            return "noOfTrucks and weight must be positive";
+        }
+        return null;
+    }
+
+    private void insert(List<Load> chunk) {
+        LocalDateTime now = LocalDateTime.now();
+        List<Object[]> loadRows = new ArrayList<>(chunk.size());
+        List<Object[]> outboxRows = new ArrayList<>(chunk.size());
+
+        for (Load load : chunk) {
+            Facility facility = load.getFacility();
+            loadRows.add(new Object[] {
+                load.getId(), load.getShipperId(), facility.getLoadingPoint(), facility.getUnloadingPoint(),
+                toTimestamp(facility.getLoadingDate()), toTimestamp(facility.getUnloadingDate()),
+                load.getProductType(), load.getTruckType(), load.getNoOfTrucks(), load.getWeight(),
+                load.getComment(), toTimestamp(load.getDatePosted()), load.getStatus().name()
+            });
+            outboxRows.add(new Object[] {
+                TOPIC, load.getId().toString(), toJson(new LoadStatusChangedEvent(load.getId(), load.getStatus().name())),
+                Timestamp.valueOf(now)
+            });
+        }
+
+        transactionTemplate.executeWithoutResult(status -> {
+            jdbcTemplate.batchUpdate(INSERT_LOAD, loadRows);
+            jdbcTemplate.batchUpdate(INSERT_OUTBOX, outboxRows);
+        });
+    }
+
+    private String toJson(LoadStatusChangedEvent event) {
+        try {
+            return objectMapper.writeValueAsString(event);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize event for load " + event.getLoadId(), e);
+        }
+    }
+
+    private static Timestamp toTimestamp(LocalDateTime dateTime) {
+        return dateTime == null ? null : Timestamp.valueOf(dateTime);
+    }
+
+    // Accumulates validated loads and writes them a chunk at a time
+    private class ChunkWriter {
+        private final String shipperId;
+        private final List<LoadBatchResult> results = new ArrayList<>();
+        private final List<Load> chunk = new ArrayList<>();
+        private final List<LoadBatchResult> pending = new ArrayList<>();
+        private int created;
+
+        ChunkWriter(String shipperId) {
+            this.shipperId = shipperId;
+        }
+
+        void add(int index, Load load) {
+            String error = validate(load);
+            if (error != null) {
+                reject(LoadBatchResult.failed(index, error));
+                return;
+            }
+
+            load.setId(UUID.randomUUID());
+            load.setShipperId(shipperId);
+            load.setStatus(Load.LoadStatus.POSTED);
+            load.setDatePosted(LocalDateTime.now());
+
+            LoadBatchResult result = new LoadBatchResult(index);
+            result.setLoadId(load.getId());
+            results.add(result);
+            pending.add(result);
+            chunk.add(load);
+
+            if (chunk.size() >= chunkSize) {
+                flush();
+            }
+        }
+
+        void reject(LoadBatchResult result) {
+            results.add(result);
+        }
+
+        void flush() {
+            if (chunk.isEmpty()) {
+                return;
+            }
+            try {
+                insert(chunk);
+                loadIndexService.onCreatedAll(chunk);
+                loadChangeBroadcaster.onChangedAll(chunk);
+                for (LoadBatchResult result : pending) {
+                    result.setStatus(LoadBatchResult.Status.CREATED);
+                }
+                created += chunk.size();
+            } catch (Exception e) {
+                logger.error("Bulk load chunk of {} failed: {}", chunk.size(), e.getMessage());
+                for (LoadBatchResult result : pending) {
+                    result.setLoadId(null);
+                    result.setStatus(LoadBatchResult.Status.FAILED);
+                    result.setError("Insert failed: " + e.getMessage());
+                }
+            }
+            chunk.clear();
+            pending.clear();
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package com.liveasy.load.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.liveasy.load.dto.LoadChange;
+import com.liveasy.load.model.Load;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Feeds committed load writes to every {@link LoadChangeListener} on every
+ * node: applied locally after commit, then broadcast over Redis pub/sub.
+ * Delivery is best effort; each listener has its own rebuild to repair a
+ * node that missed a message.
+ */
+@Service
+public class LoadChangeBroadcaster implements MessageListener {
+
+    private static final Logger logger = LoggerFactory.getLogger(LoadChangeBroadcaster.class);
+
+    public static final String CHANNEL = "load-changes";
+
+    private static final String SEPARATOR = "\n";
+    private static final TypeReference<List<LoadChange>> CHANGES = new TypeReference<List<LoadChange>>() {
+    };
+
+    @Autowired
+    private StringRedisTemplate redisTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private List<LoadChangeListener> listeners;
+
+    // Lets a node ignore its own broadcasts
+    private final String nodeId = UUID.randomUUID().toString();
+
+    public void onChanged(Load load) {
+        publish(Collections.singletonList(LoadChange.of(load)));
+    }
+
+    public void onChangedAll(List<Load> loads) {
+        publish(loads.stream().map(LoadChange::of).collect(Collectors.toList()));
+    }
+
+    public void onDeleted(UUID loadId) {
+        publish(Collections.singletonList(LoadChange.removed(loadId)));
+    }
+
+    private void publish(List<LoadChange> changes) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            applyAndBroadcast(changes);
+            return;
+        }
+        // Only index what commits
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                applyAndBroadcast(changes);
+            }
+        });
+    }
+
+    private void applyAndBroadcast(List<LoadChange> changes) {
+        apply(changes);
+        try {
+            redisTemplate.convertAndSend(CHANNEL, nodeId + SEPARATOR + objectMapper.writeValueAsString(changes));
+        } catch (Exception e) {
+            logger.warn("Failed to broadcast {} load changes: {}", changes.size(), e.getMessage());
+        }
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String[] parts = new String(message.getBody(), StandardCharsets.UTF_8).split(SEPARATOR, 2);
+        if (parts.length != 2 || nodeId.equals(parts[0])) {
+            return;
+        }
+        try {
+            apply(objectMapper.readValue(parts[1], CHANGES));
+        } catch (Exception e) {
+            logger.warn("Ignoring unreadable load change message: {}", e.getMessage());
+        }
+    }
+
+    private void apply(List<LoadChange> changes) {
+        for (LoadChangeListener listener : listeners) {
+            try {
+                listener.apply(changes);
+            } catch (Exception e) {
+                // One broken index mustn't starve the others
+                logger.error("{} failed to apply {} load changes: {}", listener.getClass().getSimpleName(),
+                        changes.size(), e.getMessage());
+            }
+        }
+    }
+}
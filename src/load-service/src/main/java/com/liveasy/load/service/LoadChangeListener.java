@@ -0,0 +1,14 @@
+package com.liveasy.load.service;
+
+import java.util.List;
+
+import com.liveasy.load.dto.LoadChange;
+
+/**
+ * An in-process index fed by {@link LoadChangeBroadcaster}. Changes arrive
+ * after commit, from this node or any other, and may repeat.
+ */
+public interface LoadChangeListener {
+
+    void apply(List<LoadChange> changes);
+}
@@ -0,0 +1,429 @@
+
+package com.liveasy.load.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.redis.connection.RedisZSetCommands;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ZSetOperations;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.liveasy.load.model.Load;
+import com.liveasy.load.repository.LoadRepository;
+import com.liveasy.load.util.LoadCursor;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Materialized load ID sets per shipperId, truckType and status, kept in Redis
+ * so every node serves filtered lists without querying Postgres. Writes only
+ * touch the sets whose membership actually changes, and only after the
+ * transaction commits; a periodic reconcile repairs any that were lost, and
+ * rebuilds the sets from scratch if Redis lost them. Until a build has
+ * finished {@link #isReady()} is false and the lists come from Postgres.
+ * Each set is a sorted set with every score 0, whose members sort
+ * lexicographically newest first, so pages are read with ZRANGEBYLEX after
+ * the previous page's last member.
+ */
+@Service
+public class LoadIndexService {
+
+    private static final Logger logger = LoggerFactory.getLogger(LoadIndexService.class);
+
+    private static final String PREFIX = "loads:index:";
+    private static final String SHIPPER = "shipper:";
+    private static final String TRUCK_TYPE = "truckType:";
+    private static final String STATUS = "status:";
+    private static final String READY_KEY = PREFIX + "ready";
+    private static final String REBUILD_LOCK_KEY = PREFIX + "rebuilding";
+    private static final int REBUILD_BATCH_SIZE = 1000;
+    private static final String SEPARATOR = "|";
+
+    @Autowired
+    private StringRedisTemplate redisTemplate;
+
+    @Autowired
+    private LoadRepository loadRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    // False while the sets are missing or still being built; Redis errors count as not ready
+    public boolean isReady() {
+        try {
+            return Boolean.TRUE.equals(redisTemplate.hasKey(READY_KEY));
+        } catch (RuntimeException e) {
+            logger.warn("Failed to check load index: {}", e.getMessage());
+            return false;
+        }
+    }
+
+    public IdPage getLoadIdsByShipperId(String shipperId, String cursor, int limit) {
+        return page(SHIPPER + shipperId, cursor, limit);
+    }
+
+    public IdPage getLoadIdsByTruckType(String truckType, String cursor, int limit) {
+        return page(TRUCK_TYPE + truckType, cursor, limit);
+    }
+
+    public IdPage getLoadIdsByStatus(Load.LoadStatus status, String cursor, int limit) {
+        return page(STATUS + status, cursor, limit);
+    }
+
+    public void onCreated(Load load) {
+        String member = member(load);
+        List<String> sets = setsOf(load);
+        afterCommit(() -> {
+            for (String set : sets) {
+                redisTemplate.opsForZSet().add(PREFIX + set, member, 0);
+            }
+        });
+    }
+
+    // Bulk posting: one pipelined round trip for the whole chunk
+    public void onCreatedAll(List<Load> loads) {
+        List<Load> batch = new ArrayList<>(loads);
+        afterCommit(() -> indexBatch(batch));
+    }
+
+    public void onTruckTypeChanged(Load load, String oldTruckType) {
+        String newTruckType = load.getTruckType();
+        if (Objects.equals(oldTruckType, newTruckType)) {
+            return;
+        }
+        String member = member(load);
+        afterCommit(() -> {
+            if (oldTruckType != null) {
+                redisTemplate.opsForZSet().remove(PREFIX + TRUCK_TYPE + oldTruckType, member);
+            }
+            if (newTruckType != null) {
+                redisTemplate.opsForZSet().add(PREFIX + TRUCK_TYPE + newTruckType, member, 0);
+            }
+        });
+    }
+
+    // For transitions where the previous status was not read: clear every other status set
+    public void onStatusSet(Load load) {
+        String member = member(load);
+        Load.LoadStatus newStatus = load.getStatus();
+        afterCommit(() -> {
+            for (Load.LoadStatus status : Load.LoadStatus.values()) {
+                if (status != newStatus) {
+                    redisTemplate.opsForZSet().remove(PREFIX + STATUS + status, member);
+                }
+            }
+            redisTemplate.opsForZSet().add(PREFIX + STATUS + newStatus, member, 0);
+        });
+    }
+
+    public void onDeleted(Load load) {
+        String member = member(load);
+        List<String> sets = setsOf(load);
+        afterCommit(() -> {
+            for (String set : sets) {
+                redisTemplate.opsForZSet().remove(PREFIX + set, member);
+            }
+        });
+    }
+
+    // Only index what commits; values are captured now, the write runs once the transaction is durable
+    private void afterCommit(Runnable write) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            applySafely(write);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                applySafely(write);
+            }
+        });
+    }
+
+    // The write has committed either way; reconcile repairs a lost index update
+    private void applySafely(Runnable write) {
+        try {
+            write.run();
+        } catch (RuntimeException e) {
+            logger.warn("Failed to update load index, reconcile will repair it: {}", e.getMessage());
+        }
+    }
+
+    private static List<String> setsOf(Load load) {
+        List<String> sets = new ArrayList<>(3);
+        sets.add(SHIPPER + load.getShipperId());
+        if (load.getTruckType() != null) {
+            sets.add(TRUCK_TYPE + load.getTruckType());
+        }
+        sets.add(STATUS + load.getStatus());
+        return sets;
+    }
+
+    private IdPage page(String set, String cursor, int limit) {
+        RedisZSetCommands.Range range = RedisZSetCommands.Range.range();
+        if (cursor != null && !cursor.isEmpty()) {
+            LoadCursor after = LoadCursor.decode(cursor);
+            range = range.gt(member(after.getDatePosted(), after.getId()));
+        }
+        // One extra member tells whether another page exists
+        Set<String> members = redisTemplate.opsForZSet().rangeByLex(PREFIX + set, range,
+                RedisZSetCommands.Limit.limit().count(limit + 1));
+        List<String> page = members == null ? List.of() : new ArrayList<>(members);
+
+        String nextCursor = null;
+        if (page.size() > limit) {
+            page = page.subList(0, limit);
+            nextCursor = cursorOf(page.get(limit - 1));
+        }
+        List<UUID> ids = new ArrayList<>(page.size());
+        for (String member : page) {
+            ids.add(idOf(member));
+        }
+        return new IdPage(ids, nextCursor);
+    }
+
+    private static String member(Load load) {
+        return member(load.getDatePosted(), load.getId());
+    }
+
+    /**
+     * Inverted datePosted in microseconds, zero-padded, then the id: lexical
+     * order is newest first. Rounded to microseconds the way the JDBC driver
+     * rounds for Postgres, so a freshly saved entity and one read back from
+     * the database map to the same member.
+     */
+    private static String member(LocalDateTime datePosted, UUID id) {
+        long micros = 0;
+        if (datePosted != null) {
+            LocalDateTime rounded = datePosted.plusNanos(500).truncatedTo(ChronoUnit.MICROS);
+            micros = Math.max(0, rounded.toEpochSecond(ZoneOffset.UTC) * 1_000_000 + rounded.getNano() / 1_000);
+        }
+        return String.format("%019d", Long.MAX_VALUE - micros) + SEPARATOR + id;
+    }
+
+    private static UUID idOf(String member) {
+        return UUID.fromString(member.substring(member.indexOf(SEPARATOR) + 1));
+    }
+
+    private static String cursorOf(String member) {
+        int idx = member.indexOf(SEPARATOR);
+        long micros = Long.MAX_VALUE - Long.parseLong(member.substring(0, idx));
+        LocalDateTime datePosted = LocalDateTime.ofEpochSecond(micros / 1_000_000,
+                (int) (micros % 1_000_000) * 1_000, ZoneOffset.UTC);
+        return LoadCursor.encode(datePosted, UUID.fromString(member.substring(idx + 1)));
+    }
+
+    // Build the sets once per cluster; afterwards they are maintained incrementally
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildIfMissing() {
+        if (isReady()) {
+            return;
+        }
+        Boolean acquired = redisTemplate.opsForValue().setIfAbsent(REBUILD_LOCK_KEY, "1", Duration.ofMinutes(10));
+        if (!Boolean.TRUE.equals(acquired)) {
+            logger.info("Load index rebuild already running on another node");
+            return;
+        }
+
+        try {
+            rebuild();
+        } finally {
+            redisTemplate.delete(REBUILD_LOCK_KEY);
+        }
+    }
+
+    /**
+     * Repairs drift from index updates that never landed (a crash between
+     * commit and afterCommit, a Redis error): re-adds every load to its sets,
+     * then sweeps each set and drops members whose load is gone or has moved.
+     * A write committing mid-pass may be missed; the next pass settles it.
+     * If the sets are gone altogether (Redis flushed or replaced), this is the
+     * full build instead.
+     */
+    @Scheduled(initialDelayString = "${load.index.reconcile-interval-ms:900000}",
+            fixedDelayString = "${load.index.reconcile-interval-ms:900000}")
+    public void reconcile() {
+        Boolean acquired = redisTemplate.opsForValue().setIfAbsent(REBUILD_LOCK_KEY, "1", Duration.ofMinutes(10));
+        if (!Boolean.TRUE.equals(acquired)) {
+            return;
+        }
+
+        try {
+            if (!isReady()) {
+                rebuild();
+                return;
+            }
+            long indexed = indexAll();
+            long removed = sweep();
+            logger.info("Reconciled load index: {} loads indexed, {} stale members removed", indexed, removed);
+        } catch (RuntimeException e) {
+            logger.error("Load index reconcile failed: {}", e.getMessage());
+        } finally {
+            redisTemplate.delete(REBUILD_LOCK_KEY);
+        }
+    }
+
+    // Caller holds the rebuild lock. Sets written incrementally since the loss are only partial,
+    // so nothing is served from them until READY is set here.
+    private void rebuild() {
+        logger.info("Rebuilding load index from database");
+        long count = indexAll();
+        redisTemplate.opsForValue().set(READY_KEY, "1");
+        logger.info("Rebuilt load index with {} loads", count);
+    }
+
+    private long indexAll() {
+        long[] count = {0};
+        transactionTemplate.executeWithoutResult(status -> {
+            try (Stream<Load> loads = loadRepository.streamAll()) {
+                List<Load> batch = new ArrayList<>(REBUILD_BATCH_SIZE);
+                loads.forEach(load -> {
+                    batch.add(load);
+                    if (batch.size() == REBUILD_BATCH_SIZE) {
+                        count[0] += indexBatch(batch);
+                        batch.clear();
+                        entityManager.clear();
+                    }
+                });
+                count[0] += indexBatch(batch);
+            }
+        });
+        return count[0];
+    }
+
+    private long sweep() {
+        List<String> sets = new ArrayList<>();
+        redisTemplate.execute((RedisCallback<Void>) connection -> {
+            ScanOptions options = ScanOptions.scanOptions().match(PREFIX + "*").count(REBUILD_BATCH_SIZE).build();
+            try (Cursor<byte[]> keys = connection.scan(options)) {
+                keys.forEachRemaining(key -> {
+                    String set = new String(key, StandardCharsets.UTF_8).substring(PREFIX.length());
+                    if (set.startsWith(SHIPPER) || set.startsWith(TRUCK_TYPE) || set.startsWith(STATUS)) {
+                        sets.add(set);
+                    }
+                });
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            return null;
+        });
+
+        long removed = 0;
+        ScanOptions options = ScanOptions.scanOptions().count(REBUILD_BATCH_SIZE).build();
+        for (String set : sets) {
+            List<String> batch = new ArrayList<>(REBUILD_BATCH_SIZE);
+            try (Cursor<ZSetOperations.TypedTuple<String>> members = redisTemplate.opsForZSet().scan(PREFIX + set, options)) {
+                while (members.hasNext()) {
+                    batch.add(members.next().getValue());
+                    if (batch.size() == REBUILD_BATCH_SIZE) {
+                        removed += sweepBatch(set, batch);
+                        batch.clear();
+                    }
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            removed += sweepBatch(set, batch);
+        }
+        return removed;
+    }
+
+    // Checked against a fresh read, so a member whose afterCommit is still pending is judged on committed state
+    private int sweepBatch(String set, List<String> members) {
+        if (members.isEmpty()) {
+            return 0;
+        }
+        List<UUID> ids = new ArrayList<>(members.size());
+        for (String member : members) {
+            ids.add(idOf(member));
+        }
+        Map<UUID, Load> loads = new HashMap<>();
+        for (Load load : loadRepository.findAllById(ids)) {
+            loads.put(load.getId(), load);
+        }
+
+        List<Object> stale = new ArrayList<>();
+        for (String member : members) {
+            Load load = loads.get(idOf(member));
+            if (load == null || !member.equals(member(load)) || !setsOf(load).contains(set)) {
+                stale.add(member);
+            }
+        }
+        if (!stale.isEmpty()) {
+            redisTemplate.opsForZSet().remove(PREFIX + set, stale.toArray());
+        }
+        return stale.size();
+    }
+
+    private int indexBatch(List<Load> batch) {
+        int size = batch.size();
+        if (size > 0) {
+            redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                for (Load load : batch) {
+                    byte[] member = member(load).getBytes(StandardCharsets.UTF_8);
+                    connection.zAdd((PREFIX + SHIPPER + load.getShipperId()).getBytes(StandardCharsets.UTF_8), 0, member);
+                    if (load.getTruckType() != null) {
+                        connection.zAdd((PREFIX + TRUCK_TYPE + load.getTruckType()).getBytes(StandardCharsets.UTF_8), 0,
+                                member);
+                    }
+                    connection.zAdd((PREFIX + STATUS + load.getStatus()).getBytes(StandardCharsets.UTF_8), 0, member);
+                }
+                return null;
+            });
+        }
+        return size;
+    }
+
+    /**
+     * One page of IDs from an index, in datePosted order, with the cursor for
+     * the next page or null on the last one.
+     */
+    public static final class IdPage {
+        private final List<UUID> ids;
+        private final String nextCursor;
+
+        IdPage(List<UUID> ids, String nextCursor) {
+            this.ids = ids;
+            this.nextCursor = nextCursor;
+        }
+
+        public List<UUID> getIds() {
+            return ids;
+        }
+
+        public String getNextCursor() {
+            return nextCursor;
+        }
+    }
+}
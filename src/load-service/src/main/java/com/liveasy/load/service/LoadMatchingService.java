@@ -0,0 +1,250 @@
+package com.liveasy.load.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.liveasy.load.dto.LoadMatch;
+import com.liveasy.load.dto.TruckProfile;
+import com.liveasy.load.model.Load;
+import com.liveasy.load.service.LaneIndexService.OpenLoad;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ForkJoinPool;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Ranks open loads for a truck profile. Candidates come from the in-memory
+ * truckType index, limited to the date window the truck can serve; each is
+ * scored on lane fit (loads from the truck's current location), date
+ * proximity and capacity fit, and a bounded heap keeps the top K. Large
+ * candidate sets are split across a dedicated pool, one heap per slice.
+ */
+@Service
+public class LoadMatchingService {
+
+    private static final Logger logger = LoggerFactory.getLogger(LoadMatchingService.class);
+
+    // Lowest score first, so the heap head is the candidate to drop
+    private static final Comparator<Candidate> BY_SCORE = Comparator.comparingDouble((Candidate c) -> c.score)
+            .thenComparing((Candidate c) -> c.load.getLoadingDate(), Comparator.reverseOrder())
+            .thenComparing(c -> c.load.getLoadId());
+
+    @Autowired
+    private LaneIndexService laneIndexService;
+
+    @Autowired
+    private LoadService loadService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${load.match.max-results:50}")
+    private int maxResults;
+
+    @Value("${load.match.max-days-ahead:14}")
+    private int maxDaysAhead;
+
+    @Value("${load.match.weights.lane:0.5}")
+    private double laneWeight;
+
+    @Value("${load.match.weights.date:0.3}")
+    private double dateWeight;
+
+    @Value("${load.match.weights.capacity:0.2}")
+    private double capacityWeight;
+
+    // Below this many candidates forking costs more than it saves
+    @Value("${load.match.parallel-threshold:4096}")
+    private int parallelThreshold;
+
+    // 0 means one worker per core
+    @Value("${load.match.parallelism:0}")
+    private int parallelism;
+
+    private ForkJoinPool matchPool;
+    private Timer matchTimer;
+    private DistributionSummary candidateCounts;
+
+    @PostConstruct
+    public void init() {
+        if (parallelism <= 0) {
+            parallelism = Runtime.getRuntime().availableProcessors();
+        }
+        matchPool = new ForkJoinPool(parallelism);
+        matchTimer = Timer.builder("load.match")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        candidateCounts = DistributionSummary.builder("load.match.candidates")
+                .register(meterRegistry);
+        logger.info("Load matching using {} workers above {} candidates", parallelism, parallelThreshold);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        matchPool.shutdown();
+    }
+
+    /**
+     * Returns up to {@code limit} POSTED loads the truck can carry, best first.
+     */
+    public List<LoadMatch> match(TruckProfile profile, Integer limit) {
+        validate(profile);
+        int k = limit == null ? maxResults : Math.max(1, Math.min(limit, maxResults));
+        return matchTimer.record(() -> rank(profile, k));
+    }
+
+    private List<LoadMatch> rank(TruckProfile profile, int k) {
+        Query query = new Query(profile, maxDaysAhead);
+        List<OpenLoad> candidates = laneIndexService.getOpenLoads(profile.getTruckType(), query.start, query.end);
+        candidateCounts.record(candidates.size());
+
+        List<Candidate> top = candidates.size() < parallelThreshold
+                ? topK(candidates, 0, candidates.size(), query, k)
+                : parallelTopK(candidates, query, k);
+        top.sort(BY_SCORE.reversed());
+
+        List<UUID> ids = new ArrayList<>(top.size());
+        for (Candidate candidate : top) {
+            ids.add(candidate.load.getLoadId());
+        }
+        Map<UUID, Load> loads = new HashMap<>();
+        for (Load load : loadService.resolveLoads(ids)) {
+            loads.put(load.getId(), load);
+        }
+
+        List<LoadMatch> matches = new ArrayList<>(top.size());
+        for (Candidate candidate : top) {
+            Load load = loads.get(candidate.load.getLoadId());
+            // Deleted between the index lookup and now
+            if (load != null) {
+                matches.add(new LoadMatch(load, candidate.score, candidate.laneScore, candidate.dateScore,
+                        candidate.capacityScore));
+            }
+        }
+        return matches;
+    }
+
+    private List<Candidate> parallelTopK(List<OpenLoad> candidates, Query query, int k) {
+        int sliceSize = (candidates.size() + parallelism - 1) / parallelism;
+        List<CompletableFuture<List<Candidate>>> slices = new ArrayList<>(parallelism);
+        for (int from = 0; from < candidates.size(); from += sliceSize) {
+            int start = from;
+            int end = Math.min(from + sliceSize, candidates.size());
+            slices.add(CompletableFuture.supplyAsync(() -> topK(candidates, start, end, query, k), matchPool));
+        }
+
+        PriorityQueue<Candidate> heap = new PriorityQueue<>(k + 1, BY_SCORE);
+        for (CompletableFuture<List<Candidate>> slice : slices) {
+            for (Candidate candidate : slice.join()) {
+                offer(heap, candidate, k);
+            }
+        }
+        return new ArrayList<>(heap);
+    }
+
+    private List<Candidate> topK(List<OpenLoad> candidates, int from, int to, Query query, int k) {
+        PriorityQueue<Candidate> heap = new PriorityQueue<>(k + 1, BY_SCORE);
+        for (int i = from; i < to; i++) {
+            Candidate candidate = score(candidates.get(i), query);
+            if (candidate != null) {
+                offer(heap, candidate, k);
+            }
+        }
+        return new ArrayList<>(heap);
+    }
+
+    private static void offer(PriorityQueue<Candidate> heap, Candidate candidate, int k) {
+        if (heap.size() < k) {
+            heap.add(candidate);
+        } else if (BY_SCORE.compare(candidate, heap.peek()) > 0) {
+            heap.poll();
+            heap.add(candidate);
+        }
+    }
+
+    // Null if the truck can't carry the load
+    private Candidate score(OpenLoad load, Query query) {
+        int loadTrucks = Math.max(1, load.getNoOfTrucks());
+        double weightPerTruck = load.getWeight() / loadTrucks;
+        if (weightPerTruck > query.capacity) {
+            return null;
+        }
+
+        // Fuller trucks and covering more of the requested trucks both score higher
+        double capacityScore = (weightPerTruck / query.capacity) * Math.min(query.trucks, loadTrucks) / loadTrucks;
+        double laneScore = query.location.equals(load.getOrigin()) ? 1.0 : 0.0;
+        double hoursAhead = Duration.between(query.start, load.getLoadingDate()).toMinutes() / 60.0;
+        double dateScore = Math.max(0.0, 1.0 - hoursAhead / query.windowHours);
+
+        double score = laneWeight * laneScore + dateWeight * dateScore + capacityWeight * capacityScore;
+        return new Candidate(load, score, laneScore, dateScore, capacityScore);
+    }
+
+    private static void validate(TruckProfile profile) {
+        if (profile.getTruckType() == null || profile.getTruckType().isEmpty()) {
+            throw new IllegalArgumentException("truckType is required");
+        }
+        if (profile.getCapacity() <= 0) {
+            throw new IllegalArgumentException("capacity must be positive");
+        }
+        if (profile.getNoOfTrucks() <= 0) {
+            throw new IllegalArgumentException("noOfTrucks must be positive");
+        }
+        if (profile.getAvailableDate() == null) {
+            throw new IllegalArgumentException("availableDate is required");
+        }
+    }
+
+    private static final class Query {
+        private final String location;
+        private final double capacity;
+        private final int trucks;
+        private final LocalDateTime start;
+        private final LocalDateTime end;
+        private final double windowHours;
+
+        private Query(TruckProfile profile, int maxDaysAhead) {
+            this.location = LaneIndexService.normalize(profile.getCurrentLocation());
+            this.capacity = profile.getCapacity();
+            this.trucks = profile.getNoOfTrucks();
+            this.start = profile.getAvailableDate().atStartOfDay();
+            this.end = start.plusDays(maxDaysAhead + 1L);
+            this.windowHours = Duration.between(start, end).toHours();
+        }
+    }
+
+    private static final class Candidate {
+        private final OpenLoad load;
+        private final double score;
+        private final double laneScore;
+        private final double dateScore;
+        private final double capacityScore;
+
+        private Candidate(OpenLoad load, double score, double laneScore, double dateScore, double capacityScore) {
+            this.load = load;
+            this.score = score;
+            this.laneScore = laneScore;
+            this.dateScore = dateScore;
+            this.capacityScore = capacityScore;
+        }
+    }
+}
@@ -0,0 +1,340 @@
+package com.liveasy.load.service;
+
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.analysis.standard.StandardAnalyzer;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.LongPoint;
+import org.apache.lucene.document.StringField;
+import org.apache.lucene.document.TextField;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.queryparser.classic.MultiFieldQueryParser;
+import org.apache.lucene.queryparser.classic.ParseException;
+import org.apache.lucene.queryparser.classic.QueryParser;
+import org.apache.lucene.search.BooleanClause;
+import org.apache.lucene.search.BooleanQuery;
+import org.apache.lucene.search.ControlledRealTimeReopenThread;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.ScoreDoc;
+import org.apache.lucene.search.SearcherManager;
+import org.apache.lucene.search.TermQuery;
+import org.apache.lucene.search.TopDocs;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.store.FSDirectory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.liveasy.load.dto.LoadChange;
+import com.liveasy.load.model.Load;
+import com.liveasy.load.repository.LoadRepository;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Embedded Lucene index over productType and comment, kept on local disk.
+ * Writes arrive through {@link LoadChangeBroadcaster} and become searchable
+ * within the refresh interval; status and truckType are indexed as exact
+ * terms so keyword queries can be filtered by them. Each rebuild stamps
+ * documents with a new generation, re-applies the changes that arrived
+ * while it streamed and then drops older ones, so searches keep working
+ * while it runs.
+ */
+@Service
+public class LoadSearchService implements LoadChangeListener {
+
+    private static final Logger logger = LoggerFactory.getLogger(LoadSearchService.class);
+
+    private static final String ID = "id";
+    private static final String PRODUCT_TYPE = "productType";
+    private static final String COMMENT = "comment";
+    private static final String STATUS = "status";
+    private static final String TRUCK_TYPE = "truckType";
+    private static final String GENERATION = "generation";
+
+    @Autowired
+    private LoadRepository loadRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Value("${load.text-search.index-path:${java.io.tmpdir}/load-search-index}")
+    private String indexPath;
+
+    @Value("${load.text-search.refresh-ms:500}")
+    private long refreshMs;
+
+    private final Analyzer analyzer = new StandardAnalyzer();
+    private final AtomicBoolean rebuilding = new AtomicBoolean();
+
+    private Directory directory;
+    private IndexWriter writer;
+    private SearcherManager searcherManager;
+    private ControlledRealTimeReopenThread<IndexSearcher> reopenThread;
+
+    // Stamped on every document written; a rebuild bumps it and deletes the rest
+    private volatile long generation = System.currentTimeMillis();
+
+    // Serializes incremental writes against the rebuild's replay
+    private final Object writeLock = new Object();
+    private List<LoadChange> changesDuringRebuild;
+
+    private Timer queryTimer;
+    private Timer rebuildTimer;
+
+    @PostConstruct
+    public void init() throws IOException {
+        directory = FSDirectory.open(Paths.get(indexPath));
+        writer = new IndexWriter(directory, new IndexWriterConfig(analyzer)
+                .setOpenMode(IndexWriterConfig.OpenMode.CREATE_OR_APPEND));
+        searcherManager = new SearcherManager(writer, null);
+
+        // Near-real-time: reopen at most refreshMs after a write
+        reopenThread = new ControlledRealTimeReopenThread<>(writer, searcherManager, refreshMs / 1000.0, 0.01);
+        reopenThread.setName("load-search-refresh");
+        reopenThread.setDaemon(true);
+        reopenThread.start();
+
+        queryTimer = Timer.builder("load.text_search.query")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        rebuildTimer = Timer.builder("load.text_search.rebuild")
+                .register(meterRegistry);
+        Gauge.builder("load.text_search.index.documents", this, service -> service.writer.getDocStats().numDocs)
+                .register(meterRegistry);
+        Gauge.builder("load.text_search.index.bytes", this, LoadSearchService::indexSizeBytes)
+                .register(meterRegistry);
+        logger.info("Opened load search index at {}", indexPath);
+    }
+
+    @PreDestroy
+    public void close() throws IOException {
+        reopenThread.close();
+        searcherManager.close();
+        writer.close();
+        directory.close();
+    }
+
+    /**
+     * Returns IDs of loads whose productType or comment contain every word in
+     * the query, best match first, optionally limited to a status and truckType.
+     */
+    public List<UUID> search(String text, Load.LoadStatus status, String truckType, int limit) {
+        Query query = buildQuery(text, status, truckType);
+        return queryTimer.record(() -> {
+            try {
+                IndexSearcher searcher = searcherManager.acquire();
+                try {
+                    TopDocs top = searcher.search(query, limit);
+                    List<UUID> ids = new ArrayList<>(top.scoreDocs.length);
+                    for (ScoreDoc hit : top.scoreDocs) {
+                        ids.add(UUID.fromString(searcher.doc(hit.doc).get(ID)));
+                    }
+                    return ids;
+                } finally {
+                    searcherManager.release(searcher);
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+
+    private Query buildQuery(String text, Load.LoadStatus status, String truckType) {
+        if (text == null || text.trim().isEmpty()) {
+            throw new IllegalArgumentException("q is required");
+        }
+        MultiFieldQueryParser parser = new MultiFieldQueryParser(new String[] {PRODUCT_TYPE, COMMENT}, analyzer);
+        parser.setDefaultOperator(QueryParser.Operator.AND);
+        BooleanQuery.Builder query = new BooleanQuery.Builder();
+        try {
+            // Keywords only; Lucene query syntax isn't part of the API
+            query.add(parser.parse(QueryParser.escape(text)), BooleanClause.Occur.MUST);
+        } catch (ParseException e) {
+            throw new IllegalArgumentException("Invalid search query: " + e.getMessage());
+        }
+        if (status != null) {
+            query.add(new TermQuery(new Term(STATUS, status.name())), BooleanClause.Occur.FILTER);
+        }
+        if (truckType != null) {
+            query.add(new TermQuery(new Term(TRUCK_TYPE, normalize(truckType))), BooleanClause.Occur.FILTER);
+        }
+        return query.build();
+    }
+
+    @Override
+    public void apply(List<LoadChange> changes) {
+        synchronized (writeLock) {
+            write(changes, generation);
+            if (changesDuringRebuild != null) {
+                changesDuringRebuild.addAll(changes);
+            }
+        }
+    }
+
+    private void write(List<LoadChange> changes, long generation) {
+        try {
+            for (LoadChange change : changes) {
+                Term id = new Term(ID, change.getLoadId().toString());
+                if (change.isRemoved()) {
+                    writer.deleteDocuments(id);
+                } else {
+                    writer.updateDocument(id, toDocument(change, generation));
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Re-indexes every load from Postgres. Returns the number indexed.
+     */
+    public long rebuild() {
+        if (!rebuilding.compareAndSet(false, true)) {
+            throw new IllegalStateException("Load search index rebuild already running");
+        }
+        Timer.Sample sample = Timer.start(meterRegistry);
+        try {
+            long rebuildGeneration = System.currentTimeMillis();
+            synchronized (writeLock) {
+                // Writes from here on carry the new generation too, so they survive the cleanup
+                generation = rebuildGeneration;
+                changesDuringRebuild = new ArrayList<>();
+            }
+            long[] count = {0};
+            transactionTemplate.executeWithoutResult(status -> {
+                try (Stream<Load> loads = loadRepository.streamAll()) {
+                    loads.forEach(load -> {
+                        try {
+                            writer.updateDocument(new Term(ID, load.getId().toString()),
+                                    toDocument(LoadChange.of(load), rebuildGeneration));
+                        } catch (IOException e) {
+                            throw new UncheckedIOException(e);
+                        }
+                        entityManager.detach(load);
+                        count[0]++;
+                    });
+                }
+            });
+
+            // The snapshot may have overwritten newer changes or resurrected a deleted load
+            synchronized (writeLock) {
+                write(changesDuringRebuild, rebuildGeneration);
+                changesDuringRebuild = null;
+            }
+            writer.deleteDocuments(LongPoint.newRangeQuery(GENERATION, Long.MIN_VALUE, rebuildGeneration - 1));
+            writer.commit();
+            searcherManager.maybeRefresh();
+            logger.info("Rebuilt load search index with {} loads", count[0]);
+            return count[0];
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            synchronized (writeLock) {
+                changesDuringRebuild = null;
+            }
+            sample.stop(rebuildTimer);
+            rebuilding.set(false);
+        }
+    }
+
+    // Catch up on writes made while this node was down
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildOnStartup() {
+        Thread thread = new Thread(() -> {
+            try {
+                rebuild();
+            } catch (Exception e) {
+                logger.error("Load search index rebuild failed: {}", e.getMessage());
+            }
+        }, "load-search-rebuild");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    // NRT readers don't need commits; these bound what a crash has to replay
+    @Scheduled(fixedDelayString = "${load.text-search.commit-interval-ms:30000}")
+    public void commit() {
+        try {
+            if (writer.hasUncommittedChanges()) {
+                writer.commit();
+            }
+        } catch (IOException e) {
+            logger.warn("Failed to commit load search index: {}", e.getMessage());
+        }
+    }
+
+    private static Document toDocument(LoadChange change, long generation) {
+        Document document = new Document();
+        document.add(new StringField(ID, change.getLoadId().toString(), Field.Store.YES));
+        if (change.getProductType() != null) {
+            document.add(new TextField(PRODUCT_TYPE, change.getProductType(), Field.Store.NO));
+        }
+        if (change.getComment() != null) {
+            document.add(new TextField(COMMENT, change.getComment(), Field.Store.NO));
+        }
+        if (change.getStatus() != null) {
+            document.add(new StringField(STATUS, change.getStatus().name(), Field.Store.NO));
+        }
+        if (change.getTruckType() != null) {
+            document.add(new StringField(TRUCK_TYPE, normalize(change.getTruckType()), Field.Store.NO));
+        }
+        document.add(new LongPoint(GENERATION, generation));
+        return document;
+    }
+
+    private static String normalize(String value) {
+        return value.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private double indexSizeBytes() {
+        long bytes = 0;
+        try {
+            for (String file : directory.listAll()) {
+                try {
+                    bytes += directory.fileLength(file);
+                } catch (NoSuchFileException e) {
+                    // Merged away since listAll
+                }
+            }
+        } catch (IOException e) {
+            return Double.NaN;
+        }
+        return bytes;
+    }
+}
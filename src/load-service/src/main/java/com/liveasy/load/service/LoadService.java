@@ -2,18 +2,42 @@
 package com.liveasy.load.service;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.Cacheable;
-import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import com.liveasy.load.dto.LoadPage;
+import com.liveasy.load.dto.LoadProjectionPage;
+import com.liveasy.load.exception.LoadConflictException;
 import com.liveasy.load.exception.LoadNotFoundException;
+import com.liveasy.load.exception.LoadVersionMismatchException;
 import com.liveasy.load.model.Load;
 import com.liveasy.load.repository.LoadRepository;
+import com.liveasy.load.util.LoadCursor;
+import com.liveasy.load.util.LoadFields;
+import com.liveasy.common.cache.TwoTierCache;
 import com.liveasy.common.events.LoadStatusChangedEvent;
+import com.liveasy.common.outbox.OutboxService;
 
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -27,17 +51,88 @@ public class LoadService {
     private LoadRepository loadRepository;
     
     @Autowired
-    private KafkaTemplate<String, LoadStatusChangedEvent> kafkaTemplate;
+    private OutboxService outboxService;
+    
+    @Autowired
+    private LoadIndexService loadIndexService;
+    
+    @Autowired
+    private LaneIndexService laneIndexService;
+    
+    @Autowired
+    private LoadSearchService loadSearchService;
+    
+    @Autowired
+    private LoadChangeBroadcaster loadChangeBroadcaster;
+    
+    @Autowired
+    private CacheManager cacheManager;
+    
+    @PersistenceContext
+    private EntityManager entityManager;
+    
+    @Value("${load.page.default-size:50}")
+    private int defaultPageSize;
+    
+    @Value("${load.page.max-size:200}")
+    private int maxPageSize;
+    
+    @Value("${load.search.max-results:200}")
+    private int maxSearchResults;
     
     private static final String TOPIC = "load-status-changes";
+    private static final String CACHE_NAME = "loads";
+
+    public LoadPage getLoadPage(String cursor, Integer limit) {
+        int pageSize = pageSize(limit);
+        logger.info("Fetching load page, cursor: {}, size: {}", cursor, pageSize);
+        
+        // Same clock as event timestamps, taken before the read so it never claims a newer state than it saw
+        LocalDateTime readAt = LocalDateTime.now();
+        // Fetch one extra row to learn whether another page exists
+        PageRequest pageRequest = PageRequest.of(0, pageSize + 1);
+        List<Load> loads;
+        if (cursor == null || cursor.isEmpty()) {
+            loads = loadRepository.findFirstPage(pageRequest);
+        } else {
+            LoadCursor position = LoadCursor.decode(cursor);
+            loads = loadRepository.findPageAfter(position.getDatePosted(), position.getId(), pageRequest);
+        }
+        
+        if (loads.size() <= pageSize) {
+            return new LoadPage(loads, null, readAt);
+        }
+        List<Load> items = loads.subList(0, pageSize);
+        return new LoadPage(items, LoadCursor.encode(items.get(pageSize - 1)), readAt);
+    }
 
-    @Cacheable(value = "loads")
-    public List<Load> getAllLoads() {
-        logger.info("Fetching all loads");
-        return loadRepository.findAll();
+    /**
+     * Like getLoadPage, but selects only the requested fields in SQL and can
+     * filter by shipperId, truckType and status in the same query.
+     */
+    @Transactional(readOnly = true)
+    public LoadProjectionPage getProjectedLoadPage(String fields, String shipperId, String truckType,
+            Load.LoadStatus status, String cursor, Integer limit) {
+        int pageSize = pageSize(limit);
+        logger.info("Fetching projected load page, fields: {}, cursor: {}, size: {}", fields, cursor, pageSize);
+        LoadCursor after = cursor == null || cursor.isEmpty() ? null : LoadCursor.decode(cursor);
+        return loadRepository.findProjectedPage(LoadFields.parse(fields), shipperId, truckType, status, after, pageSize);
     }
 
-    @Cacheable(value = "loads", key = "#id")
+    @Transactional(readOnly = true)
+    public void streamAllLoads(Consumer<Load> consumer) {
+        logger.info("Streaming all loads");
+        try (Stream<Load> loads = loadRepository.streamAll()) {
+            loads.forEach(load -> {
+                consumer.accept(load);
+                // Keep the persistence context from growing with the result set
+                entityManager.detach(load);
+            });
+        }
+    }
+
+    // sync routes misses through the cache's single-flight loader
+    @Cacheable(value = "loads", key = "#id", sync = true)
     public Load getLoadById(UUID id) {
         logger.info("Fetching load with ID: {}", id);
         return loadRepository.findById(id)
@@ -47,31 +142,158 @@ public class LoadService {
                 });
     }
 
-    public List<Load> getLoadsByShipperId(String shipperId) {
-        logger.info("Fetching loads for shipper ID: {}", shipperId);
-        return loadRepository.findByShipperId(shipperId);
+    /**
+     * The load's current version: from the cache when it holds the load,
+     * otherwise a single-column query, so conditional GETs never hydrate it.
+     */
+    public Long getLoadVersion(UUID id) {
+        Load cached = cacheManager.getCache(CACHE_NAME).get(id, Load.class);
+        if (cached != null && cached.getVersion() != null) {
+            return cached.getVersion();
+        }
+        return loadRepository.findVersionById(id)
+                .orElseThrow(() -> new LoadNotFoundException("Load not found with ID: " + id));
+    }
+
+    public LoadPage getLoadsByShipperId(String shipperId, String cursor, Integer limit) {
+        logger.info("Fetching loads for shipper ID: {}, cursor: {}", shipperId, cursor);
+        if (!loadIndexService.isReady()) {
+            return getDatabasePage(shipperId, null, null, cursor, pageSize(limit));
+        }
+        return getIndexedPage(loadIndexService.getLoadIdsByShipperId(shipperId, cursor, pageSize(limit)));
+    }
+
+    public LoadPage getLoadsByTruckType(String truckType, String cursor, Integer limit) {
+        logger.info("Fetching loads for truck type: {}, cursor: {}", truckType, cursor);
+        if (!loadIndexService.isReady()) {
+            return getDatabasePage(null, truckType, null, cursor, pageSize(limit));
+        }
+        return getIndexedPage(loadIndexService.getLoadIdsByTruckType(truckType, cursor, pageSize(limit)));
     }
 
-    public List<Load> getLoadsByTruckType(String truckType) {
-        logger.info("Fetching loads for truck type: {}", truckType);
-        return loadRepository.findByTruckType(truckType);
+    public LoadPage getLoadsByStatus(Load.LoadStatus status, String cursor, Integer limit) {
+        logger.info("Fetching loads with status: {}, cursor: {}", status, cursor);
+        if (!loadIndexService.isReady()) {
+            return getDatabasePage(null, null, status, cursor, pageSize(limit));
+        }
+        return getIndexedPage(loadIndexService.getLoadIdsByStatus(status, cursor, pageSize(limit)));
     }
 
-    @CacheEvict(value = "loads", allEntries = true)
+    /**
+     * POSTED loads on a lane with a loadingDate in the window, earliest first.
+     */
+    public List<Load> searchByLane(String from, String to, LocalDate fromDate, LocalDate toDate, Integer limit) {
+        int maxResults = limit == null ? maxSearchResults : Math.max(1, Math.min(limit, maxSearchResults));
+        logger.info("Searching lane {} -> {} between {} and {}", from, to, fromDate, toDate);
+        List<Load> loads = resolveLoads(laneIndexService.search(from, to, fromDate, toDate, maxResults));
+        loads.sort(Comparator.comparing((Load load) -> load.getFacility().getLoadingDate(),
+                Comparator.nullsLast(Comparator.naturalOrder())).thenComparing(Load::getId));
+        return loads;
+    }
+
+    /**
+     * Loads whose productType or comment contain every keyword, best match first.
+     */
+    public List<Load> searchByText(String text, Load.LoadStatus status, String truckType, Integer limit) {
+        int maxResults = limit == null ? maxSearchResults : Math.max(1, Math.min(limit, maxSearchResults));
+        logger.info("Searching loads for '{}', status: {}, truck type: {}", text, status, truckType);
+        return resolveInOrder(loadSearchService.search(text, status, truckType, maxResults));
+    }
+
+    // The index sets are partial until they are (re)built, so the listing comes from Postgres meanwhile
+    private LoadPage getDatabasePage(String shipperId, String truckType, Load.LoadStatus status, String cursor,
+            int pageSize) {
+        LoadCursor after = cursor == null || cursor.isEmpty() ? null : LoadCursor.decode(cursor);
+        // One extra row tells whether another page exists
+        List<Load> loads = loadRepository.findPage(shipperId, truckType, status, after, pageSize + 1);
+        if (loads.size() <= pageSize) {
+            return new LoadPage(loads, null);
+        }
+        List<Load> items = loads.subList(0, pageSize);
+        return new LoadPage(items, LoadCursor.encode(items.get(pageSize - 1)));
+    }
+
+    // The index already orders the page; the cursor comes from it, so a load deleted meanwhile just drops out
+    private LoadPage getIndexedPage(LoadIndexService.IdPage page) {
+        return new LoadPage(resolveInOrder(page.getIds()), page.getNextCursor());
+    }
+
+    private List<Load> resolveInOrder(List<UUID> ids) {
+        Map<UUID, Load> loads = new HashMap<>();
+        for (Load load : resolveLoads(ids)) {
+            loads.put(load.getId(), load);
+        }
+        List<Load> ordered = new ArrayList<>(loads.size());
+        for (UUID id : ids) {
+            Load load = loads.get(id);
+            if (load != null) {
+                ordered.add(load);
+            }
+        }
+        return ordered;
+    }
+
+    private int pageSize(Integer limit) {
+        return limit == null ? defaultPageSize : Math.max(1, Math.min(limit, maxPageSize));
+    }
+
+    /**
+     * Resolves IDs through the per-load cache: one MGET for the IDs not in
+     * L1, then one query for the rest. Missing loads are skipped and the
+     * order is unspecified.
+     */
+    public List<Load> resolveLoads(Collection<UUID> ids) {
+        TwoTierCache cache = (TwoTierCache) cacheManager.getCache(CACHE_NAME);
+        List<Load> loads = new ArrayList<>(ids.size());
+        List<UUID> misses = new ArrayList<>();
+        
+        Map<Object, Object> cached = cache.getAll(ids);
+        for (UUID id : ids) {
+            Object load = cached.get(id);
+            if (load != null) {
+                loads.add((Load) load);
+            } else {
+                misses.add(id);
+            }
+        }
+        
+        if (!misses.isEmpty()) {
+            for (Load load : loadRepository.findAllById(misses)) {
+                cache.put(load.getId(), load);
+                loads.add(load);
+            }
+        }
+        
+        return loads;
+    }
+
+    @Transactional
     public Load createLoad(Load load) {
         load.setStatus(Load.LoadStatus.POSTED);
+        load.setBookingId(null);
         Load savedLoad = loadRepository.save(load);
         logger.info("Created load with ID: {}", savedLoad.getId());
         
-        // Send Kafka event for load creation
-        kafkaTemplate.send(TOPIC, new LoadStatusChangedEvent(savedLoad.getId(), savedLoad.getStatus().toString()));
+        // A new load only joins its own shipper/truckType/status sets
+        loadIndexService.onCreated(savedLoad);
+        loadChangeBroadcaster.onChanged(savedLoad);
+        
+        // Record event for load creation; published by the outbox relay after commit
+        outboxService.enqueue(TOPIC, new LoadStatusChangedEvent(savedLoad.getId(), savedLoad.getStatus().toString()));
         
         return savedLoad;
     }
 
     @CacheEvict(value = "loads", key = "#id")
-    public Load updateLoad(UUID id, Load loadDetails) {
+    @Transactional
+    public Load updateLoad(UUID id, Load loadDetails, Long expectedVersion) {
         Load load = getLoadById(id);
+        // If-Match guard; a concurrent write after this check still fails at flush on @Version
+        if (expectedVersion != null && !expectedVersion.equals(load.getVersion())) {
+            throw new LoadVersionMismatchException("Load " + id + " is at version " + load.getVersion()
+                    + ", not " + expectedVersion);
+        }
+        String previousTruckType = load.getTruckType();
         
         load.setFacility(loadDetails.getFacility());
         load.setProductType(loadDetails.getProductType());
@@ -81,31 +303,64 @@ public class LoadService {
         load.setComment(loadDetails.getComment());
         
         Load updatedLoad = loadRepository.save(load);
+        loadIndexService.onTruckTypeChanged(updatedLoad, previousTruckType);
+        loadChangeBroadcaster.onChanged(updatedLoad);
         logger.info("Updated load with ID: {}", id);
         
         return updatedLoad;
     }
 
     @CacheEvict(value = "loads", key = "#id")
+    @Transactional
     public void deleteLoad(UUID id) {
         Load load = getLoadById(id);
         loadRepository.delete(load);
+        loadIndexService.onDeleted(load);
+        loadChangeBroadcaster.onDeleted(id);
         logger.info("Deleted load with ID: {}", id);
         
-        // Send Kafka event for load deletion
-        kafkaTemplate.send(TOPIC, new LoadStatusChangedEvent(id, "DELETED"));
+        // Record event for load deletion
+        outboxService.enqueue(TOPIC, new LoadStatusChangedEvent(id, "DELETED"));
     }
 
     @CacheEvict(value = "loads", key = "#id")
-    public Load updateLoadStatus(UUID id, Load.LoadStatus status) {
-        Load load = getLoadById(id);
-        load.setStatus(status);
-        Load updatedLoad = loadRepository.save(load);
+    @Transactional
+    public Load updateLoadStatus(UUID id, Load.LoadStatus status, UUID bookingId) {
+        List<String> fromStatuses = status.allowedFrom().stream()
+                .map(Enum::name)
+                .collect(Collectors.toList());
+        List<Load> updated = fromStatuses.isEmpty()
+                ? List.of()
+                : loadRepository.transitionStatus(id, status.name(), fromStatuses,
+                        bookingId == null ? null : bookingId.toString());
+        
+        if (updated.isEmpty()) {
+            Load current = loadRepository.findById(id)
+                    .orElseThrow(() -> new LoadNotFoundException("Load not found with ID: " + id));
+            if (isRepeat(current, status, bookingId)) {
+                return current;
+            }
+            logger.warn("Rejected status transition {} -> {} for load ID: {}", current.getStatus(), status, id);
+            throw new LoadConflictException("Cannot change load " + id + " from " + current.getStatus() + " to " + status);
+        }
+        
+        Load updatedLoad = updated.get(0);
+        loadIndexService.onStatusSet(updatedLoad);
+        loadChangeBroadcaster.onChanged(updatedLoad);
         logger.info("Updated load status to {} for ID: {}", status, id);
         
-        // Send Kafka event for status change
-        kafkaTemplate.send(TOPIC, new LoadStatusChangedEvent(id, status.toString()));
+        // Record event for status change
+        outboxService.enqueue(TOPIC, new LoadStatusChangedEvent(id, status.toString()));
         
         return updatedLoad;
     }
+
+    // A retried request, not a competing one: BOOKED only from the booking that booked it, so two
+    // concurrent accepts can't both succeed; re-cancelling is harmless from anyone
+    private static boolean isRepeat(Load current, Load.LoadStatus status, UUID bookingId) {
+        if (current.getStatus() != status) {
+            return false;
+        }
+        return status != Load.LoadStatus.BOOKED || (bookingId != null && bookingId.equals(current.getBookingId()));
+    }
 }
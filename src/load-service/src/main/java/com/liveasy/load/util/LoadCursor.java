@@ -0,0 +1,44 @@
+
+package com.liveasy.load.util;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import com.liveasy.common.http.KeysetCursor;
+import com.liveasy.load.model.Load;
+
+/**
+ * Keyset cursor over (datePosted, id), in the shared {@link KeysetCursor}
+ * encoding.
+ */
+public final class LoadCursor {
+
+    private final LocalDateTime datePosted;
+    private final UUID id;
+
+    private LoadCursor(LocalDateTime datePosted, UUID id) {
+        this.datePosted = datePosted;
+        this.id = id;
+    }
+
+    public static String encode(Load load) {
+        return encode(load.getDatePosted(), load.getId());
+    }
+
+    public static String encode(LocalDateTime datePosted, UUID id) {
+        return KeysetCursor.encode(datePosted, id);
+    }
+
+    public static LoadCursor decode(String cursor) {
+        KeysetCursor position = KeysetCursor.decode(cursor);
+        return new LoadCursor(position.getTimestamp(), position.getId());
+    }
+
+    public LocalDateTime getDatePosted() {
+        return datePosted;
+    }
+
+    public UUID getId() {
+        return id;
+    }
+}
@@ -0,0 +1,35 @@
+package com.liveasy.load.util;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+
+import com.liveasy.common.http.FieldSelection;
+
+/**
+ * Parses the {@code fields} parameter of load list endpoints into the flat
+ * field names a projection query selects. {@code summary} stands for the
+ * load board columns; id is always included.
+ */
+public final class LoadFields {
+
+    public static final String SUMMARY = FieldSelection.SUMMARY;
+
+    public static final List<String> ALLOWED = Collections.unmodifiableList(Arrays.asList(
+            "id", "shipperId", "loadingPoint", "unloadingPoint", "loadingDate", "unloadingDate",
+            "productType", "truckType", "noOfTrucks", "weight", "comment", "datePosted", "status", "version"));
+
+    public static final List<String> SUMMARY_FIELDS = Collections.unmodifiableList(Arrays.asList(
+            "id", "loadingPoint", "unloadingPoint", "loadingDate", "truckType", "noOfTrucks", "weight", "status",
+            "version"));
+
+    private static final FieldSelection SELECTION = new FieldSelection(ALLOWED, SUMMARY_FIELDS);
+
+    private LoadFields() {
+    }
+
+    public static Set<String> parse(String fields) {
+        return SELECTION.parse(fields);
+    }
+}
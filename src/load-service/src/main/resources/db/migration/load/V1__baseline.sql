@@ -0,0 +1,19 @@
+-- Schema as previously created by ddl-auto: update, and nothing newer.
+-- Existing databases are baselined at this version and skip it, so every
+-- table added since needs its own migration.
+
+CREATE TABLE IF NOT EXISTS loads (
+    id              UUID         NOT NULL PRIMARY KEY,
+    shipper_id      VARCHAR(255) NOT NULL,
+    loading_point   VARCHAR(255),
+    unloading_point VARCHAR(255),
+    loading_date    TIMESTAMP,
+    unloading_date  TIMESTAMP,
+    product_type    VARCHAR(255),
+    truck_type      VARCHAR(255),
+    no_of_trucks    INTEGER      NOT NULL,
+    weight          FLOAT8       NOT NULL,
+    comment         VARCHAR(255),
+    date_posted     TIMESTAMP,
+    status          VARCHAR(255)
+);
@@ -0,0 +1,23 @@
+-- Built CONCURRENTLY so the migration doesn't block writes on a live table.
+
+-- getLoadPage / streamAll keyset order
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_loads_date_posted_id
+    ON loads (date_posted DESC, id DESC);
+
+-- findByShipperId, a shipper's own loads newest first
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_loads_shipper_id_date_posted
+    ON loads (shipper_id, date_posted DESC);
+
+-- findByTruckType, usually narrowed to open loads
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_loads_truck_type_status
+    ON loads (truck_type, status);
+
+-- findByStatus for the non-POSTED statuses
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_loads_status
+    ON loads (status);
+
+-- POSTED is the hot, small subset: findByStatus(POSTED), streamByStatus and
+-- the lane/matching index rebuilds read it in loadingDate order
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_loads_posted_loading_date
+    ON loads (loading_date, id)
+    WHERE status = 'POSTED';
@@ -0,0 +1,2 @@
+-- Optimistic-locking version for Load; existing rows start at 0.
+ALTER TABLE loads ADD COLUMN IF NOT EXISTS version BIGINT NOT NULL DEFAULT 0;
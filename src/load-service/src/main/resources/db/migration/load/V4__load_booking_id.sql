@@ -0,0 +1,2 @@
+-- The booking that moved the load to BOOKED, so only that booking may repeat the transition.
+ALTER TABLE loads ADD COLUMN IF NOT EXISTS booking_id UUID;
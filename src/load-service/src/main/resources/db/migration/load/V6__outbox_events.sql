@@ -0,0 +1,13 @@
+-- Transactional outbox drained to Kafka by OutboxRelay. Not part of the old
+-- ddl-auto schema, so not in V1: baselined databases skip V1.
+CREATE TABLE IF NOT EXISTS outbox_events (
+    id           BIGSERIAL    NOT NULL PRIMARY KEY,
+    topic        VARCHAR(255) NOT NULL,
+    aggregate_id VARCHAR(255) NOT NULL,
+    payload      TEXT         NOT NULL,
+    created_at   TIMESTAMP    NOT NULL
+);
+
+-- Outbox lag gauge: MIN(created_at). The table is new and empty, so no CONCURRENTLY.
+CREATE INDEX IF NOT EXISTS idx_outbox_events_created_at
+    ON outbox_events (created_at);
@@ -0,0 +1,103 @@
+
+package com.liveasy.load;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.sql.DataSource;
+
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+
+/**
+ * A database created by the old ddl-auto: update is baselined at V1 and must
+ * still end up with exactly the schema a fresh database gets.
+ */
+class SchemaMigrationTest {
+
+    // What ddl-auto: update had built before Flyway took over; deliberately not read from V1
+    private static final String DDL_AUTO_SCHEMA = "CREATE TABLE loads ("
+            + "id UUID NOT NULL PRIMARY KEY, shipper_id VARCHAR(255) NOT NULL, loading_point VARCHAR(255), "
+            + "unloading_point VARCHAR(255), loading_date TIMESTAMP, unloading_date TIMESTAMP, "
+            + "product_type VARCHAR(255), truck_type VARCHAR(255), no_of_trucks INTEGER NOT NULL, "
+            + "weight FLOAT8 NOT NULL, comment VARCHAR(255), date_posted TIMESTAMP, status VARCHAR(255))";
+
+    private static EmbeddedPostgres postgres;
+
+    @BeforeAll
+    static void start() throws IOException {
+        postgres = EmbeddedPostgres.builder().start();
+    }
+
+    @AfterAll
+    static void stop() throws IOException {
+        postgres.close();
+    }
+
+    @Test
+    void baselinedDatabaseGetsTheSameSchemaAsAFreshOne() throws Exception {
+        DataSource fresh = createDatabase("fresh_load");
+        migrate(fresh);
+
+        DataSource existing = createDatabase("existing_load");
+        try (Connection connection = existing.getConnection(); Statement statement = connection.createStatement()) {
+            statement.execute(DDL_AUTO_SCHEMA);
+            statement.execute("INSERT INTO loads (id, shipper_id, no_of_trucks, weight, date_posted, status) "
+                    + "VALUES (md5('1')::uuid, 'shipper-1', 1, 1000, now(), 'POSTED')");
+        }
+        migrate(existing);
+
+        assertThat(schema(existing)).isNotEmpty().containsExactlyElementsOf(schema(fresh));
+    }
+
+    private static void migrate(DataSource dataSource) {
+        Flyway.configure()
+                .dataSource(dataSource)
+                .locations("classpath:db/migration/load")
+                .baselineOnMigrate(true)
+                .baselineVersion("1")
+                .load()
+                .migrate();
+    }
+
+    private static DataSource createDatabase(String name) throws Exception {
+        try (Connection connection = postgres.getPostgresDatabase().getConnection();
+                Statement statement = connection.createStatement()) {
+            statement.execute("CREATE DATABASE " + name);
+        }
+        return postgres.getDatabase("postgres", name);
+    }
+
+    // Columns and indexes of the application tables, in a stable order
+    private static List<String> schema(DataSource dataSource) throws Exception {
+        List<String> schema = new ArrayList<>();
+        try (Connection connection = dataSource.getConnection(); Statement statement = connection.createStatement()) {
+            try (ResultSet rows = statement.executeQuery("SELECT table_name, column_name, data_type, is_nullable, "
+                    + "column_default FROM information_schema.columns "
+                    + "WHERE table_schema = 'public' AND table_name <> 'flyway_schema_history' "
+                    + "ORDER BY table_name, column_name")) {
+                while (rows.next()) {
+                    schema.add(rows.getString(1) + "." + rows.getString(2) + " " + rows.getString(3)
+                            + " nullable=" + rows.getString(4) + " default=" + rows.getString(5));
+                }
+            }
+            try (ResultSet rows = statement.executeQuery("SELECT indexdef FROM pg_indexes "
+                    + "WHERE schemaname = 'public' AND tablename <> 'flyway_schema_history' ORDER BY indexname")) {
+                while (rows.next()) {
+                    schema.add(rows.getString(1));
+                }
+            }
+        }
+        return schema;
+    }
+}
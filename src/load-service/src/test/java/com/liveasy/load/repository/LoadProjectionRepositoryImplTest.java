@@ -0,0 +1,97 @@
+
+package com.liveasy.load.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.test.context.ContextConfiguration;
+
+import com.liveasy.load.dto.LoadProjectionPage;
+import com.liveasy.load.model.Facility;
+import com.liveasy.load.model.Load;
+import com.liveasy.load.util.LoadCursor;
+import com.liveasy.load.util.LoadFields;
+
+@DataJpaTest(properties = {
+        "spring.flyway.locations=classpath:db/migration/load",
+        "spring.jpa.hibernate.ddl-auto=validate"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ContextConfiguration(classes = RepositoryTestConfig.class)
+class LoadProjectionRepositoryImplTest {
+
+    // Other test classes may share the database, so every query is narrowed to this shipper
+    private static final String SHIPPER = "projection-test-shipper";
+
+    @Autowired
+    private LoadRepository loadRepository;
+
+    private final List<Load> newestFirst = new ArrayList<>();
+
+    @BeforeEach
+    void saveLoads() {
+        LocalDateTime posted = LocalDateTime.of(2024, 1, 1, 12, 0);
+        for (int i = 0; i < 5; i++) {
+            Facility facility = new Facility();
+            facility.setLoadingPoint("Pune");
+            facility.setUnloadingPoint("Delhi");
+            facility.setLoadingDate(posted.plusDays(2));
+
+            Load load = new Load();
+            load.setShipperId(SHIPPER);
+            load.setFacility(facility);
+            load.setTruckType("Canter");
+            load.setNoOfTrucks(1);
+            load.setWeight(1000);
+            load.setDatePosted(posted.plusMinutes(i));
+            newestFirst.add(loadRepository.save(load));
+        }
+        loadRepository.flush();
+        newestFirst.sort(Comparator.comparing(Load::getDatePosted).reversed());
+    }
+
+    @Test
+    void pagesSummaryFields() {
+        assertPagesThroughAll(LoadFields.parse(LoadFields.SUMMARY));
+    }
+
+    @Test
+    void pagesWhenTheKeysetColumnsAreRequested() {
+        Set<String> fields = LoadFields.parse("id,datePosted");
+
+        List<Map<String, Object>> items = assertPagesThroughAll(fields);
+
+        assertThat(items).extracting(item -> item.get("datePosted"))
+                .containsExactlyElementsOf(newestFirst.stream().map(Load::getDatePosted).collect(Collectors.toList()));
+    }
+
+    private List<Map<String, Object>> assertPagesThroughAll(Set<String> fields) {
+        LoadProjectionPage first = loadRepository.findProjectedPage(fields, SHIPPER, null, null, null, 3);
+        assertThat(first.getItems()).hasSize(3);
+        assertThat(first.getNextCursor()).isNotNull();
+
+        LoadProjectionPage second = loadRepository.findProjectedPage(fields, SHIPPER, null, null,
+                LoadCursor.decode(first.getNextCursor()), 3);
+        assertThat(second.getItems()).hasSize(2);
+        assertThat(second.getNextCursor()).isNull();
+
+        List<Map<String, Object>> items = new ArrayList<>(first.getItems());
+        items.addAll(second.getItems());
+        assertThat(items).allSatisfy(item -> assertThat(item.keySet()).containsExactlyElementsOf(fields));
+        assertThat(items).extracting(item -> item.get("id"))
+                .containsExactlyElementsOf(newestFirst.stream().map(Load::getId).collect(Collectors.toList()));
+        return items;
+    }
+}
@@ -0,0 +1,152 @@
+
+package com.liveasy.load.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.sql.Connection;
+import java.sql.Statement;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.context.ContextConfiguration;
+
+import com.liveasy.common.outbox.OutboxEventRepository;
+import com.liveasy.load.model.Load;
+import com.liveasy.load.util.LoadCursor;
+import com.liveasy.load.util.LoadFields;
+
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+
+/**
+ * Runs the hot repository methods against a seeded, analyzed database and
+ * EXPLAINs the statements they actually sent: none may fall back to a
+ * sequential scan.
+ */
+@DataJpaTest(properties = {
+        "spring.flyway.locations=classpath:db/migration/load",
+        "spring.jpa.hibernate.ddl-auto=validate"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ContextConfiguration(classes = RepositoryTestConfig.class)
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class LoadRepositoryQueryPlanTest {
+
+    private static final int LOADS = 50_000;
+    private static final int OUTBOX_EVENTS = 10_000;
+
+    private static final Set<String> SUMMARY = LoadFields.parse(LoadFields.SUMMARY);
+    private static final LoadCursor MIDDLE = LoadCursor.decode(
+            LoadCursor.encode(LocalDateTime.now().minusDays(10), UUID.randomUUID()));
+
+    @Autowired
+    private LoadRepository loadRepository;
+
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+
+    @Autowired
+    private EmbeddedPostgres embeddedPostgres;
+
+    @Autowired
+    private StatementRecorder statementRecorder;
+
+    @BeforeAll
+    void seed() throws Exception {
+        try (Connection connection = embeddedPostgres.getPostgresDatabase().getConnection();
+                Statement statement = connection.createStatement()) {
+            // Mostly historic loads: only the newest few percent are still POSTED
+            statement.execute("INSERT INTO loads (id, shipper_id, loading_point, unloading_point, loading_date, "
+                    + "unloading_date, product_type, truck_type, no_of_trucks, weight, comment, date_posted, status, version) "
+                    + "SELECT md5(i::text)::uuid, 'shipper-' || (i % 2000), 'City' || (i % 50), 'City' || (i % 47), "
+                    + "now() + (i % 90) * interval '1 day', now() + (i % 90 + 2) * interval '1 day', 'Goods', "
+                    + "'Type' || (i % 20), 1 + i % 5, 1000 + i % 9000, NULL, now() - i * interval '1 minute', "
+                    + "CASE WHEN i <= " + LOADS / 20 + " THEN 'POSTED' WHEN i % 100 < 3 THEN 'CANCELLED' "
+                    + "ELSE 'BOOKED' END, 0 "
+                    + "FROM generate_series(1, " + LOADS + ") AS i");
+            statement.execute("INSERT INTO outbox_events (topic, aggregate_id, payload, created_at) "
+                    + "SELECT 'load-status-changes', i::text, '{}', now() - i * interval '1 second' "
+                    + "FROM generate_series(1, " + OUTBOX_EVENTS + ") AS i");
+            statement.execute("ANALYZE");
+        }
+    }
+
+    @BeforeEach
+    void clearRecordedStatements() {
+        statementRecorder.clear();
+    }
+
+    @Test
+    void keysetPagesUseAnIndex() throws Exception {
+        loadRepository.findFirstPage(PageRequest.of(0, 51));
+        loadRepository.findPageAfter(MIDDLE.getDatePosted(), MIDDLE.getId(), PageRequest.of(0, 51));
+
+        assertNoSequentialScans();
+    }
+
+    @Test
+    void projectedPagesUseAnIndex() throws Exception {
+        loadRepository.findProjectedPage(SUMMARY, null, null, null, null, 50);
+        loadRepository.findProjectedPage(SUMMARY, null, null, null, MIDDLE, 50);
+        loadRepository.findProjectedPage(SUMMARY, "shipper-7", null, null, null, 50);
+        loadRepository.findProjectedPage(SUMMARY, null, "Type3", Load.LoadStatus.POSTED, null, 50);
+        loadRepository.findProjectedPage(SUMMARY, null, null, Load.LoadStatus.POSTED, MIDDLE, 50);
+
+        assertNoSequentialScans();
+    }
+
+    @Test
+    void listingFallbackPagesUseAnIndex() throws Exception {
+        loadRepository.findPage("shipper-7", null, null, null, 51);
+        loadRepository.findPage(null, "Type3", null, MIDDLE, 51);
+        loadRepository.findPage(null, null, Load.LoadStatus.POSTED, null, 51);
+        loadRepository.findPage(null, null, Load.LoadStatus.BOOKED, MIDDLE, 51);
+
+        assertNoSequentialScans();
+    }
+
+    @Test
+    void singleLoadLookupsUseAnIndex() throws Exception {
+        UUID id = UUID.randomUUID();
+        loadRepository.findVersionById(id);
+        loadRepository.transitionStatus(id, Load.LoadStatus.BOOKED.name(),
+                Arrays.asList(Load.LoadStatus.POSTED.name()), UUID.randomUUID().toString());
+        loadRepository.findByShipperId("shipper-7");
+
+        assertNoSequentialScans();
+    }
+
+    @Test
+    void postedLoadStreamUsesAnIndex() throws Exception {
+        try (Stream<Load> loads = loadRepository.streamByStatus(Load.LoadStatus.POSTED)) {
+            assertThat(loads.count()).isEqualTo(LOADS / 20);
+        }
+
+        assertNoSequentialScans();
+    }
+
+    @Test
+    void outboxRelayQueriesUseAnIndex() throws Exception {
+        outboxEventRepository.findOldestCreatedAt();
+        outboxEventRepository.findNextBatch(PageRequest.of(0, 100));
+
+        assertNoSequentialScans();
+    }
+
+    private void assertNoSequentialScans() throws Exception {
+        Map<String, String> plans = statementRecorder.explainAll();
+        assertThat(plans).isNotEmpty();
+        plans.forEach((sql, plan) -> assertThat(plan).as(sql).doesNotContain("Seq Scan"));
+    }
+}
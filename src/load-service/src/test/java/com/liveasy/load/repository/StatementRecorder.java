@@ -0,0 +1,122 @@
+
+package com.liveasy.load.repository;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import javax.sql.DataSource;
+
+/**
+ * Wraps a DataSource and records every prepared statement with its bound
+ * parameters, so a test can EXPLAIN exactly what a repository method sent.
+ */
+class StatementRecorder {
+
+    private final DataSource target;
+    private final List<Recorded> statements = new CopyOnWriteArrayList<>();
+
+    StatementRecorder(DataSource target) {
+        this.target = target;
+    }
+
+    DataSource dataSource() {
+        return proxy(DataSource.class, target, (method, args, result) ->
+                result instanceof Connection ? connection((Connection) result) : result);
+    }
+
+    void clear() {
+        statements.clear();
+    }
+
+    // Statement text to plan, for everything recorded since the last clear
+    Map<String, String> explainAll() throws Exception {
+        Map<String, String> plans = new LinkedHashMap<>();
+        try (Connection connection = target.getConnection()) {
+            for (Recorded statement : statements) {
+                plans.put(statement.sql, statement.explain(connection));
+            }
+        }
+        return plans;
+    }
+
+    private Connection connection(Connection connection) {
+        return proxy(Connection.class, connection, (method, args, result) -> {
+            if (!"prepareStatement".equals(method.getName())) {
+                return result;
+            }
+            Recorded recorded = new Recorded((String) args[0]);
+            statements.add(recorded);
+            return proxy(PreparedStatement.class, (PreparedStatement) result, (setter, values, ignored) -> {
+                if (setter.getName().startsWith("set") && values != null && values.length > 1
+                        && values[0] instanceof Integer) {
+                    recorded.bindings.put((Integer) values[0], new Binding(setter, values));
+                }
+                return ignored;
+            });
+        });
+    }
+
+    private interface Decorator {
+        Object apply(Method method, Object[] args, Object result) throws Exception;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T proxy(Class<T> type, T target, Decorator decorator) {
+        return (T) Proxy.newProxyInstance(StatementRecorder.class.getClassLoader(), new Class<?>[] {type},
+                (proxy, method, args) -> {
+                    Object result;
+                    try {
+                        result = method.invoke(target, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getCause();
+                    }
+                    return decorator.apply(method, args, result);
+                });
+    }
+
+    private static final class Recorded {
+        private final String sql;
+        private final Map<Integer, Binding> bindings = new TreeMap<>();
+
+        private Recorded(String sql) {
+            this.sql = sql;
+        }
+
+        private String explain(Connection connection) throws Exception {
+            StringBuilder plan = new StringBuilder();
+            try (PreparedStatement explain = connection.prepareStatement("EXPLAIN " + sql)) {
+                for (Binding binding : bindings.values()) {
+                    binding.setter.invoke(explain, binding.values);
+                }
+                try (ResultSet rows = explain.executeQuery()) {
+                    while (rows.next()) {
+                        plan.append(rows.getString(1)).append('\n');
+                    }
+                }
+            } catch (SQLException e) {
+                throw new IllegalStateException("Could not EXPLAIN " + sql, e);
+            }
+            return plan.toString();
+        }
+    }
+
+    private static final class Binding {
+        private final Method setter;
+        private final Object[] values;
+
+        private Binding(Method setter, Object[] values) {
+            this.setter = setter;
+            this.values = values;
+        }
+    }
+}